@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Compara la carga en la base de datos de muchas lecturas simultáneas de la misma URL sin y con coalescencia
+# (app.coalescencia.*): sentencias SQL por petición, peticiones por segundo y respuestas no 200.
+#
+# Requisitos: curl 7.66+ (--parallel), el JAR construido (./mvnw package -DskipTests) y PostgreSQL accesible
+# con la configuración de application.properties. El control de admisión se apaga para medir solo la coalescencia.
+#
+# Uso: ./bench/coalescing-benchmark.sh [ruta]
+#   ruta por defecto: /polizas/1 (también sirve /inventario/1000)
+# Variables: PETICIONES (2000 por corrida), CONCURRENCIAS ("1 50 200"), REUTILIZAR (0ms), JAVA_OPTS
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUTA="${1:-/polizas/1}"
+PETICIONES="${PETICIONES:-2000}"
+CONCURRENCIAS="${CONCURRENCIAS:-1 50 200}"
+REUTILIZAR="${REUTILIZAR:-0ms}"
+JAVA_OPTS="${JAVA_OPTS:--Xmx1g}"
+BASE_URL="http://localhost:8080/api/v1"
+JAR="$(ls target/polizas-api-*-exec.jar | head -1)"
+CONFIG_CURL="$(mktemp)"
+trap 'rm -f "$CONFIG_CURL"' EXIT
+
+for _ in $(seq 1 "$PETICIONES"); do
+    printf 'url = "%s%s"\noutput = "/dev/null"\n' "$BASE_URL" "$RUTA"
+done > "$CONFIG_CURL"
+
+esperar_arranque() {
+    for _ in $(seq 1 120); do
+        if curl -sf "$BASE_URL/actuator/health" > /dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "La API no arrancó a tiempo" >&2
+    return 1
+}
+
+# Total de sentencias SQL registradas por la inspección por petición (db.request.statements)
+sentencias() {
+    curl -s "$BASE_URL/actuator/prometheus" \
+        | awk '/^db_request_statements_sum/ { total += $NF } END { printf "%.0f", total }'
+}
+
+correr_modo() {
+    local modo="$1"
+    shift
+
+    # shellcheck disable=SC2086
+    java $JAVA_OPTS -jar "$JAR" "$@" --app.admision.enabled=false \
+        --logging.level.com.polizas=WARN --app.logging.enable-request-logging=false \
+        > "target/coalescing-$modo.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null; rm -f "$CONFIG_CURL"' EXIT
+
+    esperar_arranque
+
+    # Calentamiento para JIT y pool de conexiones
+    curl -s --no-progress-meter --parallel --parallel-max 50 --config "$CONFIG_CURL" > /dev/null
+
+    for concurrencia in $CONCURRENCIAS; do
+        local antes inicio codigos fin despues
+        antes="$(sentencias)"
+        inicio="$(date +%s%N)"
+        codigos="$(curl -s --no-progress-meter --parallel --parallel-immediate --parallel-max "$concurrencia" \
+            -w '%{http_code}\n' --config "$CONFIG_CURL")"
+        fin="$(date +%s%N)"
+        despues="$(sentencias)"
+        awk -v modo="$modo" -v c="$concurrencia" -v n="$PETICIONES" -v s="$((despues - antes))" \
+            -v ns="$((fin - inicio))" -v no200="$(grep -vc '^200$' <<< "$codigos" || true)" \
+            'BEGIN { printf "%-17s clientes=%4d  sentencias/petición=%6.3f  req/s=%8.0f  no 200=%d\n",
+                     modo, c, s / n, n / (ns / 1e9), no200 }'
+    done
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap 'rm -f "$CONFIG_CURL"' EXIT
+}
+
+correr_modo "sin-coalescencia" --app.coalescencia.enabled=false
+correr_modo "coalescencia" --app.coalescencia.enabled=true --app.coalescencia.reutilizar="$REUTILIZAR"
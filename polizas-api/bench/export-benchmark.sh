@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Compara GET /polizas (lista completa en memoria) contra GET /polizas/export (streaming).
+# Mide tiempo al primer byte, tiempo total y pico de heap muestreado desde actuator.
+#
+# Uso: ./bench/export-benchmark.sh [base-url]
+#   base-url por defecto: http://localhost:8080/api/v1
+#
+# Para resultados comparables, arrancar la API con el mismo -Xmx en cada corrida
+# y ejecutar contra el mismo conjunto de datos (./bench/seed-dataset.sh).
+
+set -euo pipefail
+
+BASE_URL="${1:-http://localhost:8080/api/v1}"
+HEAP_URL="$BASE_URL/actuator/metrics/jvm.memory.used?tag=area:heap"
+INTERVALO_MUESTREO="${INTERVALO_MUESTREO:-0.1}"
+
+heap_usado() {
+    curl -s "$HEAP_URL" | sed -n 's/.*"value":\([0-9.E+]*\).*/\1/p' | awk '{ printf "%.0f", $1 }'
+}
+
+medir() {
+    local nombre="$1"
+    local ruta="$2"
+    local muestras
+    muestras="$(mktemp)"
+
+    # Muestrear el heap en segundo plano mientras dura la petición
+    (
+        while true; do
+            heap_usado >> "$muestras"
+            echo >> "$muestras"
+            sleep "$INTERVALO_MUESTREO"
+        done
+    ) &
+    local muestreador=$!
+
+    local tiempos
+    tiempos="$(curl -s -o /dev/null -w '%{time_starttransfer} %{time_total} %{size_download}' "$BASE_URL$ruta")"
+
+    kill "$muestreador" 2>/dev/null || true
+    wait "$muestreador" 2>/dev/null || true
+
+    local pico
+    pico="$(sort -n "$muestras" | tail -1)"
+    rm -f "$muestras"
+
+    read -r ttfb total bytes <<< "$tiempos"
+    printf '%-28s ttfb=%8.3fs total=%8.3fs bytes=%12d heap_pico=%6d MiB\n' \
+        "$nombre" "$ttfb" "$total" "$bytes" "$(( ${pico:-0} / 1024 / 1024 ))"
+}
+
+medir "GET /polizas" "/polizas"
+medir "GET /polizas/export ndjson" "/polizas/export?formato=ndjson"
+medir "GET /polizas/export csv" "/polizas/export?formato=csv"
@@ -0,0 +1,87 @@
+#!/usr/bin/env bash
+# Compara throughput de POST /polizas contra un solo SKU de alta demanda con el descuento directo
+# sobre la fila de inventario (por defecto) y con reservas en memoria (app.inventario.reservas.*).
+#
+# Requisitos: wrk (https://github.com/wg/wrk), el JAR construido (./mvnw package -DskipTests)
+# y PostgreSQL accesible con la configuración de application.properties, con el conjunto de datos
+# de ./bench/seed-dataset.sh (empleados desde el 1000). Cada corrida crea pólizas reales.
+#
+# Uso: ./bench/hot-sku-loadtest.sh [sku]
+#   sku por defecto: 1000 (su existencia se sube antes de cada modo para que no se agote)
+# Variables: DURACION (30s), HILOS_WRK (8), CONCURRENCIAS ("50 200"), EMPLEADOS (50000), JAVA_OPTS
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+SKU="${1:-1000}"
+DURACION="${DURACION:-30s}"
+HILOS_WRK="${HILOS_WRK:-8}"
+CONCURRENCIAS="${CONCURRENCIAS:-50 200}"
+EMPLEADOS="${EMPLEADOS:-50000}"
+JAVA_OPTS="${JAVA_OPTS:--Xmx1g}"
+BASE_URL="http://localhost:8080/api/v1"
+JAR="$(ls target/polizas-api-*-exec.jar | head -1)"
+SCRIPT_WRK="$(mktemp --suffix=.lua)"
+
+# Cada petición usa un empleado al azar: la única fila compartida es la del SKU
+cat > "$SCRIPT_WRK" <<EOF
+wrk.method = "POST"
+wrk.headers["Content-Type"] = "application/json"
+request = function()
+    local empleado = 1000 + math.random(0, $EMPLEADOS - 1)
+    return wrk.format(nil, "/api/v1/polizas",
+        nil, '{"empleadoGenero":' .. empleado .. ',"sku":$SKU,"cantidad":1}')
+end
+EOF
+
+esperar_arranque() {
+    for _ in $(seq 1 120); do
+        if curl -sf "$BASE_URL/actuator/health" > /dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "La API no arrancó a tiempo" >&2
+    return 1
+}
+
+correr_modo() {
+    local modo="$1"
+    shift
+
+    # shellcheck disable=SC2086
+    java $JAVA_OPTS -jar "$JAR" "$@" \
+        --logging.level.com.polizas=WARN --logging.level.org.hibernate.SQL=WARN \
+        --spring.jpa.show-sql=false --app.logging.enable-request-logging=false \
+        > "target/loadtest-hot-sku-$modo.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null; rm -f "$SCRIPT_WRK"' EXIT
+
+    esperar_arranque
+
+    # Existencia suficiente para toda la corrida
+    curl -sf -X PUT "$BASE_URL/inventario/$SKU" -H 'Content-Type: application/json' \
+        -d "{\"nombre\":\"Artículo de alta demanda\",\"cantidad\":100000000}" > /dev/null
+
+    # Calentamiento para JIT y pool de conexiones
+    wrk -t "$HILOS_WRK" -c 50 -d 10s -s "$SCRIPT_WRK" "$BASE_URL" > /dev/null
+
+    for conexiones in $CONCURRENCIAS; do
+        local salida
+        salida="$(wrk -t "$HILOS_WRK" -c "$conexiones" -d "$DURACION" --timeout 10s --latency \
+            -s "$SCRIPT_WRK" "$BASE_URL")"
+        local rps p99 errores
+        rps="$(awk '/Requests\/sec/ { print $2 }' <<< "$salida")"
+        p99="$(awk '$1 == "99%" { print $2 }' <<< "$salida")"
+        errores="$(awk '/Non-2xx|Socket errors/ { print }' <<< "$salida" | tr '\n' ' ')"
+        printf '%-10s clientes=%5d  req/s=%10s  p99=%10s  %s\n' "$modo" "$conexiones" "$rps" "$p99" "$errores"
+    done
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap 'rm -f "$SCRIPT_WRK"' EXIT
+}
+
+correr_modo "fila" --app.inventario.reservas.enabled=false
+correr_modo "reservas" --app.inventario.reservas.enabled=true --app.inventario.reservas.skus="$SKU"
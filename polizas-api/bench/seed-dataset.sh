@@ -0,0 +1,21 @@
+#!/usr/bin/env bash
+# Carga el conjunto de datos sintético reproducible (perfil seed) en la base de datos configurada,
+# para que los benchmarks y las pruebas de carga corran siempre contra los mismos datos.
+# Reemplaza el contenido de inventario, empleado y polizas.
+#
+# Requisitos: el JAR construido (./mvnw package -DskipTests) y PostgreSQL accesible.
+#
+# Uso: ./bench/seed-dataset.sh [argumentos de Spring...]
+#   p.ej. ./bench/seed-dataset.sh --app.seed.polizas=50000000 --app.seed.semilla=7
+# Variables: JAVA_OPTS, PERFILES (por defecto "default"; p.ej. "docker")
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAVA_OPTS="${JAVA_OPTS:--Xmx1g}"
+PERFILES="${PERFILES:-default}"
+JAR="$(ls target/polizas-api-*-exec.jar | head -1)"
+
+# shellcheck disable=SC2086
+java $JAVA_OPTS -jar "$JAR" --spring.profiles.active="$PERFILES,seed" "$@"
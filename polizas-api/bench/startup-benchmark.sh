@@ -0,0 +1,123 @@
+#!/usr/bin/env bash
+# Mide el arranque de cada variante de la API: milisegundos desde el lanzamiento del proceso hasta la
+# primera respuesta 200 de un endpoint de negocio, y RSS del proceso en ese momento.
+#
+# Uso: ./bench/startup-benchmark.sh [variantes...]
+#   variantes: jvm, aot-cds, native (por defecto las tres; las que no tengan artefacto se omiten)
+#
+#   jvm      target/polizas-api-*-exec.jar                   (mvn package)
+#   aot-cds  target/polizas-api-*.jar + target/polizas-api.jsa (mvn -Paot-cds package)
+#   native   target/polizas-api                              (mvn -Pnative native:compile)
+#
+# Variables:
+#   CORRIDAS   arranques por variante (por defecto 5; se reportan mediana y mínimo)
+#   RUTA       endpoint que cuenta como primera petición útil (por defecto /inventario/1000)
+#   PUERTO     puerto HTTP (por defecto 8080)
+#   JAVA       binario java (por defecto $JAVA_HOME/bin/java)
+#   JAVA_OPTS  opciones extra de la JVM, iguales para jvm y aot-cds
+#
+# Un mvn -Paot-cds package deja listas las variantes jvm y aot-cds; la variante jvm no activa el código AOT.
+# El entrenamiento CDS y las corridas necesitan la base de datos configurada en application.properties.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+CORRIDAS="${CORRIDAS:-5}"
+RUTA="${RUTA:-/inventario/1000}"
+PUERTO="${PUERTO:-8080}"
+JAVA="${JAVA:-${JAVA_HOME:+$JAVA_HOME/bin/}java}"
+JAVA_OPTS="${JAVA_OPTS:-}"
+URL="http://localhost:$PUERTO/api/v1$RUTA"
+LIMITE_MS=120000
+
+comando() {
+    case "$1" in
+        jvm)
+            local jar
+            jar="$(ls target/polizas-api-*-exec.jar 2>/dev/null | head -1)"
+            [ -n "$jar" ] && echo "$JAVA $JAVA_OPTS -jar $jar"
+            ;;
+        aot-cds)
+            local jar
+            jar="$(ls target/polizas-api-*.jar 2>/dev/null | grep -v -- '-exec.jar' | head -1)"
+            [ -n "$jar" ] && [ -f target/polizas-api.jsa ] && [ -d target/lib ] \
+                && echo "$JAVA $JAVA_OPTS -XX:SharedArchiveFile=target/polizas-api.jsa -Dspring.aot.enabled=true -jar $jar"
+            ;;
+        native)
+            [ -x target/polizas-api ] && echo "target/polizas-api"
+            ;;
+    esac
+    return 0
+}
+
+ahora_ms() {
+    date +%s%3N
+}
+
+rss_kb() {
+    awk '/^VmRSS:/ { print $2 }' "/proc/$1/status"
+}
+
+# Una corrida: imprime "<ms hasta el primer 200> <rss en KB>"
+arrancar() {
+    local cmd="$1"
+    local inicio pid estado
+    inicio="$(ahora_ms)"
+    $cmd --server.port="$PUERTO" > /tmp/startup-benchmark.log 2>&1 &
+    pid=$!
+
+    while true; do
+        estado="$(curl -s -o /dev/null -w '%{http_code}' "$URL" || true)"
+        if [ "$estado" = "200" ]; then
+            echo "$(( $(ahora_ms) - inicio )) $(rss_kb "$pid")"
+            break
+        fi
+        if ! kill -0 "$pid" 2>/dev/null || [ $(( $(ahora_ms) - inicio )) -gt $LIMITE_MS ]; then
+            echo "La variante no respondió; ver /tmp/startup-benchmark.log" >&2
+            kill "$pid" 2>/dev/null || true
+            wait "$pid" 2>/dev/null || true
+            return 1
+        fi
+        sleep 0.02
+    done
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+mediana() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+if curl -s -o /dev/null "http://localhost:$PUERTO"; then
+    echo "El puerto $PUERTO ya está en uso; detener la API antes de medir" >&2
+    exit 1
+fi
+
+VARIANTES=("$@")
+[ ${#VARIANTES[@]} -eq 0 ] && VARIANTES=(jvm aot-cds native)
+
+printf "%-10s %16s %16s %14s\n" "variante" "primer 200 (ms)" "mínimo (ms)" "RSS (MB)"
+for variante in "${VARIANTES[@]}"; do
+    cmd="$(comando "$variante")"
+    if [ -z "$cmd" ]; then
+        printf "%-10s %s\n" "$variante" "sin artefacto, se omite"
+        continue
+    fi
+
+    tiempos="$(mktemp)"
+    memorias="$(mktemp)"
+    for _ in $(seq 1 "$CORRIDAS"); do
+        salida="$(arrancar "$cmd")" || exit 1
+        read -r ms kb <<< "$salida"
+        echo "$ms" >> "$tiempos"
+        echo "$kb" >> "$memorias"
+    done
+
+    printf "%-10s %16s %16s %14s\n" "$variante" \
+        "$(mediana < "$tiempos")" \
+        "$(sort -n "$tiempos" | head -1)" \
+        "$(mediana < "$memorias" | awk '{ printf "%.0f", $1 / 1024 }')"
+    rm -f "$tiempos" "$memorias"
+done
@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+# Compara throughput y latencia p99 entre hilos de plataforma (por defecto) y hilos virtuales
+# (perfil virtual-threads) con 1k y 5k clientes concurrentes.
+#
+# Requisitos: wrk (https://github.com/wg/wrk), el JAR construido (./mvnw package -DskipTests)
+# y PostgreSQL accesible con la configuración de application.properties.
+# Para resultados comparables, cargar antes el mismo conjunto de datos con ./bench/seed-dataset.sh.
+#
+# Uso: ./bench/virtual-threads-loadtest.sh [ruta]
+#   ruta por defecto: /polizas/paginated?size=20
+# Variables: DURACION (60s), HILOS_WRK (16), CONCURRENCIAS ("1000 5000"), JAVA_OPTS
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUTA="${1:-/polizas/paginated?size=20}"
+DURACION="${DURACION:-60s}"
+HILOS_WRK="${HILOS_WRK:-16}"
+CONCURRENCIAS="${CONCURRENCIAS:-1000 5000}"
+JAVA_OPTS="${JAVA_OPTS:--Xmx1g}"
+BASE_URL="http://localhost:8080/api/v1"
+JAR="$(ls target/polizas-api-*-exec.jar | head -1)"
+
+# Las conexiones concurrentes de wrk necesitan descriptores de archivo suficientes
+ulimit -n 65536 2>/dev/null || true
+
+esperar_arranque() {
+    for _ in $(seq 1 120); do
+        if curl -sf "$BASE_URL/actuator/health" > /dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "La API no arrancó a tiempo" >&2
+    return 1
+}
+
+correr_modo() {
+    local modo="$1"
+    local perfiles="$2"
+
+    # shellcheck disable=SC2086
+    java $JAVA_OPTS -jar "$JAR" --spring.profiles.active="$perfiles" \
+        --logging.level.com.polizas=WARN --logging.level.org.hibernate.SQL=WARN \
+        --spring.jpa.show-sql=false --app.logging.enable-request-logging=false \
+        > "target/loadtest-$modo.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null || true' EXIT
+
+    esperar_arranque
+
+    # Calentamiento para JIT y pool de conexiones
+    wrk -t "$HILOS_WRK" -c 200 -d 15s "$BASE_URL$RUTA" > /dev/null
+
+    for conexiones in $CONCURRENCIAS; do
+        local salida
+        salida="$(wrk -t "$HILOS_WRK" -c "$conexiones" -d "$DURACION" --timeout 10s --latency "$BASE_URL$RUTA")"
+        local rps p99 errores
+        rps="$(awk '/Requests\/sec/ { print $2 }' <<< "$salida")"
+        p99="$(awk '$1 == "99%" { print $2 }' <<< "$salida")"
+        errores="$(awk '/Non-2xx|Socket errors/ { print }' <<< "$salida" | tr '\n' ' ')"
+        printf '%-10s clientes=%5d  req/s=%10s  p99=%10s  %s\n' "$modo" "$conexiones" "$rps" "$p99" "$errores"
+    done
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+correr_modo "plataforma" "default"
+correr_modo "virtuales" "default,virtual-threads"
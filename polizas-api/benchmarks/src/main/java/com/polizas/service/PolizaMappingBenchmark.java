@@ -0,0 +1,64 @@
+package com.polizas.service;
+
+import com.polizas.dto.PolizaResponseDto;
+import com.polizas.model.Empleado;
+import com.polizas.model.Poliza;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de armar un PolizaResponseDto: builders anidados de PolizaResponseDto.de (altas de PolizaService)
+ * frente al constructor plano que usan las proyecciones JPQL
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolizaMappingBenchmark {
+
+    private Poliza poliza;
+    private Empleado empleado;
+    private String nombreArticulo;
+
+    @Setup
+    public void setup() {
+        poliza = Poliza.builder()
+                .idPoliza(1001L)
+                .empleadoGenero(7L)
+                .sku(123456L)
+                .cantidad(3)
+                .fecha(LocalDateTime.of(2024, 1, 15, 10, 30))
+                .build();
+        empleado = Empleado.builder()
+                .idEmpleado(7L)
+                .nombre("Juan")
+                .apellido("Pérez")
+                .puesto("Almacenista")
+                .build();
+        nombreArticulo = "Tornillo hexagonal 1/4";
+    }
+
+    @Benchmark
+    public PolizaResponseDto buildPolizaResponse() {
+        return PolizaResponseDto.de(poliza, empleado, nombreArticulo);
+    }
+
+    @Benchmark
+    public PolizaResponseDto constructorProyeccion() {
+        return new PolizaResponseDto(poliza.getIdPoliza(), poliza.getCantidad(), poliza.getFecha(),
+                empleado.getNombre(), empleado.getApellido(), poliza.getSku(), nombreArticulo);
+    }
+}
@@ -0,0 +1,136 @@
+package com.polizas.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.polizas.config.RespuestaJsonWriter;
+import com.polizas.dto.PageResponseDto;
+import com.polizas.dto.PolizaResponseDto;
+import com.polizas.dto.ResponseDto;
+import com.polizas.model.Empleado;
+import com.polizas.model.Poliza;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción de ResponseDto y serialización de una página de pólizas, de 10 a 10.000 elementos:
+ * con el ObjectMapper y con RespuestaJsonWriter (mismos bytes). Ejecutar con -prof gc para ver
+ * las asignaciones por operación.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseEnvelopeBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int tamano;
+
+    private ObjectMapper objectMapper;
+    private RespuestaJsonWriter respuestaJsonWriter;
+    private List<Poliza> polizas;
+    private List<Empleado> empleados;
+    private PageResponseDto<PolizaResponseDto> pagina;
+    private ResponseDto<PageResponseDto<PolizaResponseDto>> respuesta;
+    private ByteArrayOutputStream salida;
+
+    @Setup
+    public void setup() {
+        // Misma configuración que spring.jackson.* en application.properties
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .simpleDateFormat("yyyy-MM-dd HH:mm:ss")
+                .build();
+        respuestaJsonWriter = new RespuestaJsonWriter(objectMapper);
+
+        LocalDateTime inicio = LocalDateTime.of(2024, 1, 1, 8, 0);
+        polizas = new ArrayList<>(tamano);
+        empleados = new ArrayList<>(tamano);
+        List<PolizaResponseDto> contenido = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            Poliza poliza = Poliza.builder()
+                    .idPoliza(1000L + i)
+                    .empleadoGenero((long) (i % 50))
+                    .sku(100000L + i % 500)
+                    .cantidad(1 + i % 10)
+                    .fecha(inicio.plusMinutes(i))
+                    .build();
+            Empleado empleado = Empleado.builder()
+                    .idEmpleado(poliza.getEmpleadoGenero())
+                    .nombre("Empleado " + poliza.getEmpleadoGenero())
+                    .apellido("Apellido " + poliza.getEmpleadoGenero())
+                    .build();
+            polizas.add(poliza);
+            empleados.add(empleado);
+            contenido.add(PolizaResponseDto.de(poliza, empleado, "Artículo " + poliza.getSku()));
+        }
+
+        pagina = PageResponseDto.<PolizaResponseDto>builder()
+                .content(contenido)
+                .currentPage(0)
+                .totalItems(tamano)
+                .totalPages(1)
+                .build();
+        respuesta = ResponseDto.success(pagina);
+        salida = new ByteArrayOutputStream(256 * tamano);
+    }
+
+    @Benchmark
+    public ResponseDto<PageResponseDto<PolizaResponseDto>> envolver() {
+        return ResponseDto.success(pagina);
+    }
+
+    @Benchmark
+    public int serializar() throws IOException {
+        salida.reset();
+        objectMapper.writeValue(salida, respuesta);
+        return salida.size();
+    }
+
+    /**
+     * Camino completo de una respuesta paginada: mapeo de cada póliza, sobre y JSON
+     */
+    @Benchmark
+    public int mapearYSerializar() throws IOException {
+        List<PolizaResponseDto> contenido = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            Poliza poliza = polizas.get(i);
+            contenido.add(PolizaResponseDto.de(poliza, empleados.get(i), "Artículo " + poliza.getSku()));
+        }
+        PageResponseDto<PolizaResponseDto> paginaMapeada = PageResponseDto.<PolizaResponseDto>builder()
+                .content(contenido)
+                .currentPage(0)
+                .totalItems(tamano)
+                .totalPages(1)
+                .build();
+
+        salida.reset();
+        objectMapper.writeValue(salida, ResponseDto.success(paginaMapeada));
+        return salida.size();
+    }
+
+    @Benchmark
+    public int escribir() throws IOException {
+        salida.reset();
+        respuestaJsonWriter.escribir(respuesta, salida);
+        return salida.size();
+    }
+}
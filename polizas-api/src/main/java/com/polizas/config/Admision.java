@@ -0,0 +1,31 @@
+package com.polizas.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Nombre con el que el endpoint anotado se configura en el control de admisión
+ * (app.admision.rutas.&lt;nombre&gt;.*) y se reporta en sus métricas. Sin la anotación la ruta usa los valores
+ * por defecto y se identifica por método y plantilla de ruta.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Admision {
+
+    String value();
+
+    /**
+     * Compartimento (lecturas o escrituras) cuando no corresponde al método HTTP, p. ej. un POST de solo consulta
+     */
+    String compartimento() default "";
+
+    /**
+     * La respuesta asíncrona no retiene una conexión de base de datos (p. ej. una suscripción SSE): libera su
+     * lugar al soltar el hilo de la petición en vez de conservarlo hasta que termine la respuesta
+     */
+    boolean liberarAlSoltarHilo() default false;
+}
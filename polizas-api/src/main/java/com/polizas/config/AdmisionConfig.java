@@ -0,0 +1,246 @@
+package com.polizas.config;
+
+import com.polizas.PolizasApiApplication;
+import com.polizas.exception.AdmisionRechazadaException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Control de admisión de los endpoints de la API: cada petición necesita un lugar en su compartimento (lecturas
+ * o escrituras, con concurrencia fija para que una ráfaga de escrituras no agote el pool de conexiones de las
+ * lecturas) y otro en el límite adaptativo de su ruta ({@link LimiteAdaptativo}). Sin cupo se responde 503 con
+ * Retry-After al instante, en lugar de esperar una conexión dentro de Tomcat.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.admision.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AdmisionConfig implements WebMvcConfigurer {
+
+    public static final String METRICA_RECHAZOS = "http.admission.rejected";
+    public static final String METRICA_LIMITE = "http.admission.limit";
+    public static final String METRICA_EN_CURSO = "http.admission.inflight";
+
+    public static final String LECTURAS = "lecturas";
+    public static final String ESCRITURAS = "escrituras";
+
+    @Value("${app.admision.lecturas.max-concurrentes:64}")
+    private int maxLecturas;
+
+    @Value("${app.admision.escrituras.max-concurrentes:8}")
+    private int maxEscrituras;
+
+    @Value("${app.admision.reintentar-en:1s}")
+    private Duration reintentarEn;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public AdmisionConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        // Después de la inspección de SQL, que así cierra también las peticiones descartadas
+        registry.addInterceptor(new AdmisionInterceptor(Map.of(LECTURAS, maxLecturas, ESCRITURAS, maxEscrituras),
+                reintentarEn, environment, meterRegistry)).order(Ordered.HIGHEST_PRECEDENCE + 1);
+    }
+
+    public static class AdmisionInterceptor implements AsyncHandlerInterceptor {
+        private static final String ATRIBUTO_PERMISO = AdmisionInterceptor.class.getName() + ".permiso";
+        private static final String PAQUETE = PolizasApiApplication.class.getPackageName();
+
+        private final Map<String, Semaphore> compartimentos = new ConcurrentHashMap<>();
+        private final Map<String, LimiteAdaptativo> limites = new ConcurrentHashMap<>();
+        private final Duration reintentarEn;
+        private final Environment environment;
+        private final MeterRegistry meterRegistry;
+
+        public AdmisionInterceptor(Map<String, Integer> maxPorCompartimento, Duration reintentarEn,
+                                   Environment environment, MeterRegistry meterRegistry) {
+            this.reintentarEn = reintentarEn;
+            this.environment = environment;
+            this.meterRegistry = meterRegistry;
+            maxPorCompartimento.forEach((nombre, maximo) -> {
+                Semaphore lugares = new Semaphore(maximo);
+                compartimentos.put(nombre, lugares);
+                Gauge.builder(METRICA_EN_CURSO, lugares, s -> maximo - s.availablePermits())
+                        .description("Peticiones admitidas en curso por compartimento")
+                        .tag("bulkhead", nombre)
+                        .register(meterRegistry);
+            });
+        }
+
+        @Override
+        public boolean preHandle(
+                @NonNull HttpServletRequest request,
+                @NonNull HttpServletResponse response,
+                @NonNull Object handler) {
+            // El redespacho de una respuesta asíncrona ya fue admitido; swagger, errores y actuator no se limitan
+            if (request.getDispatcherType() != DispatcherType.REQUEST
+                    || !(handler instanceof HandlerMethod metodo)
+                    || !metodo.getBeanType().getPackageName().startsWith(PAQUETE)) {
+                return true;
+            }
+
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String ruta = patron != null ? patron.toString() : "UNKNOWN";
+            Admision admision = metodo.getMethodAnnotation(Admision.class);
+            String nombre = admision != null ? admision.value() : request.getMethod() + " " + ruta;
+            String compartimento = admision != null && !admision.compartimento().isEmpty()
+                    ? admision.compartimento()
+                    : compartimentoPorMetodo(request.getMethod());
+
+            Semaphore lugares = compartimentos.get(compartimento);
+            if (lugares == null) {
+                throw new IllegalArgumentException("Compartimento de admisión desconocido: " + compartimento);
+            }
+            if (!lugares.tryAcquire()) {
+                rechazar(request.getMethod(), ruta, compartimento, "bulkhead_full");
+            }
+            LimiteAdaptativo limite = limites.computeIfAbsent(nombre, this::crearLimite);
+            OptionalLong admitida = limite.adquirir();
+            if (admitida.isEmpty()) {
+                lugares.release();
+                rechazar(request.getMethod(), ruta, compartimento, "route_limit");
+            }
+            request.setAttribute(ATRIBUTO_PERMISO,
+                    new Permiso(lugares, limite, admitida.getAsLong(), new AtomicBoolean()));
+            return true;
+        }
+
+        /**
+         * Las respuestas en streaming (las exportaciones) siguen usando su conexión después de soltar el hilo:
+         * conservan el lugar hasta que termina la petición asíncrona. Solo los endpoints marcados
+         * con liberarAlSoltarHilo (la suscripción SSE) lo liberan aquí.
+         */
+        @Override
+        public void afterConcurrentHandlingStarted(
+                @NonNull HttpServletRequest request,
+                @NonNull HttpServletResponse response,
+                @NonNull Object handler) {
+            if (!(request.getAttribute(ATRIBUTO_PERMISO) instanceof Permiso permiso)) {
+                return;
+            }
+            request.removeAttribute(ATRIBUTO_PERMISO);
+            Admision admision = handler instanceof HandlerMethod metodo
+                    ? metodo.getMethodAnnotation(Admision.class)
+                    : null;
+            if (admision != null && admision.liberarAlSoltarHilo()) {
+                permiso.liberar(false);
+                return;
+            }
+            // El redespacho ya no encuentra el permiso: lo libera el listener, que también ve errores y timeouts
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    permiso.liberar(response.getStatus() >= 500);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    permiso.liberar(true);
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    permiso.liberar(true);
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        }
+
+        @Override
+        public void afterCompletion(
+                @NonNull HttpServletRequest request,
+                @NonNull HttpServletResponse response,
+                @NonNull Object handler,
+                @Nullable Exception ex) {
+            liberar(request, ex != null || response.getStatus() >= 500);
+        }
+
+        private void liberar(HttpServletRequest request, boolean fallida) {
+            if (request.getAttribute(ATRIBUTO_PERMISO) instanceof Permiso permiso) {
+                request.removeAttribute(ATRIBUTO_PERMISO);
+                permiso.liberar(fallida);
+            }
+        }
+
+        private static String compartimentoPorMetodo(String metodo) {
+            return HttpMethod.GET.matches(metodo) || HttpMethod.HEAD.matches(metodo) ? LECTURAS : ESCRITURAS;
+        }
+
+        private void rechazar(String metodo, String ruta, String compartimento, String motivo) {
+            Counter.builder(METRICA_RECHAZOS)
+                    .description("Peticiones descartadas por el control de admisión")
+                    .tags("method", metodo, "uri", ruta, "bulkhead", compartimento, "reason", motivo)
+                    .register(meterRegistry)
+                    .increment();
+            throw new AdmisionRechazadaException(
+                    "Sin cupo para " + metodo + " " + ruta + " (" + motivo + ")", reintentarEn);
+        }
+
+        private LimiteAdaptativo crearLimite(String nombre) {
+            LimiteAdaptativo limite = new LimiteAdaptativo(
+                    propiedad(nombre, "limite-inicial", Integer.class, 20),
+                    propiedad(nombre, "limite-minimo", Integer.class, 2),
+                    propiedad(nombre, "limite-maximo", Integer.class, 200),
+                    propiedad(nombre, "latencia-objetivo", Duration.class, Duration.ofMillis(250)).toNanos(),
+                    propiedad(nombre, "reduccion", Double.class, 0.9));
+            Gauge.builder(METRICA_LIMITE, limite, LimiteAdaptativo::getLimite)
+                    .description("Límite adaptativo de peticiones concurrentes por ruta")
+                    .tag("route", nombre)
+                    .register(meterRegistry);
+            log.info("Límite de admisión de {}: {} peticiones concurrentes", nombre, limite.getLimite());
+            return limite;
+        }
+
+        // app.admision.rutas.<nombre>.<clave>, y si no está app.admision.<clave>
+        private <T> T propiedad(String ruta, String clave, Class<T> tipo, T defecto) {
+            T general = environment.getProperty("app.admision." + clave, tipo, defecto);
+            return environment.getProperty("app.admision.rutas." + ruta + "." + clave, tipo, general);
+        }
+
+        // Una sola liberación aunque el contenedor notifique error y luego completado
+        private record Permiso(Semaphore lugares, LimiteAdaptativo limite, long admitida, AtomicBoolean liberado) {
+
+            void liberar(boolean fallida) {
+                if (liberado.compareAndSet(false, true)) {
+                    limite.liberar(admitida, fallida);
+                    lugares.release();
+                }
+            }
+        }
+    }
+}
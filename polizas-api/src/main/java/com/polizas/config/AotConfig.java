@@ -0,0 +1,170 @@
+package com.polizas.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.Location;
+import org.flywaydb.core.api.ResourceProvider;
+import org.flywaydb.core.api.resource.LoadableResource;
+import org.springframework.aot.AotDetector;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Soporte para el arranque con Spring AOT (perfil aot-cds) y la imagen nativa (perfil native).
+ */
+@Configuration
+@ImportRuntimeHints(AotConfig.Hints.class)
+public class AotConfig {
+
+    /**
+     * Con el contexto procesado por AOT, Spring Boot 3.2 sustituye el proveedor de migraciones de Flyway por uno
+     * compilado contra Flyway 9 que falla con la 10. Si hay un proveedor configurado no lo toca: este lista las
+     * migraciones con el resolvedor de recursos de Spring, que funciona igual en JAR, directorio o imagen nativa.
+     */
+    @Bean
+    public FlywayConfigurationCustomizer migracionesAotFlywayCustomizer() {
+        return configuracion -> {
+            if (!AotDetector.useGeneratedArtifacts()
+                    || !Arrays.stream(configuracion.getLocations()).allMatch(Location::isClassPath)) {
+                return;
+            }
+            configuracion.resourceProvider(new RecursosMigracion(configuracion.getLocations(),
+                    configuracion.getClassLoader(), configuracion.getEncoding()));
+        };
+    }
+
+    /**
+     * Reflexión para lo que Jackson lee o escribe fuera de las firmas de los controladores (DTOs dentro de mapas,
+     * eventos SSE, builders de Lombok) y para las entidades
+     */
+    static class Hints implements RuntimeHintsRegistrar {
+        private static final String[] PAQUETES = { "com.polizas.dto", "com.polizas.model" };
+
+        @Override
+        public void registerHints(@NonNull RuntimeHints hints, @Nullable ClassLoader classLoader) {
+            BindingReflectionHintsRegistrar binding = new BindingReflectionHintsRegistrar();
+            ClassPathScanningCandidateComponentProvider escaner = new ClassPathScanningCandidateComponentProvider(false);
+            escaner.addIncludeFilter((lector, fabrica) -> true);
+            for (String paquete : PAQUETES) {
+                for (BeanDefinition tipo : escaner.findCandidateComponents(paquete)) {
+                    binding.registerReflectionHints(hints.reflection(),
+                            ClassUtils.resolveClassName(tipo.getBeanClassName(), classLoader));
+                }
+            }
+            // CacheConfig obtiene el proveedor JCache por nombre
+            hints.reflection().registerType(CaffeineCachingProvider.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+    }
+
+    /**
+     * Migraciones de las ubicaciones classpath de Flyway, listadas una vez al crear la configuración
+     */
+    static class RecursosMigracion implements ResourceProvider {
+        private final List<Migracion> recursos = new ArrayList<>();
+
+        RecursosMigracion(Location[] ubicaciones, ClassLoader classLoader, Charset codificacion) {
+            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+            for (Location ubicacion : ubicaciones) {
+                String raiz = ubicacion.getRootPath();
+                try {
+                    for (Resource recurso : resolver.getResources("classpath*:" + raiz + "/**/*")) {
+                        if (!recurso.isReadable() || recurso.getFilename() == null) {
+                            continue;
+                        }
+                        String url = recurso.getURL().toString();
+                        String relativa = url.substring(url.lastIndexOf(raiz + "/") + raiz.length() + 1);
+                        recursos.add(new Migracion(recurso, raiz, relativa, codificacion));
+                    }
+                } catch (IOException e) {
+                    throw new FlywayException("No se pudieron listar las migraciones de " + ubicacion, e);
+                }
+            }
+        }
+
+        @Override
+        public LoadableResource getResource(String nombre) {
+            return recursos.stream()
+                    .filter(recurso -> recurso.getRelativePath().equals(nombre))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        @Override
+        public Collection<LoadableResource> getResources(String prefijo, String... sufijos) {
+            return recursos.stream()
+                    .filter(recurso -> recurso.getFilename().startsWith(prefijo)
+                            && Arrays.stream(sufijos).anyMatch(recurso.getFilename()::endsWith))
+                    .map(LoadableResource.class::cast)
+                    .toList();
+        }
+    }
+
+    static class Migracion extends LoadableResource {
+        private final Resource recurso;
+        private final String raiz;
+        private final String relativa;
+        private final Charset codificacion;
+
+        Migracion(Resource recurso, String raiz, String relativa, Charset codificacion) {
+            this.recurso = recurso;
+            this.raiz = raiz;
+            this.relativa = relativa;
+            this.codificacion = codificacion;
+        }
+
+        @Override
+        public Reader read() {
+            try {
+                return new InputStreamReader(recurso.getInputStream(), codificacion);
+            } catch (IOException e) {
+                throw new FlywayException("No se pudo leer la migración " + getAbsolutePath(), e);
+            }
+        }
+
+        @Override
+        public String getAbsolutePath() {
+            return raiz + "/" + relativa;
+        }
+
+        @Override
+        public String getAbsolutePathOnDisk() {
+            try {
+                return recurso.getURL().toString();
+            } catch (IOException e) {
+                return getAbsolutePath();
+            }
+        }
+
+        @Override
+        public String getFilename() {
+            return recurso.getFilename();
+        }
+
+        @Override
+        public String getRelativePath() {
+            return relativa;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.polizas.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de segundo nivel de Hibernate sobre JCache (Caffeine, local a cada instancia). Las regiones se crean
+ * aquí y Hibernate falla al arrancar si una entidad pide una que no existe
+ * (hibernate.javax.cache.missing_cache_strategy=fail).
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String REGION_EMPLEADOS = "empleados";
+    public static final String REGION_ARTICULOS = "articulos";
+    // Nombres por defecto de Hibernate para la caché de consultas
+    static final String REGION_CONSULTAS = "default-query-results-region";
+    static final String REGION_MARCAS_TABLAS = "default-update-timestamps-region";
+
+    @Value("${app.cache.referencias.max-size:10000}")
+    private long maxSize;
+
+    @Value("${app.cache.referencias.ttl:10m}")
+    private Duration ttl;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager jcacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+        cacheManager.createCache(REGION_EMPLEADOS, region(maxSize, ttl));
+        cacheManager.createCache(REGION_ARTICULOS, region(maxSize, ttl));
+        cacheManager.createCache(REGION_CONSULTAS, region(maxSize, ttl));
+        // Marca de la última escritura por tabla: si expira o se desaloja, la caché de consultas devuelve
+        // resultados viejos. Una entrada por tabla, sin límite ni vencimiento
+        cacheManager.createCache(REGION_MARCAS_TABLAS, region(null, null));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer jcacheHibernatePropertiesCustomizer(CacheManager jcacheManager) {
+        return propiedades -> propiedades.put(ConfigSettings.CACHE_MANAGER, jcacheManager);
+    }
+
+    // Por referencia: Hibernate ya guarda copias desensambladas y copiarlas de nuevo solo cuesta serializar
+    private static CaffeineConfiguration<Object, Object> region(Long maximo, Duration vencimiento) {
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        configuracion.setStoreByValue(false);
+        configuracion.setStatisticsEnabled(true);
+        if (maximo != null) {
+            configuracion.setMaximumSize(OptionalLong.of(maximo));
+        }
+        if (vencimiento != null) {
+            configuracion.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(
+                    new javax.cache.expiry.Duration(TimeUnit.MILLISECONDS, vencimiento.toMillis())));
+        }
+        return configuracion;
+    }
+}
@@ -0,0 +1,154 @@
+package com.polizas.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a una réplica disponible (por turnos) y todo lo
+ * demás a la primaria. Debe ir detrás de un LazyConnectionDataSourceProxy: la marca readOnly de la
+ * transacción se publica después de que el administrador de transacciones pide la conexión.
+ * <p>
+ * Una réplica sale de la rotación si no entrega una conexión o si la verificación periódica falla o mide
+ * un retraso mayor a retrasoMaximo; vuelve cuando una verificación la encuentra bien. Sin réplicas
+ * disponibles las lecturas van a la primaria.
+ */
+@Slf4j
+public class EnrutadorDataSource extends AbstractDataSource implements Closeable {
+
+    // Retraso de aplicación en segundos; 0 si la réplica ya aplicó todo lo recibido o si no es réplica
+    // (una instancia independiente que hace de réplica en pruebas locales)
+    private static final String RETRASO = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private static final ThreadLocal<Boolean> PRIMARIA_FORZADA = new ThreadLocal<>();
+
+    private final DataSource primaria;
+    private final List<Replica> replicas;
+    private final Duration retrasoMaximo;
+    private final AtomicInteger turno = new AtomicInteger();
+
+    public EnrutadorDataSource(DataSource primaria, List<Replica> replicas, Duration retrasoMaximo) {
+        this.primaria = primaria;
+        this.replicas = List.copyOf(replicas);
+        this.retrasoMaximo = retrasoMaximo;
+    }
+
+    /**
+     * Envía también las lecturas del hilo actual a la primaria (lectura de las propias escrituras)
+     */
+    public static void forzarPrimaria(boolean forzar) {
+        if (forzar) {
+            PRIMARIA_FORZADA.set(Boolean.TRUE);
+        } else {
+            PRIMARIA_FORZADA.remove();
+        }
+    }
+
+    public static boolean primariaForzada() {
+        return PRIMARIA_FORZADA.get() != null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || primariaForzada()) {
+            return primaria.getConnection();
+        }
+        int inicio = Math.floorMod(turno.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((inicio + i) % replicas.size());
+            if (!replica.disponible) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.marcar(false, e.getMessage());
+            }
+        }
+        return primaria.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primaria.getConnection(username, password);
+    }
+
+    /**
+     * Verifica cada réplica y la saca o la regresa a la rotación
+     */
+    public void verificar() {
+        for (Replica replica : replicas) {
+            try (Connection conexion = replica.dataSource.getConnection();
+                 Statement sentencia = conexion.createStatement()) {
+                sentencia.setQueryTimeout((int) Math.max(1, retrasoMaximo.toSeconds()));
+                try (ResultSet rs = sentencia.executeQuery(RETRASO)) {
+                    rs.next();
+                    double retraso = rs.getDouble(1);
+                    if (retraso * 1000 > retrasoMaximo.toMillis()) {
+                        replica.marcar(false, String.format("retraso de %.1f s", retraso));
+                    } else {
+                        replica.marcar(true, null);
+                    }
+                }
+            } catch (SQLException e) {
+                replica.marcar(false, e.getMessage());
+            }
+        }
+    }
+
+    public int disponibles() {
+        return (int) replicas.stream().filter(replica -> replica.disponible).count();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable pool) {
+                pool.close();
+            }
+        }
+        if (primaria instanceof Closeable pool) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Pool de una réplica y si está en la rotación
+     */
+    public static final class Replica {
+        private final String nombre;
+        private final DataSource dataSource;
+        private volatile boolean disponible = true;
+
+        public Replica(String nombre, DataSource dataSource) {
+            this.nombre = nombre;
+            this.dataSource = dataSource;
+        }
+
+        private synchronized void marcar(boolean disponible, String motivo) {
+            if (this.disponible == disponible) {
+                return;
+            }
+            this.disponible = disponible;
+            if (disponible) {
+                log.info("Réplica {} de vuelta en la rotación de lecturas", nombre);
+            } else {
+                log.warn("Réplica {} fuera de la rotación de lecturas: {}", nombre, motivo);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.polizas.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Inspección de las sentencias SQL de cada petición: abre y cierra {@link JdbcRequestStats} (lo leen también el
+ * log de acceso y el encabezado Server-Timing) y al terminar reporta las formas repetidas (N+1), las sentencias
+ * lentas y los presupuestos excedidos ({@link PresupuestoSql}).
+ */
+@Configuration
+@Slf4j
+public class InspeccionSqlConfig implements WebMvcConfigurer {
+
+    public static final String METRICA_SENTENCIAS = "db.request.statements";
+    public static final String METRICA_N_MAS_UNO = "db.request.n_plus_one";
+    public static final String METRICA_LENTAS = "db.statements.slow";
+    public static final String METRICA_PRESUPUESTO = "db.request.budget.exceeded";
+
+    @Value("${app.jdbc.inspeccion.n-mas-uno:5}")
+    private int umbralNMasUno;
+
+    @Value("${app.jdbc.inspeccion.lenta:200ms}")
+    private Duration umbralLenta;
+
+    @Value("${app.jdbc.inspeccion.presupuesto.por-defecto:0}")
+    private int presupuestoPorDefecto;
+
+    @Value("${app.jdbc.inspeccion.presupuesto.estricto:false}")
+    private boolean estricto;
+
+    private final MeterRegistry meterRegistry;
+
+    public InspeccionSqlConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        // Primero en abrir y último en cerrar: el log de acceso todavía ve las estadísticas
+        registry.addInterceptor(new InspeccionSqlInterceptor(umbralNMasUno, umbralLenta, presupuestoPorDefecto,
+                estricto, meterRegistry)).order(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    public static class InspeccionSqlInterceptor implements AsyncHandlerInterceptor {
+        private final int umbralNMasUno;
+        private final long umbralLentaNanos;
+        private final int presupuestoPorDefecto;
+        private final boolean estricto;
+        private final MeterRegistry meterRegistry;
+
+        public InspeccionSqlInterceptor(int umbralNMasUno, Duration umbralLenta, int presupuestoPorDefecto,
+                                        boolean estricto, MeterRegistry meterRegistry) {
+            this.umbralNMasUno = umbralNMasUno;
+            this.umbralLentaNanos = umbralLenta.toNanos();
+            this.presupuestoPorDefecto = presupuestoPorDefecto;
+            this.estricto = estricto;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public boolean preHandle(
+                @NonNull HttpServletRequest request,
+                @NonNull HttpServletResponse response,
+                @NonNull Object handler) {
+            PresupuestoSql presupuesto = handler instanceof HandlerMethod metodo
+                    ? metodo.getMethodAnnotation(PresupuestoSql.class)
+                    : null;
+            JdbcRequestStats.iniciar(presupuesto != null ? presupuesto.value() : presupuestoPorDefecto,
+                    estricto, umbralLentaNanos);
+            return true;
+        }
+
+        // El hilo de la petición se libera antes de terminar la respuesta asíncrona
+        @Override
+        public void afterConcurrentHandlingStarted(
+                @NonNull HttpServletRequest request,
+                @NonNull HttpServletResponse response,
+                @NonNull Object handler) {
+            JdbcRequestStats.terminar();
+        }
+
+        @Override
+        public void afterCompletion(
+                @NonNull HttpServletRequest request,
+                @NonNull HttpServletResponse response,
+                @NonNull Object handler,
+                @Nullable Exception ex) {
+            JdbcRequestStats stats = JdbcRequestStats.actual();
+            JdbcRequestStats.terminar();
+            if (stats == null || stats.getSentencias() == 0) {
+                return;
+            }
+
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String ruta = patron != null ? patron.toString() : "UNKNOWN";
+            String metodo = request.getMethod();
+
+            DistributionSummary.builder(METRICA_SENTENCIAS)
+                    .description("Sentencias SQL por petición")
+                    .tags("method", metodo, "uri", ruta)
+                    .register(meterRegistry)
+                    .record(stats.getSentencias());
+
+            Map<String, Integer> repetidas = stats.repetidas(umbralNMasUno);
+            if (!repetidas.isEmpty()) {
+                contador(METRICA_N_MAS_UNO, "Peticiones con una misma forma de sentencia repetida", metodo, ruta)
+                        .increment();
+                repetidas.forEach((forma, veces) ->
+                        log.warn("Posible N+1 en {} {}: {} ejecuciones de {}", metodo, ruta, veces, forma));
+            }
+
+            for (JdbcRequestStats.SentenciaLenta lenta : stats.getLentas()) {
+                contador(METRICA_LENTAS, "Sentencias SQL más lentas que el umbral", metodo, ruta).increment();
+                log.warn("Sentencia lenta en {} {}: {} ms, {} parámetros (huella {}): {}", metodo, ruta,
+                        String.format("%.1f", lenta.millis()), lenta.parametros(), lenta.huella(), lenta.forma());
+            }
+
+            if (stats.excedido()) {
+                contador(METRICA_PRESUPUESTO, "Peticiones que excedieron su presupuesto de sentencias SQL",
+                        metodo, ruta).increment();
+                log.warn("Presupuesto SQL excedido en {} {}: {} sentencias de {}", metodo, ruta,
+                        stats.getSentencias(), stats.getPresupuesto());
+            }
+        }
+
+        private Counter contador(String nombre, String descripcion, String metodo, String ruta) {
+            return Counter.builder(nombre)
+                    .description(descripcion)
+                    .tags("method", metodo, "uri", ruta)
+                    .register(meterRegistry);
+        }
+    }
+}
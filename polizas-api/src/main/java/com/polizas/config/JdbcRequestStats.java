@@ -0,0 +1,164 @@
+package com.polizas.config;
+
+import com.polizas.exception.PresupuestoSqlExcedidoException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Acumulador por hilo de las sentencias JDBC ejecutadas durante una petición HTTP.
+ * Lo inicia el interceptor de la petición y lo alimenta {@link JdbcTimingDataSource}.
+ * Además del total agrupa las sentencias por forma (el SQL sin literales) para detectar N+1
+ * y conserva las que tardaron más que el umbral de sentencia lenta.
+ */
+public final class JdbcRequestStats {
+
+    // Máximo de sentencias lentas que se conservan por petición
+    static final int MAXIMO_LENTAS = 20;
+
+    private static final ThreadLocal<JdbcRequestStats> ACTUAL = new ThreadLocal<>();
+
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+    private static final Pattern CADENAS = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMEROS = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    // IN (?, ?, ?) con cualquier número de parámetros es la misma forma
+    private static final Pattern LISTAS = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private final int presupuesto;
+    private final boolean estricto;
+    private final long umbralLentaNanos;
+    private final Map<String, Integer> formas = new HashMap<>();
+    private final List<SentenciaLenta> lentas = new ArrayList<>();
+    private int sentencias;
+    private long nanos;
+
+    private JdbcRequestStats(int presupuesto, boolean estricto, long umbralLentaNanos) {
+        this.presupuesto = presupuesto;
+        this.estricto = estricto;
+        this.umbralLentaNanos = umbralLentaNanos;
+    }
+
+    public static JdbcRequestStats iniciar() {
+        return iniciar(0, false, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param presupuesto      sentencias permitidas en la petición, 0 sin límite
+     * @param estricto         si al excederlo la sentencia falla en lugar de solo informarse al final
+     * @param umbralLentaNanos duración a partir de la cual una sentencia se reporta como lenta
+     */
+    public static JdbcRequestStats iniciar(int presupuesto, boolean estricto, long umbralLentaNanos) {
+        JdbcRequestStats stats = new JdbcRequestStats(presupuesto, estricto, umbralLentaNanos);
+        ACTUAL.set(stats);
+        return stats;
+    }
+
+    /**
+     * Estadísticas de la petición en curso, o null si el hilo no está atendiendo una petición
+     */
+    public static JdbcRequestStats actual() {
+        return ACTUAL.get();
+    }
+
+    public static void terminar() {
+        ACTUAL.remove();
+    }
+
+    /**
+     * SQL sin literales ni espacios repetidos: dos ejecuciones con la misma forma solo difieren en sus valores
+     */
+    static String forma(String sql) {
+        String forma = ESPACIOS.matcher(sql.trim()).replaceAll(" ");
+        forma = CADENAS.matcher(forma).replaceAll("?");
+        forma = NUMEROS.matcher(forma).replaceAll("?");
+        return LISTAS.matcher(forma).replaceAll("(?...)");
+    }
+
+    /**
+     * Huella de los parámetros enlazados: identifica ejecuciones con los mismos valores sin registrarlos
+     */
+    static String huella(Object[] parametros) {
+        if (parametros == null) {
+            return "-";
+        }
+        try {
+            byte[] digesto = MessageDigest.getInstance("SHA-256")
+                    .digest(Arrays.deepToString(parametros).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digesto, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void antesDeEjecutar(String forma) {
+        if (estricto && presupuesto > 0 && sentencias >= presupuesto) {
+            throw new PresupuestoSqlExcedidoException(presupuesto, forma);
+        }
+    }
+
+    /**
+     * @param lote si fue un executeBatch: cuenta para el total y el presupuesto, pero repetirlo no es un N+1
+     */
+    void registrar(String forma, long duracionNanos, Object[] parametros, boolean lote) {
+        sentencias++;
+        nanos += duracionNanos;
+        if (!lote) {
+            formas.merge(forma, 1, Integer::sum);
+        }
+        if (duracionNanos >= umbralLentaNanos && lentas.size() < MAXIMO_LENTAS) {
+            lentas.add(new SentenciaLenta(forma, duracionNanos / 1_000_000.0,
+                    parametros == null ? 0 : parametros.length, huella(parametros)));
+        }
+    }
+
+    /**
+     * Formas ejecutadas al menos {@code minimo} veces, de la más repetida a la menos
+     */
+    public Map<String, Integer> repetidas(int minimo) {
+        Map<String, Integer> repetidas = new LinkedHashMap<>();
+        formas.entrySet().stream()
+                .filter(forma -> forma.getValue() >= minimo)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(forma -> repetidas.put(forma.getKey(), forma.getValue()));
+        return repetidas;
+    }
+
+    public boolean excedido() {
+        return presupuesto > 0 && sentencias > presupuesto;
+    }
+
+    public int getPresupuesto() {
+        return presupuesto;
+    }
+
+    public List<SentenciaLenta> getLentas() {
+        return lentas;
+    }
+
+    public int getSentencias() {
+        return sentencias;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getMillis() {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Sentencia que superó el umbral: su forma, duración y la huella de sus parámetros
+     */
+    public record SentenciaLenta(String forma, double millis, int parametros, String huella) {
+    }
+}
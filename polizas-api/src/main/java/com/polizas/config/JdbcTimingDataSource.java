@@ -0,0 +1,138 @@
+package com.polizas.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * DataSource que mide el tiempo de cada ejecución de sentencia y lo acumula en {@link JdbcRequestStats}
+ * junto con su SQL y, en las sentencias preparadas, los parámetros enlazados.
+ * Extiende DelegatingDataSource para que unwrap() siga llegando al pool (métricas de Hikari, COPY, etc.).
+ */
+public class JdbcTimingDataSource extends DelegatingDataSource {
+
+    public JdbcTimingDataSource(DataSource delegado) {
+        super(delegado);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxyConexion(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxyConexion(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection proxyConexion(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(JdbcTimingDataSource.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, metodo, args) -> {
+                    if (esIdentidad(metodo)) {
+                        return identidad(proxy, metodo, args);
+                    }
+                    Object resultado = invocar(conexion, metodo, args);
+                    if (resultado instanceof Statement sentencia) {
+                        // prepareStatement/prepareCall reciben el SQL; createStatement lo recibe en cada execute
+                        return proxySentencia(sentencia, args != null && args.length > 0
+                                && args[0] instanceof String sql ? sql : null);
+                    }
+                    return resultado;
+                });
+    }
+
+    private static Statement proxySentencia(Statement sentencia, String sqlPreparado) {
+        Class<?> tipo = sentencia instanceof CallableStatement ? CallableStatement.class
+                : sentencia instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+        InvocationHandler handler = new InvocationHandler() {
+            private String formaPreparada;
+            private Object[] parametros;
+
+            @Override
+            public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+                if (esIdentidad(metodo)) {
+                    return identidad(proxy, metodo, args);
+                }
+                String nombre = metodo.getName();
+                JdbcRequestStats stats = JdbcRequestStats.actual();
+                if (stats == null) {
+                    return invocar(sentencia, metodo, args);
+                }
+                if (!nombre.startsWith("execute")) {
+                    if (sqlPreparado != null) {
+                        capturar(nombre, args);
+                    }
+                    return invocar(sentencia, metodo, args);
+                }
+
+                String forma;
+                if (args != null && args.length > 0 && args[0] instanceof String sql) {
+                    forma = JdbcRequestStats.forma(sql);
+                } else if (sqlPreparado != null) {
+                    if (formaPreparada == null) {
+                        formaPreparada = JdbcRequestStats.forma(sqlPreparado);
+                    }
+                    forma = formaPreparada;
+                } else {
+                    forma = "(lote de sentencias)";
+                }
+                stats.antesDeEjecutar(forma);
+                long inicio = System.nanoTime();
+                try {
+                    return invocar(sentencia, metodo, args);
+                } finally {
+                    stats.registrar(forma, System.nanoTime() - inicio, sqlPreparado != null ? parametros : null,
+                            nombre.endsWith("Batch"));
+                }
+            }
+
+            // setXxx(indice, valor, ...) de PreparedStatement; los demás set (setFetchSize...) tienen un argumento
+            private void capturar(String nombre, Object[] args) {
+                if (nombre.equals("clearParameters")) {
+                    parametros = null;
+                    return;
+                }
+                if (!nombre.startsWith("set") || args == null || args.length < 2
+                        || !(args[0] instanceof Integer indice) || indice < 1) {
+                    return;
+                }
+                if (parametros == null || parametros.length < indice) {
+                    parametros = Arrays.copyOf(parametros == null ? new Object[0] : parametros, indice);
+                }
+                parametros[indice - 1] = nombre.equals("setNull") ? null : args[1];
+            }
+        };
+        return (Statement) Proxy.newProxyInstance(JdbcTimingDataSource.class.getClassLoader(),
+                new Class<?>[] { tipo }, handler);
+    }
+
+    private static boolean esIdentidad(Method metodo) {
+        return metodo.getDeclaringClass() == Object.class
+                && (metodo.getName().equals("equals") || metodo.getName().equals("hashCode"));
+    }
+
+    // equals/hashCode por identidad del proxy, no del objeto envuelto
+    private static Object identidad(Object proxy, Method metodo, Object[] args) {
+        return metodo.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
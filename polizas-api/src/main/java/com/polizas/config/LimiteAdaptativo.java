@@ -0,0 +1,69 @@
+package com.polizas.config;
+
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Límite de peticiones concurrentes de una ruta que se ajusta con AIMD según la latencia observada: crece de a
+ * una petición por cada "límite" respuestas a tiempo mientras se usa al menos la mitad, y se multiplica por
+ * reduccion ante una respuesta lenta o fallida. Para no encadenar reducciones con las respuestas que ya estaban
+ * en curso, solo reduce una petición admitida después de la última reducción (una vez por ventana, como TCP).
+ */
+public class LimiteAdaptativo {
+    private final int minimo;
+    private final int maximo;
+    private final long objetivoNanos;
+    private final double reduccion;
+    private final LongSupplier reloj;
+
+    private double limite;
+    private int enCurso;
+    private long ultimaReduccion;
+
+    public LimiteAdaptativo(int inicial, int minimo, int maximo, long objetivoNanos, double reduccion) {
+        this(inicial, minimo, maximo, objetivoNanos, reduccion, System::nanoTime);
+    }
+
+    // Reloj para las pruebas. Como System.nanoTime puede ser negativo: solo se comparan diferencias
+    LimiteAdaptativo(int inicial, int minimo, int maximo, long objetivoNanos, double reduccion, LongSupplier reloj) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.objetivoNanos = objetivoNanos;
+        this.reduccion = reduccion;
+        this.reloj = reloj;
+        this.limite = Math.max(minimo, Math.min(maximo, inicial));
+        this.ultimaReduccion = reloj.getAsLong();
+    }
+
+    /**
+     * Ocupa un lugar si hay cupo; devuelve el instante de admisión para {@link #liberar}, o vacío si no lo hay
+     */
+    public synchronized OptionalLong adquirir() {
+        if (enCurso >= (int) limite) {
+            return OptionalLong.empty();
+        }
+        enCurso++;
+        return OptionalLong.of(reloj.getAsLong());
+    }
+
+    public synchronized void liberar(long admitida, boolean fallida) {
+        enCurso--;
+        long ahora = reloj.getAsLong();
+        if (fallida || ahora - admitida > objetivoNanos) {
+            if (admitida - ultimaReduccion >= 0) {
+                limite = Math.max(minimo, limite * reduccion);
+                ultimaReduccion = ahora;
+            }
+        } else if ((enCurso + 1) * 2 >= limite) {
+            limite = Math.min(maximo, limite + 1 / limite);
+        }
+    }
+
+    public synchronized int getLimite() {
+        return (int) limite;
+    }
+
+    public synchronized int getEnCurso() {
+        return enCurso;
+    }
+}
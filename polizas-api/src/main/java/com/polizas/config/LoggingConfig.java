@@ -3,15 +3,26 @@ package com.polizas.config;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
 @Configuration
 @Slf4j
 public class LoggingConfig implements WebMvcConfigurer {
@@ -19,21 +30,57 @@ public class LoggingConfig implements WebMvcConfigurer {
     @Value("${app.logging.enable-request-logging:true}")
     private boolean enableRequestLogging;
 
+    @Value("${app.logging.access.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Value("${app.logging.access.slow-threshold:1s}")
+    private Duration slowThreshold;
+
     @Override
     public void addInterceptors(@NonNull InterceptorRegistry registry) {
         if (enableRequestLogging) {
-            registry.addInterceptor(new RequestLoggingInterceptor());
+            registry.addInterceptor(new RequestLoggingInterceptor(sampleRate, slowThreshold));
         }
     }
 
-    @Slf4j
+    /**
+     * Envuelve el DataSource para medir el tiempo de base de datos de cada petición
+     */
+    @Bean
+    public static BeanPostProcessor jdbcTimingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof JdbcTimingDataSource)) {
+                    return new JdbcTimingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Escribe un único evento estructurado por petición (logger "access", appender asíncrono).
+     * Las respuestas 2xx/3xx se muestrean; los errores y las peticiones lentas siempre se registran.
+     */
     public static class RequestLoggingInterceptor implements HandlerInterceptor {
+        private static final Logger accessLog = LoggerFactory.getLogger("access");
+        private static final String ATRIBUTO_INICIO = RequestLoggingInterceptor.class.getName() + ".inicio";
+
+        private final double sampleRate;
+        private final long slowThresholdNanos;
+
+        public RequestLoggingInterceptor(double sampleRate, Duration slowThreshold) {
+            this.sampleRate = sampleRate;
+            this.slowThresholdNanos = slowThreshold.toNanos();
+        }
+
         @Override
         public boolean preHandle(
                 @NonNull HttpServletRequest request,
                 @NonNull HttpServletResponse response,
                 @NonNull Object handler) {
-            log.info("Request: {} {} from {}", request.getMethod(), request.getRequestURI(), request.getRemoteAddr());
+            request.setAttribute(ATRIBUTO_INICIO, System.nanoTime());
             return true;
         }
 
@@ -43,8 +90,37 @@ public class LoggingConfig implements WebMvcConfigurer {
                 @NonNull HttpServletResponse response,
                 @NonNull Object handler,
                 @Nullable Exception ex) {
-            log.info("Response: {} {} - Status: {}", request.getMethod(), request.getRequestURI(),
-                    response.getStatus());
+            // Las abre y cierra InspeccionSqlConfig, que va antes en la cadena de interceptores
+            JdbcRequestStats db = JdbcRequestStats.actual();
+
+            Object inicio = request.getAttribute(ATRIBUTO_INICIO);
+            long duracionNanos = inicio instanceof Long nanos ? System.nanoTime() - nanos : 0;
+            int status = response.getStatus();
+            boolean error = ex != null || status >= 400;
+            boolean lenta = duracionNanos >= slowThresholdNanos;
+
+            if (!error && !lenta && (sampleRate <= 0
+                    || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate))) {
+                return;
+            }
+
+            Object ruta = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Object[] campos = {
+                    kv("method", request.getMethod()),
+                    kv("route", ruta != null ? ruta : request.getRequestURI()),
+                    kv("status", status),
+                    kv("duration_ms", duracionNanos / 1_000_000.0),
+                    kv("db_ms", db != null ? db.getMillis() : 0.0),
+                    kv("db_statements", db != null ? db.getSentencias() : 0),
+                    kv("slow", lenta),
+                    kv("sample_rate", error || lenta ? 1.0 : sampleRate)
+            };
+
+            if (status >= 500 || ex != null) {
+                accessLog.warn("{} {} {} {} {} {} {} {}", campos);
+            } else {
+                accessLog.info("{} {} {} {} {} {} {} {}", campos);
+            }
         }
     }
-}
\ No newline at end of file
+}
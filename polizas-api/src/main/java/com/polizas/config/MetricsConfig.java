@@ -0,0 +1,24 @@
+package com.polizas.config;
+
+import com.polizas.repository.InventarioRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    public static final String METRICA_STOCK_TOTAL = "inventario.stock.units";
+
+    /**
+     * Gauge con el total de unidades en inventario (se consulta en cada lectura de la métrica)
+     */
+    @Bean
+    public MeterBinder inventarioStockMetrics(InventarioRepository inventarioRepository) {
+        return registry -> Gauge.builder(METRICA_STOCK_TOTAL, inventarioRepository, InventarioRepository::sumCantidad)
+                .description("Total de unidades en inventario")
+                .baseUnit("units")
+                .register(registry);
+    }
+}
@@ -0,0 +1,20 @@
+package com.polizas.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Máximo de sentencias SQL que puede ejecutar el endpoint anotado en una petición. Al excederlo se registra
+ * una advertencia y la métrica db.request.budget.exceeded; con app.jdbc.inspeccion.presupuesto.estricto=true
+ * la sentencia que lo excede falla.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PresupuestoSql {
+
+    int value();
+}
@@ -0,0 +1,220 @@
+package com.polizas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Réplicas de lectura (app.datasource.replicas.enabled=true): reemplaza el DataSource de Spring Boot por
+ * la primaria (spring.datasource.*) más un pool por cada URL de app.datasource.replicas.urls, enrutados por
+ * {@link EnrutadorDataSource}. Los pools toman spring.datasource.hikari.*; las réplicas además
+ * app.datasource.replicas.hikari.*, son de solo lectura y esperan una conexión 1 s por defecto para que una
+ * réplica caída no detenga las lecturas.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+@Slf4j
+public class ReplicasConfig implements WebMvcConfigurer {
+
+    public static final String METRICA_DISPONIBLES = "db.replicas.available";
+    static final String COOKIE_LECTURA_PRIMARIA = "lectura-primaria";
+
+    private static final Set<String> METODOS_ESCRITURA = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    @Value("${app.datasource.replicas.urls}")
+    private List<String> urls;
+
+    @Value("${app.datasource.replicas.username:${spring.datasource.username}}")
+    private String username;
+
+    @Value("${app.datasource.replicas.password:${spring.datasource.password}}")
+    private String password;
+
+    @Value("${app.datasource.replicas.retraso-maximo:2s}")
+    private Duration retrasoMaximo;
+
+    @Value("${app.datasource.replicas.lectura-propia:true}")
+    private boolean lecturaPropia;
+
+    private EnrutadorDataSource enrutador;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties propiedades, Environment environment,
+                                 MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        MicrometerMetricsTrackerFactory metricas = new MicrometerMetricsTrackerFactory(meterRegistry);
+
+        HikariDataSource primaria = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primaria));
+        primaria.setPoolName("primaria");
+        primaria.setMetricsTrackerFactory(metricas);
+
+        List<EnrutadorDataSource.Replica> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setConnectionTimeout(1000);
+            // Una réplica caída al arrancar no impide levantar la API: queda fuera hasta que responda
+            replica.setInitializationFailTimeout(-1);
+            binder.bind("app.datasource.replicas.hikari", Bindable.ofInstance(replica));
+            replica.setJdbcUrl(url);
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setDriverClassName(propiedades.determineDriverClassName());
+            replica.setReadOnly(true);
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMetricsTrackerFactory(metricas);
+            replicas.add(new EnrutadorDataSource.Replica(replica.getPoolName(), replica));
+        }
+
+        enrutador = new EnrutadorDataSource(primaria, replicas, retrasoMaximo);
+        enrutador.verificar();
+        Gauge.builder(METRICA_DISPONIBLES, enrutador, EnrutadorDataSource::disponibles)
+                .description("Réplicas de lectura en la rotación")
+                .register(meterRegistry);
+        log.info("Lecturas de solo lectura enrutadas a {} réplicas ({} disponibles)",
+                replicas.size(), enrutador.disponibles());
+
+        // Los valores por defecto evitan que el proxy pida una conexión al arrancar para conocerlos
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(enrutador);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    /**
+     * Lleva la lectura forzada a la primaria a los hilos de las respuestas asíncronas (StreamingResponseBody)
+     */
+    @Bean
+    public TaskDecorator primariaForzadaTaskDecorator() {
+        return tarea -> {
+            boolean forzar = EnrutadorDataSource.primariaForzada();
+            return () -> {
+                EnrutadorDataSource.forzarPrimaria(forzar);
+                try {
+                    tarea.run();
+                } finally {
+                    EnrutadorDataSource.forzarPrimaria(false);
+                }
+            };
+        };
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        if (lecturaPropia) {
+            registry.addInterceptor(new LecturaPropiaInterceptor(retrasoMaximo));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.verificacion-ms:5000}")
+    public void verificarReplicas() {
+        enrutador.verificar();
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        if (enrutador != null) {
+            enrutador.close();
+        }
+    }
+
+    /**
+     * Lectura de las propias escrituras: una escritura deja una cookie que vence en retraso-maximo y, mientras
+     * no vence, las lecturas de ese cliente van a la primaria aunque las réplicas todavía no tengan el cambio
+     */
+    public static class LecturaPropiaInterceptor implements AsyncHandlerInterceptor {
+        private final Duration ventana;
+
+        public LecturaPropiaInterceptor(Duration ventana) {
+            this.ventana = ventana;
+        }
+
+        @Override
+        public boolean preHandle(
+                @NonNull HttpServletRequest request,
+                @NonNull HttpServletResponse response,
+                @NonNull Object handler) {
+            long ahora = System.currentTimeMillis();
+            if (METODOS_ESCRITURA.contains(request.getMethod())) {
+                // La cookie se escribe antes del cuerpo: después ya no se pueden agregar encabezados
+                Cookie cookie = new Cookie(COOKIE_LECTURA_PRIMARIA, Long.toString(ahora + ventana.toMillis()));
+                cookie.setMaxAge((int) Math.max(1, ventana.toSeconds()));
+                cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+                cookie.setHttpOnly(true);
+                response.addCookie(cookie);
+                EnrutadorDataSource.forzarPrimaria(true);
+            } else {
+                EnrutadorDataSource.forzarPrimaria(vigente(request, ahora));
+            }
+            return true;
+        }
+
+        @Override
+        public void afterConcurrentHandlingStarted(
+                @NonNull HttpServletRequest request,
+                @NonNull HttpServletResponse response,
+                @NonNull Object handler) {
+            EnrutadorDataSource.forzarPrimaria(false);
+        }
+
+        @Override
+        public void afterCompletion(
+                @NonNull HttpServletRequest request,
+                @NonNull HttpServletResponse response,
+                @NonNull Object handler,
+                @Nullable Exception ex) {
+            EnrutadorDataSource.forzarPrimaria(false);
+        }
+
+        // El vencimiento se revisa también aquí: no todos los clientes respetan Max-Age
+        private static boolean vigente(HttpServletRequest request, long ahora) {
+            Cookie[] cookies = request.getCookies();
+            if (cookies == null) {
+                return false;
+            }
+            for (Cookie cookie : cookies) {
+                if (COOKIE_LECTURA_PRIMARIA.equals(cookie.getName())) {
+                    try {
+                        return Long.parseLong(cookie.getValue()) > ahora;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
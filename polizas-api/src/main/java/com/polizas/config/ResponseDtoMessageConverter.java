@@ -0,0 +1,47 @@
+package com.polizas.config;
+
+import com.polizas.dto.ResponseDto;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Escribe las respuestas ResponseDto con RespuestaJsonWriter en lugar del convertidor de Jackson.
+ * Spring Boot registra los convertidores declarados como bean antes que los predeterminados.
+ * Solo escribe: los cuerpos de entrada siguen pasando por Jackson.
+ */
+@Component
+public class ResponseDtoMessageConverter extends AbstractHttpMessageConverter<ResponseDto<?>> {
+
+    private final RespuestaJsonWriter respuestaJsonWriter;
+
+    public ResponseDtoMessageConverter(RespuestaJsonWriter respuestaJsonWriter) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.respuestaJsonWriter = respuestaJsonWriter;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ResponseDto.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ResponseDto<?> readInternal(Class<? extends ResponseDto<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ResponseDto solo se escribe", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ResponseDto<?> respuesta, HttpOutputMessage outputMessage) throws IOException {
+        respuestaJsonWriter.escribir(respuesta, outputMessage.getBody());
+    }
+}
@@ -0,0 +1,251 @@
+package com.polizas.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.polizas.dto.PageResponseDto;
+import com.polizas.dto.PolizaResponseDto;
+import com.polizas.dto.ResponseDto;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Escribe el sobre {meta, data} directamente con JsonGenerator. Las pólizas y las páginas se escriben
+ * campo por campo con nombres precodificados, sin la introspección de Jackson; cualquier otro dato
+ * se delega al ObjectMapper. La salida es byte a byte la misma que produce el ObjectMapper de Spring.
+ */
+@Component
+public class RespuestaJsonWriter {
+
+    private static final SerializedString META = new SerializedString("meta");
+    private static final SerializedString DATA = new SerializedString("data");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString CONTENT = new SerializedString("content");
+    private static final SerializedString CURRENT_PAGE = new SerializedString("currentPage");
+    private static final SerializedString TOTAL_ITEMS = new SerializedString("totalItems");
+    private static final SerializedString TOTAL_PAGES = new SerializedString("totalPages");
+    private static final SerializedString NEXT_CURSOR = new SerializedString("nextCursor");
+    private static final SerializedString HAS_NEXT = new SerializedString("hasNext");
+    private static final SerializedString POLIZA = new SerializedString("poliza");
+    private static final SerializedString ID_POLIZA = new SerializedString("idPoliza");
+    private static final SerializedString CANTIDAD = new SerializedString("cantidad");
+    private static final SerializedString FECHA = new SerializedString("fecha");
+    private static final SerializedString EMPLEADO = new SerializedString("empleado");
+    private static final SerializedString NOMBRE = new SerializedString("nombre");
+    private static final SerializedString APELLIDO = new SerializedString("apellido");
+    private static final SerializedString DETALLE_ARTICULO = new SerializedString("detalleArticulo");
+    private static final SerializedString SKU = new SerializedString("sku");
+
+    // Mismo formato que LocalDateTimeSerializer de jackson-datatype-jsr310 sin @JsonFormat
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // "9999-12-31T23:59:59.999999999"; la fecha se arma en este búfer y no en un String por póliza
+    private static final ThreadLocal<char[]> BUFER_FECHA = ThreadLocal.withInitial(() -> new char[29]);
+
+    private final ObjectMapper objectMapper;
+    // Sin flush por elemento: el generador vacía su búfer al llenarse y al cerrarse
+    private final ObjectWriter objectWriter;
+
+    public RespuestaJsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Escribe una respuesta completa; no cierra el flujo de salida
+     */
+    public void escribir(ResponseDto<?> respuesta, OutputStream salida) throws IOException {
+        try (JsonGenerator generator = crearGenerador(salida)) {
+            generator.writeStartObject();
+            escribirMeta(generator, respuesta.getMeta());
+            generator.writeFieldName(DATA);
+            escribirDatos(generator, respuesta.getData());
+            generator.writeEndObject();
+        }
+    }
+
+    // El contenedor es dueño del flujo de salida: cerrar el generador solo vacía su búfer
+    private JsonGenerator crearGenerador(OutputStream salida) throws IOException {
+        return objectMapper.createGenerator(salida).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private void escribirMeta(JsonGenerator generator, ResponseDto.MetaDto meta) throws IOException {
+        generator.writeFieldName(META);
+        if (meta == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeFieldName(STATUS);
+        generator.writeString(meta.getStatus());
+        generator.writeEndObject();
+    }
+
+    private void escribirDatos(JsonGenerator generator, Object datos) throws IOException {
+        if (datos instanceof PageResponseDto<?> pagina) {
+            escribirPagina(generator, pagina);
+        } else if (datos instanceof List<?> lista) {
+            escribirArreglo(generator, lista);
+        } else {
+            escribirElemento(generator, datos);
+        }
+    }
+
+    private void escribirPagina(JsonGenerator generator, PageResponseDto<?> pagina) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(CONTENT);
+        escribirArreglo(generator, pagina.getContent());
+        generator.writeFieldName(CURRENT_PAGE);
+        generator.writeNumber(pagina.getCurrentPage());
+        generator.writeFieldName(TOTAL_ITEMS);
+        generator.writeNumber(pagina.getTotalItems());
+        generator.writeFieldName(TOTAL_PAGES);
+        generator.writeNumber(pagina.getTotalPages());
+        // @JsonInclude(NON_NULL) en PageResponseDto
+        if (pagina.getNextCursor() != null) {
+            generator.writeFieldName(NEXT_CURSOR);
+            generator.writeString(pagina.getNextCursor());
+        }
+        if (pagina.getHasNext() != null) {
+            generator.writeFieldName(HAS_NEXT);
+            generator.writeBoolean(pagina.getHasNext());
+        }
+        generator.writeEndObject();
+    }
+
+    private void escribirArreglo(JsonGenerator generator, List<?> lista) throws IOException {
+        if (lista == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (Object elemento : lista) {
+            escribirElemento(generator, elemento);
+        }
+        generator.writeEndArray();
+    }
+
+    private void escribirElemento(JsonGenerator generator, Object elemento) throws IOException {
+        if (elemento instanceof PolizaResponseDto poliza) {
+            escribirPoliza(generator, poliza);
+        } else {
+            objectWriter.writeValue(generator, elemento);
+        }
+    }
+
+    private void escribirPoliza(JsonGenerator generator, PolizaResponseDto respuesta) throws IOException {
+        generator.writeStartObject();
+
+        generator.writeFieldName(POLIZA);
+        PolizaResponseDto.PolizaDto poliza = respuesta.getPoliza();
+        if (poliza == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartObject();
+            generator.writeFieldName(ID_POLIZA);
+            escribirNumero(generator, poliza.getIdPoliza());
+            generator.writeFieldName(CANTIDAD);
+            escribirNumero(generator, poliza.getCantidad());
+            generator.writeFieldName(FECHA);
+            escribirFecha(generator, poliza.getFecha());
+            generator.writeEndObject();
+        }
+
+        generator.writeFieldName(EMPLEADO);
+        PolizaResponseDto.EmpleadoDto empleado = respuesta.getEmpleado();
+        if (empleado == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartObject();
+            generator.writeFieldName(NOMBRE);
+            generator.writeString(empleado.getNombre());
+            generator.writeFieldName(APELLIDO);
+            generator.writeString(empleado.getApellido());
+            generator.writeEndObject();
+        }
+
+        generator.writeFieldName(DETALLE_ARTICULO);
+        PolizaResponseDto.DetalleArticuloDto articulo = respuesta.getDetalleArticulo();
+        if (articulo == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartObject();
+            generator.writeFieldName(SKU);
+            escribirNumero(generator, articulo.getSku());
+            generator.writeFieldName(NOMBRE);
+            generator.writeString(articulo.getNombre());
+            generator.writeEndObject();
+        }
+
+        generator.writeEndObject();
+    }
+
+    private static void escribirNumero(JsonGenerator generator, Long valor) throws IOException {
+        if (valor == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(valor);
+        }
+    }
+
+    private static void escribirNumero(JsonGenerator generator, Integer valor) throws IOException {
+        if (valor == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(valor);
+        }
+    }
+
+    private static void escribirFecha(JsonGenerator generator, LocalDateTime fecha) throws IOException {
+        if (fecha == null) {
+            generator.writeNull();
+        } else if (fecha.getYear() < 0 || fecha.getYear() > 9999) {
+            // ISO_LOCAL_DATE_TIME agrega signo a estos años
+            generator.writeString(FORMATO_FECHA.format(fecha));
+        } else {
+            char[] bufer = BUFER_FECHA.get();
+            generator.writeString(bufer, 0, formatearFecha(fecha, bufer));
+        }
+    }
+
+    /**
+     * yyyy-MM-ddTHH:mm:ss y la fracción de segundo sin ceros finales, como ISO_LOCAL_DATE_TIME.
+     * Devuelve la longitud escrita.
+     */
+    private static int formatearFecha(LocalDateTime fecha, char[] bufer) {
+        int posicion = digitos(bufer, 0, fecha.getYear(), 4);
+        bufer[posicion++] = '-';
+        posicion = digitos(bufer, posicion, fecha.getMonthValue(), 2);
+        bufer[posicion++] = '-';
+        posicion = digitos(bufer, posicion, fecha.getDayOfMonth(), 2);
+        bufer[posicion++] = 'T';
+        posicion = digitos(bufer, posicion, fecha.getHour(), 2);
+        bufer[posicion++] = ':';
+        posicion = digitos(bufer, posicion, fecha.getMinute(), 2);
+        bufer[posicion++] = ':';
+        posicion = digitos(bufer, posicion, fecha.getSecond(), 2);
+        if (fecha.getNano() > 0) {
+            bufer[posicion++] = '.';
+            posicion = digitos(bufer, posicion, fecha.getNano(), 9);
+            while (bufer[posicion - 1] == '0') {
+                posicion--;
+            }
+        }
+        return posicion;
+    }
+
+    private static int digitos(char[] bufer, int posicion, int valor, int ancho) {
+        for (int i = posicion + ancho - 1; i >= posicion; i--) {
+            bufer[i] = (char) ('0' + valor % 10);
+            valor /= 10;
+        }
+        return posicion + ancho;
+    }
+}
@@ -0,0 +1,15 @@
+package com.polizas.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Tareas programadas (@Scheduled). Se desactiva en procesos que deben terminar solos, como el perfil seed:
+ * el hilo del planificador no es daemon y mantendría viva la JVM.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
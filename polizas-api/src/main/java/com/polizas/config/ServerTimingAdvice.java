@@ -0,0 +1,47 @@
+package com.polizas.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * Agrega el encabezado Server-Timing con el tiempo y el número de sentencias SQL de la petición.
+ * Se escribe justo antes del cuerpo, cuando ya no quedan consultas; las respuestas sin cuerpo
+ * (304) y las que se escriben por flujo no lo llevan.
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Value("${app.jdbc.inspeccion.server-timing:true}")
+    private boolean habilitado;
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+                            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return habilitado;
+    }
+
+    @Override
+    public Object beforeBodyWrite(@Nullable Object body,
+                                  @NonNull MethodParameter returnType,
+                                  @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request,
+                                  @NonNull ServerHttpResponse response) {
+        JdbcRequestStats stats = JdbcRequestStats.actual();
+        if (stats != null) {
+            response.getHeaders().add("Server-Timing", String.format(Locale.ROOT,
+                    "db;dur=%.1f;desc=\"%d sentencias\"", stats.getMillis(), stats.getSentencias()));
+        }
+        return body;
+    }
+}
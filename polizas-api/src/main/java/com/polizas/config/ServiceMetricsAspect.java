@@ -0,0 +1,63 @@
+package com.polizas.config;
+
+import com.polizas.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mide cada operación pública de PolizaService con el timer "polizas.service.operation".
+ * El tag outcome clasifica el resultado según la excepción lanzada.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    public static final String METRICA_OPERACION = "polizas.service.operation";
+
+    public static final String OUTCOME_OK = "ok";
+    public static final String OUTCOME_NOT_FOUND = "not_found";
+    public static final String OUTCOME_INSUFFICIENT_STOCK = "insufficient_stock";
+    public static final String OUTCOME_INVALID = "invalid";
+    public static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.polizas.service.PolizaService.*(..))")
+    public Object medir(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_OK;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            outcome = clasificar(t);
+            throw t;
+        } finally {
+            sample.stop(Timer.builder(METRICA_OPERACION)
+                    .description("Duración de las operaciones de PolizaService")
+                    .tag("operation", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    static String clasificar(Throwable t) {
+        if (t instanceof ResourceNotFoundException) {
+            return OUTCOME_NOT_FOUND;
+        }
+        // PolizaService usa IllegalStateException únicamente para existencia insuficiente
+        if (t instanceof IllegalStateException) {
+            return OUTCOME_INSUFFICIENT_STOCK;
+        }
+        if (t instanceof IllegalArgumentException) {
+            return OUTCOME_INVALID;
+        }
+        return OUTCOME_ERROR;
+    }
+}
@@ -0,0 +1,65 @@
+package com.polizas.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Registra en el log los hilos virtuales que quedan fijados (pinned) a su hilo portador,
+ * por ejemplo al bloquearse dentro de un bloque synchronized de alguna librería
+ */
+@Component
+@ConditionalOnProperty(name = "app.virtual-threads.pinning-detection.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String EVENTO_PINNED = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAMES = 12;
+
+    @Value("${app.virtual-threads.pinning-detection.threshold:20ms}")
+    private Duration umbral;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void iniciar() {
+        stream = new RecordingStream();
+        stream.enable(EVENTO_PINNED).withThreshold(umbral).withStackTrace();
+        stream.onEvent(EVENTO_PINNED, this::registrar);
+        stream.startAsync();
+        log.info("Detección de pinning de hilos virtuales activa (umbral {})", umbral);
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void registrar(RecordedEvent evento) {
+        String pila = evento.getStackTrace() == null ? "(sin stack trace)"
+                : evento.getStackTrace().getFrames().stream()
+                        .limit(MAX_FRAMES)
+                        .map(VirtualThreadPinningMonitor::formatear)
+                        .collect(Collectors.joining("\n\tat ", "\tat ", ""));
+        log.warn("Hilo virtual #{} fijado a su portador durante {} ms\n{}",
+                evento.getThread() == null ? "?" : evento.getThread().getJavaThreadId(),
+                evento.getDuration().toMillis(),
+                pila);
+    }
+
+    private static String formatear(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,121 @@
+package com.polizas.controller;
+
+import com.polizas.config.Admision;
+import com.polizas.dto.ConsumoDto;
+import com.polizas.dto.ResponseDto;
+import com.polizas.service.ConsumoAgregadoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analitica/consumo")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Analítica", description = "Consumo agregado por artículo, empleado y día")
+public class AnaliticaController {
+
+    private static final int LIMITE_MAXIMO = 1000;
+    private static final long DIAS_MAXIMOS = 3660;
+
+    private final ConsumoAgregadoService consumoAgregadoService;
+
+    @GetMapping("/skus")
+    @Operation(summary = "Artículos más consumidos del mes", description = "Unidades y pólizas por SKU en el mes indicado (yyyy-MM), de mayor a menor")
+    public ResponseEntity<ResponseDto<List<ConsumoDto.SkuDto>>> topSkus(
+            @RequestParam String mes,
+            @RequestParam(defaultValue = "10") int limit) {
+        YearMonth periodo = parsearMes(mes);
+        if (periodo == null || limit < 1 || limit > LIMITE_MAXIMO) {
+            return solicitudInvalida("Se requiere mes con formato yyyy-MM y limit entre 1 y " + LIMITE_MAXIMO);
+        }
+        try {
+            return ResponseEntity.ok(ResponseDto.success(consumoAgregadoService.topSkus(periodo, limit)));
+        } catch (Exception e) {
+            log.error("Error al consultar el consumo por SKU del mes: {}", mes, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ResponseDto.failure("Error al consultar el consumo por artículo"));
+        }
+    }
+
+    @GetMapping("/empleados")
+    @Operation(summary = "Empleados con más consumo del mes", description = "Unidades y pólizas por empleado en el mes indicado (yyyy-MM), de mayor a menor")
+    public ResponseEntity<ResponseDto<List<ConsumoDto.EmpleadoDto>>> topEmpleados(
+            @RequestParam String mes,
+            @RequestParam(defaultValue = "10") int limit) {
+        YearMonth periodo = parsearMes(mes);
+        if (periodo == null || limit < 1 || limit > LIMITE_MAXIMO) {
+            return solicitudInvalida("Se requiere mes con formato yyyy-MM y limit entre 1 y " + LIMITE_MAXIMO);
+        }
+        try {
+            return ResponseEntity.ok(ResponseDto.success(consumoAgregadoService.topEmpleados(periodo, limit)));
+        } catch (Exception e) {
+            log.error("Error al consultar el consumo por empleado del mes: {}", mes, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ResponseDto.failure("Error al consultar el consumo por empleado"));
+        }
+    }
+
+    @GetMapping("/diario")
+    @Operation(summary = "Consumo por día", description = "Unidades y pólizas de cada día entre desde y hasta (yyyy-MM-dd, inclusive)")
+    public ResponseEntity<ResponseDto<List<ConsumoDto.DiaDto>>> porDia(
+            @RequestParam String desde,
+            @RequestParam String hasta) {
+        LocalDate inicio = parsearFecha(desde);
+        LocalDate fin = parsearFecha(hasta);
+        if (inicio == null || fin == null || fin.isBefore(inicio) || ChronoUnit.DAYS.between(inicio, fin) > DIAS_MAXIMOS) {
+            return solicitudInvalida("Se requieren desde <= hasta con formato yyyy-MM-dd, a lo más "
+                    + DIAS_MAXIMOS + " días de distancia");
+        }
+        try {
+            return ResponseEntity.ok(ResponseDto.success(consumoAgregadoService.porDia(inicio, fin)));
+        } catch (Exception e) {
+            log.error("Error al consultar el consumo diario entre {} y {}", desde, hasta, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ResponseDto.failure("Error al consultar el consumo diario"));
+        }
+    }
+
+    @Admision("consumo-reconstruir")
+    @PostMapping("/reconstruir")
+    @Operation(summary = "Reconstruir agregados", description = "Recalcula los agregados desde la tabla polizas en paralelo; ejecutar sin escrituras de pólizas en curso")
+    public ResponseEntity<ResponseDto<ConsumoDto.ReconstruccionDto>> reconstruir() {
+        try {
+            return ResponseEntity.ok(ResponseDto.success(consumoAgregadoService.reconstruir()));
+        } catch (Exception e) {
+            log.error("Error al reconstruir los agregados de consumo", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ResponseDto.failure("Error al reconstruir los agregados de consumo"));
+        }
+    }
+
+    private static YearMonth parsearMes(String mes) {
+        try {
+            return YearMonth.parse(mes);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static LocalDate parsearFecha(String fecha) {
+        try {
+            return LocalDate.parse(fecha);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static <T> ResponseEntity<ResponseDto<T>> solicitudInvalida(String mensaje) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ResponseDto.failure(mensaje));
+    }
+}
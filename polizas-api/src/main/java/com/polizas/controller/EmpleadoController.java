@@ -1,8 +1,15 @@
 package com.polizas.controller;
 
+import com.polizas.config.PresupuestoSql;
+import com.polizas.dto.EventoCambioDto;
+import com.polizas.dto.EventoCambioDto.Operacion;
 import com.polizas.dto.ResponseDto;
 import com.polizas.model.Empleado;
 import com.polizas.repository.EmpleadoRepository;
+import com.polizas.service.CoalescenciaLecturasService;
+import com.polizas.service.EventosService;
+import com.polizas.service.VersionTablasService;
+import com.polizas.service.VersionTablasService.Tabla;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -11,6 +18,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -24,13 +32,20 @@ import java.util.HashMap;
 public class EmpleadoController {
 
     private final EmpleadoRepository empleadoRepository;
+    private final VersionTablasService versionTablasService;
+    private final EventosService eventosService;
+    private final CoalescenciaLecturasService coalescenciaLecturasService;
 
     @GetMapping
     @Operation(summary = "Obtener todos los empleados", description = "Devuelve la lista de todos los empleados")
-    public ResponseEntity<ResponseDto<List<Empleado>>> obtenerTodos() {
+    public ResponseEntity<ResponseDto<List<Empleado>>> obtenerTodos(WebRequest request) {
+        String etag = versionTablasService.etag(Tabla.EMPLEADO);
+        if (RespuestaCondicional.noModificado(request, etag)) {
+            return null;
+        }
         try {
             List<Empleado> empleados = empleadoRepository.findAll();
-            return ResponseEntity.ok(ResponseDto.success(empleados));
+            return RespuestaCondicional.ok(etag, ResponseDto.success(empleados));
         } catch (Exception e) {
             log.error("Error al obtener la lista de empleados", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -38,12 +53,17 @@ public class EmpleadoController {
         }
     }
 
+    @PresupuestoSql(1)
     @GetMapping("/{idEmpleado}")
     @Operation(summary = "Obtener empleado por ID", description = "Devuelve un empleado por su ID")
-    public ResponseEntity<ResponseDto<Empleado>> obtenerPorId(@PathVariable Long idEmpleado) {
+    public ResponseEntity<ResponseDto<Empleado>> obtenerPorId(@PathVariable Long idEmpleado, WebRequest request) {
+        String etag = versionTablasService.etag(Tabla.EMPLEADO);
+        if (RespuestaCondicional.noModificado(request, etag)) {
+            return null;
+        }
         try {
             return empleadoRepository.findByIdEmpleado(idEmpleado)
-                    .map(empleado -> ResponseEntity.ok(ResponseDto.success(empleado)))
+                    .map(empleado -> RespuestaCondicional.ok(etag, ResponseDto.success(empleado)))
                     .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body(ResponseDto.failure("Empleado no encontrado con ID: " + idEmpleado)));
         } catch (Exception e) {
@@ -57,13 +77,15 @@ public class EmpleadoController {
     @Operation(summary = "Crear un nuevo empleado", description = "Crea un nuevo empleado en la base de datos")
     public ResponseEntity<ResponseDto<Empleado>> crear(@Valid @RequestBody Empleado empleado) {
         try {
-            log.info("Creando empleado: {}", empleado);
+            log.debug("Creando empleado: {}", empleado);
             // El ID será generado automáticamente si es null o 0
             if (empleado.getIdEmpleado() != null && empleado.getIdEmpleado() == 0) {
                 empleado.setIdEmpleado(null);
             }
             Empleado nuevoEmpleado = empleadoRepository.save(empleado);
-            log.info("Empleado creado con éxito: {}", nuevoEmpleado);
+            versionTablasService.incrementar(Tabla.EMPLEADO);
+            eventosService.publicar(evento(Operacion.CREAR, nuevoEmpleado.getIdEmpleado()));
+            log.debug("Empleado creado con éxito: {}", nuevoEmpleado);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ResponseDto.success(nuevoEmpleado));
         } catch (Exception e) {
@@ -83,6 +105,9 @@ public class EmpleadoController {
                     .map(empleadoExistente -> {
                         empleado.setIdEmpleado(idEmpleado);
                         Empleado empleadoActualizado = empleadoRepository.save(empleado);
+                        versionTablasService.incrementar(Tabla.EMPLEADO);
+                        coalescenciaLecturasService.invalidarPolizas();
+                        eventosService.publicar(evento(Operacion.ACTUALIZAR, idEmpleado));
                         return ResponseEntity.ok(ResponseDto.success(empleadoActualizado));
                     })
                     .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -101,6 +126,9 @@ public class EmpleadoController {
             return empleadoRepository.findByIdEmpleado(idEmpleado)
                     .map(empleado -> {
                         empleadoRepository.delete(empleado);
+                        versionTablasService.incrementar(Tabla.EMPLEADO);
+                        coalescenciaLecturasService.invalidarPolizas();
+                        eventosService.publicar(evento(Operacion.ELIMINAR, idEmpleado));
                         Map<String, String> response = new HashMap<>();
                         response.put("mensaje", "Empleado eliminado correctamente");
                         return ResponseEntity.ok(ResponseDto.success(response));
@@ -113,4 +141,12 @@ public class EmpleadoController {
                     .body(ResponseDto.failure("Error al eliminar el empleado"));
         }
     }
-}
\ No newline at end of file
+
+    private static EventoCambioDto evento(Operacion operacion, Long idEmpleado) {
+        return EventoCambioDto.builder()
+                .tipo(EventoCambioDto.Tipo.EMPLEADO)
+                .operacion(operacion)
+                .idEmpleado(idEmpleado)
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.polizas.controller;
+
+import com.polizas.config.Admision;
+import com.polizas.service.EventosService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/eventos")
+@RequiredArgsConstructor
+@Tag(name = "Eventos", description = "Cambios de inventario, pólizas y empleados por Server-Sent Events")
+public class EventosController {
+
+    private final EventosService eventosService;
+
+    // La suscripción dura lo que el cliente quiera y no usa conexiones: no ocupa un lugar de lecturas
+    @Admision(value = "eventos-suscribir", liberarAlSoltarHilo = true)
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Suscribirse a los cambios", description = "Flujo SSE con un evento por cambio confirmado (poliza, inventario, empleado). Con el encabezado Last-Event-ID reanuda desde el último evento recibido, o envía \"reiniciar\" si ya no está en el historial")
+    public SseEmitter suscribir(@RequestHeader(value = "Last-Event-ID", required = false) String ultimoId) {
+        return eventosService.suscribir(ultimoId);
+    }
+}
@@ -1,22 +1,46 @@
 package com.polizas.controller;
 
+import com.polizas.config.Admision;
+import com.polizas.config.PresupuestoSql;
+import com.polizas.dto.EventoCambioDto;
+import com.polizas.dto.EventoCambioDto.Operacion;
+import com.polizas.dto.InventarioDto;
+import com.polizas.dto.InventarioImportacionDto;
+import com.polizas.dto.KeysetCursor;
 import com.polizas.dto.PageResponseDto;
 import com.polizas.dto.ResponseDto;
 import com.polizas.model.Inventario;
 import com.polizas.repository.InventarioRepository;
+import com.polizas.service.CoalescenciaLecturasService;
+import com.polizas.service.EventosService;
+import com.polizas.service.InventarioBusquedaService;
+import com.polizas.service.InventarioImportacionService;
+import com.polizas.service.ReferenciaCacheService;
+import com.polizas.service.ReservaInventarioService;
+import com.polizas.service.VersionTablasService;
+import com.polizas.service.VersionTablasService.Tabla;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -28,14 +52,27 @@ import java.util.HashMap;
 @Tag(name = "Inventario", description = "API para la gestión de inventario")
 public class InventarioController {
 
+    private static final int LIMITE_MAXIMO_BUSQUEDA = 100;
+
     private final InventarioRepository inventarioRepository;
+    private final ReferenciaCacheService referenciaCacheService;
+    private final InventarioBusquedaService inventarioBusquedaService;
+    private final VersionTablasService versionTablasService;
+    private final ReservaInventarioService reservaInventarioService;
+    private final EventosService eventosService;
+    private final InventarioImportacionService inventarioImportacionService;
+    private final CoalescenciaLecturasService coalescenciaLecturasService;
 
     @GetMapping
     @Operation(summary = "Obtener todo el inventario", description = "Devuelve la lista de todos los artículos en inventario")
-    public ResponseEntity<ResponseDto<List<Inventario>>> obtenerTodos() {
+    public ResponseEntity<ResponseDto<List<Inventario>>> obtenerTodos(WebRequest request) {
+        String etag = versionTablasService.etag(Tabla.INVENTARIO);
+        if (RespuestaCondicional.noModificado(request, etag)) {
+            return null;
+        }
         try {
             List<Inventario> inventario = inventarioRepository.findAll();
-            return ResponseEntity.ok(ResponseDto.success(inventario));
+            return RespuestaCondicional.ok(etag, ResponseDto.success(inventario));
         } catch (Exception e) {
             log.error("Error al obtener la lista de inventario", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -50,9 +87,22 @@ public class InventarioController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "sku") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(required = false) String nombre) {
+            @RequestParam(required = false) String nombre,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        String etag = versionTablasService.etag(Tabla.INVENTARIO);
+        if (RespuestaCondicional.noModificado(request, etag)) {
+            return null;
+        }
         try {
-            log.info("Obteniendo página {} de inventario, tamaño: {}", page, size);
+            // Modo cursor (keyset) opcional: se activa con keyset=true o al enviar un cursor
+            if (keyset || cursor != null) {
+                return RespuestaCondicional.ok(etag, ResponseDto.success(
+                        obtenerPorCursor(sortBy, sortDir.equalsIgnoreCase("desc"), nombre, cursor, size)));
+            }
+
+            log.debug("Obteniendo página {} de inventario, tamaño: {}", page, size);
 
             Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
 
@@ -60,7 +110,7 @@ public class InventarioController {
             Page<Inventario> pageResult;
 
             if (nombre != null && !nombre.isEmpty()) {
-                pageResult = inventarioRepository.findByNombreContainingIgnoreCase(nombre, pageable);
+                pageResult = inventarioBusquedaService.buscarPorNombre(nombre, pageable);
             } else {
                 pageResult = inventarioRepository.findAll(pageable);
             }
@@ -72,7 +122,11 @@ public class InventarioController {
                     .totalPages(pageResult.getTotalPages())
                     .build();
 
-            return ResponseEntity.ok(ResponseDto.success(pageResponse));
+            return RespuestaCondicional.ok(etag, ResponseDto.success(pageResponse));
+        } catch (IllegalArgumentException e) {
+            log.warn("Parámetros de paginación inválidos: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseDto.failure(e.getMessage()));
         } catch (Exception e) {
             log.error("Error al obtener la lista paginada de inventario", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -80,12 +134,99 @@ public class InventarioController {
         }
     }
 
+    private PageResponseDto<Inventario> obtenerPorCursor(
+            String sortBy, boolean descendente, String nombre, String cursor, int size) {
+        if (!"sku".equals(sortBy)) {
+            throw new IllegalArgumentException("La paginación por cursor solo admite ordenar por sku");
+        }
+        log.debug("Obteniendo inventario por cursor, tamaño: {}", size);
+
+        Pageable pageable = PageRequest.of(0, size,
+                descendente ? Sort.by("sku").descending() : Sort.by("sku").ascending());
+        Long ultimoSku = cursor == null || cursor.isEmpty()
+                ? (descendente ? Long.MAX_VALUE : Long.MIN_VALUE)
+                : KeysetCursor.decode(cursor).getId();
+        boolean filtrar = nombre != null && !nombre.isEmpty();
+
+        Slice<Inventario> slice;
+        if (filtrar) {
+            slice = inventarioBusquedaService.buscarPorNombreDesde(nombre, ultimoSku, descendente, pageable);
+        } else {
+            slice = descendente
+                    ? inventarioRepository.findBySkuLessThan(ultimoSku, pageable)
+                    : inventarioRepository.findBySkuGreaterThan(ultimoSku, pageable);
+        }
+
+        String nextCursor = slice.hasNext()
+                ? KeysetCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1).getSku()).encode()
+                : null;
+
+        return PageResponseDto.<Inventario>builder()
+                .content(slice.getContent())
+                .currentPage(0)
+                .totalItems(-1)
+                .totalPages(-1)
+                .nextCursor(nextCursor)
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    @GetMapping("/buscar")
+    @Operation(summary = "Buscar artículos por nombre", description = "Búsqueda por subcadena del nombre, sin distinguir mayúsculas ni acentos, ordenada por relevancia")
+    public ResponseEntity<ResponseDto<List<Inventario>>> buscar(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest request) {
+        String etag = versionTablasService.etag(Tabla.INVENTARIO);
+        if (RespuestaCondicional.noModificado(request, etag)) {
+            return null;
+        }
+        if (q.isBlank() || limit < 1 || limit > LIMITE_MAXIMO_BUSQUEDA) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseDto.failure("La búsqueda requiere q no vacío y limit entre 1 y " + LIMITE_MAXIMO_BUSQUEDA));
+        }
+        try {
+            return RespuestaCondicional.ok(etag, ResponseDto.success(inventarioBusquedaService.buscar(q, limit)));
+        } catch (Exception e) {
+            log.error("Error al buscar artículos con el texto: {}", q, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ResponseDto.failure("Error al buscar artículos"));
+        }
+    }
+
+    // Conserva su lugar mientras dura la descarga: su latencia objetivo y sus límites son propios
+    @Admision("inventario-exportar")
+    @GetMapping("/export")
+    @Operation(summary = "Exportar el inventario", description = "Descarga todo el inventario como CSV (sku,nombre,cantidad) con COPY, sin cargarlo en memoria")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        StreamingResponseBody cuerpo = salida -> {
+            try {
+                long filas = inventarioImportacionService.exportar(salida);
+                log.debug("Inventario exportado: {} artículos", filas);
+            } catch (SQLException e) {
+                // La respuesta ya empezó: solo queda cortar la descarga
+                throw new IOException("Error al exportar el inventario", e);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"inventario.csv\"")
+                .body(cuerpo);
+    }
+
+    @PresupuestoSql(1)
     @GetMapping("/{sku}")
     @Operation(summary = "Obtener artículo por SKU", description = "Devuelve un artículo por su SKU")
-    public ResponseEntity<ResponseDto<Inventario>> obtenerPorSku(@PathVariable Long sku) {
+    public ResponseEntity<ResponseDto<InventarioDto>> obtenerPorSku(@PathVariable Long sku, WebRequest request) {
+        String etag = versionTablasService.etag(Tabla.INVENTARIO);
+        if (RespuestaCondicional.noModificado(request, etag)) {
+            return null;
+        }
         try {
-            return inventarioRepository.findBySku(sku)
-                    .map(articulo -> ResponseEntity.ok(ResponseDto.success(articulo)))
+            // Las peticiones simultáneas del mismo SKU y la misma versión comparten la consulta
+            return coalescenciaLecturasService.obtenerArticulo(sku, etag,
+                            () -> inventarioRepository.findBySku(sku).map(InventarioDto::de))
+                    .map(articulo -> RespuestaCondicional.ok(etag, ResponseDto.success(articulo)))
                     .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body(ResponseDto.failure("Artículo no encontrado con SKU: " + sku)));
         } catch (Exception e) {
@@ -100,6 +241,11 @@ public class InventarioController {
     public ResponseEntity<ResponseDto<Inventario>> crear(@Valid @RequestBody Inventario articulo) {
         try {
             Inventario nuevoArticulo = inventarioRepository.save(articulo);
+            referenciaCacheService.invalidarArticulo(nuevoArticulo.getSku());
+            coalescenciaLecturasService.invalidarArticulo(nuevoArticulo.getSku());
+            inventarioBusquedaService.indexar(nuevoArticulo);
+            versionTablasService.incrementar(Tabla.INVENTARIO);
+            eventosService.publicar(evento(Operacion.CREAR, nuevoArticulo.getSku(), nuevoArticulo.getCantidad()));
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ResponseDto.success(nuevoArticulo));
         } catch (Exception e) {
@@ -109,16 +255,39 @@ public class InventarioController {
         }
     }
 
+    @Admision("inventario-importar")
+    @PostMapping(value = "/import", consumes = { "text/csv", MediaType.TEXT_PLAIN_VALUE })
+    @Operation(summary = "Importar inventario", description = "Carga un CSV sku,nombre,cantidad con COPY: crea los artículos nuevos y reemplaza nombre y cantidad de los existentes")
+    public ResponseEntity<ResponseDto<InventarioImportacionDto>> importar(HttpServletRequest request) {
+        try {
+            // El cuerpo se lee conforme llega: el archivo nunca está completo en memoria
+            InventarioImportacionDto resultado = inventarioImportacionService.importar(request.getInputStream());
+            referenciaCacheService.invalidarArticulos();
+            coalescenciaLecturasService.invalidarArticulos();
+            coalescenciaLecturasService.invalidarPolizas();
+            reservaInventarioService.recargarTodos();
+            return ResponseEntity.ok(ResponseDto.success(resultado));
+        } catch (Exception e) {
+            log.error("Error al importar el inventario", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ResponseDto.failure("Error al importar el inventario"));
+        }
+    }
+
     @PutMapping("/{sku}")
     @Operation(summary = "Actualizar un artículo", description = "Actualiza los datos de un artículo existente")
     public ResponseEntity<ResponseDto<Inventario>> actualizar(
             @PathVariable Long sku,
             @Valid @RequestBody Inventario articulo) {
         try {
-            return inventarioRepository.findBySku(sku)
-                    .map(articuloExistente -> {
-                        articulo.setSku(sku);
-                        Inventario articuloActualizado = inventarioRepository.save(articulo);
+            // La cantidad enviada reemplaza la existencia real, con las pendientes del SKU ya aplicadas
+            return reservaInventarioService.actualizar(sku, articulo)
+                    .map(articuloActualizado -> {
+                        coalescenciaLecturasService.invalidarArticulo(sku);
+                        coalescenciaLecturasService.invalidarPolizas();
+                        inventarioBusquedaService.indexar(articuloActualizado);
+                        versionTablasService.incrementar(Tabla.INVENTARIO);
+                        eventosService.publicar(evento(Operacion.ACTUALIZAR, sku, articuloActualizado.getCantidad()));
                         return ResponseEntity.ok(ResponseDto.success(articuloActualizado));
                     })
                     .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -137,6 +306,12 @@ public class InventarioController {
             return inventarioRepository.findBySku(sku)
                     .map(articulo -> {
                         inventarioRepository.delete(articulo);
+                        reservaInventarioService.recargar(sku);
+                        referenciaCacheService.invalidarArticulo(sku);
+                        coalescenciaLecturasService.invalidarArticulo(sku);
+                        inventarioBusquedaService.desindexar(sku);
+                        versionTablasService.incrementar(Tabla.INVENTARIO);
+                        eventosService.publicar(evento(Operacion.ELIMINAR, sku, null));
                         Map<String, String> response = new HashMap<>();
                         response.put("mensaje", "Artículo eliminado correctamente");
                         return ResponseEntity.ok(ResponseDto.success(response));
@@ -149,4 +324,13 @@ public class InventarioController {
                     .body(ResponseDto.failure("Error al eliminar el artículo"));
         }
     }
+
+    private static EventoCambioDto evento(Operacion operacion, Long sku, Integer cantidad) {
+        return EventoCambioDto.builder()
+                .tipo(EventoCambioDto.Tipo.INVENTARIO)
+                .operacion(operacion)
+                .sku(sku)
+                .cantidad(cantidad)
+                .build();
+    }
 }
@@ -1,22 +1,39 @@
 package com.polizas.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polizas.config.Admision;
+import com.polizas.config.PresupuestoSql;
 import com.polizas.dto.MensajeResponseDto;
 import com.polizas.dto.PageResponseDto;
+import com.polizas.dto.PolizaLoteResponseDto;
 import com.polizas.dto.PolizaRequestDto;
 import com.polizas.dto.PolizaResponseDto;
 import com.polizas.dto.ResponseDto;
+import com.polizas.service.CoalescenciaLecturasService;
+import com.polizas.service.PolizaExportacionService;
 import com.polizas.service.PolizaService;
+import com.polizas.service.VersionTablasService;
+import com.polizas.service.VersionTablasService.Tabla;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @RestController
@@ -25,14 +42,25 @@ import java.util.List;
 @Slf4j
 public class PolizaController {
 
+    private static final int TAMANO_MAXIMO_LOTE = 1000;
+
     private final PolizaService polizaService;
+    private final PolizaExportacionService polizaExportacionService;
+    private final VersionTablasService versionTablasService;
+    private final CoalescenciaLecturasService coalescenciaLecturasService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     @Operation(summary = "Obtener todas las pólizas", description = "Obtiene la lista de todas las pólizas registradas")
-    public ResponseEntity<ResponseDto<List<PolizaResponseDto>>> obtenerTodas() {
+    public ResponseEntity<ResponseDto<List<PolizaResponseDto>>> obtenerTodas(WebRequest request) {
+        String etag = versionTablasService.etag(Tabla.POLIZAS, Tabla.EMPLEADO, Tabla.INVENTARIO);
+        if (RespuestaCondicional.noModificado(request, etag)) {
+            return null;
+        }
+        // Sin streaming: un error a media lectura debe poder responder 500 con su sobre; /export transmite la tabla
         try {
             List<PolizaResponseDto> polizas = polizaService.obtenerTodasPolizas();
-            return ResponseEntity.ok(ResponseDto.success(polizas));
+            return RespuestaCondicional.ok(etag, ResponseDto.success(polizas));
         } catch (Exception e) {
             log.error("Error al obtener todas las pólizas", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -40,6 +68,8 @@ public class PolizaController {
         }
     }
 
+    // Contenido y conteo, sin consultas por fila
+    @PresupuestoSql(2)
     @GetMapping("/paginated")
     @Operation(summary = "Obtener pólizas paginadas", description = "Obtiene una página de pólizas con filtros opcionales")
     public ResponseEntity<ResponseDto<PageResponseDto<PolizaResponseDto>>> obtenerPaginadas(
@@ -48,9 +78,30 @@ public class PolizaController {
             @RequestParam(defaultValue = "idPoliza") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
             @RequestParam(required = false) Long empleadoId,
-            @RequestParam(required = false) Long sku) {
+            @RequestParam(required = false) Long sku,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        String etag = versionTablasService.etag(Tabla.POLIZAS, Tabla.EMPLEADO, Tabla.INVENTARIO);
+        if (RespuestaCondicional.noModificado(request, etag)) {
+            return null;
+        }
         try {
-            log.info("Obteniendo página {} de pólizas, tamaño: {}", page, size);
+            LocalDateTime desde = parsearLimite(from, false);
+            LocalDateTime hasta = parsearLimite(to, true);
+            validarRango(desde, hasta);
+
+            // Modo cursor (keyset) opcional: se activa con keyset=true o al enviar un cursor
+            if (keyset || cursor != null) {
+                log.debug("Obteniendo pólizas por cursor, tamaño: {}", size);
+                PageResponseDto<PolizaResponseDto> result = polizaService.obtenerPolizasPorCursor(
+                        empleadoId, sku, desde, hasta, sortBy, sortDir.equalsIgnoreCase("desc"), cursor, size);
+                return RespuestaCondicional.ok(etag, ResponseDto.success(result));
+            }
+
+            log.debug("Obteniendo página {} de pólizas, tamaño: {}", page, size);
 
             Sort sort = sortDir.equalsIgnoreCase("desc")
                     ? Sort.by(sortBy).descending()
@@ -58,9 +109,13 @@ public class PolizaController {
 
             Pageable pageable = PageRequest.of(page, size, sort);
             PageResponseDto<PolizaResponseDto> result = polizaService.obtenerPolizasPaginadas(
-                    empleadoId, sku, pageable);
+                    empleadoId, sku, desde, hasta, pageable);
 
-            return ResponseEntity.ok(ResponseDto.success(result));
+            return RespuestaCondicional.ok(etag, ResponseDto.success(result));
+        } catch (IllegalArgumentException e) {
+            log.warn("Parámetros de paginación inválidos: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseDto.failure(e.getMessage()));
         } catch (Exception e) {
             log.error("Error al obtener pólizas paginadas", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -68,10 +123,49 @@ public class PolizaController {
         }
     }
 
+    // Conserva su lugar mientras dura la descarga: su latencia objetivo y sus límites son propios
+    @Admision("polizas-exportar")
+    @GetMapping("/export")
+    @Operation(summary = "Exportar pólizas", description = "Transmite las pólizas (opcionalmente de un rango from/to) en formato NDJSON o CSV sin cargarlas en memoria")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        PolizaExportacionService.Formato formatoExportacion;
+        try {
+            formatoExportacion = PolizaExportacionService.Formato.valueOf(formato.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return errorExportacion("Formato de exportación no soportado: " + formato);
+        }
+
+        LocalDateTime desde;
+        LocalDateTime hasta;
+        try {
+            desde = parsearLimite(from, false);
+            hasta = parsearLimite(to, true);
+            validarRango(desde, hasta);
+        } catch (IllegalArgumentException e) {
+            return errorExportacion(e.getMessage());
+        }
+
+        StreamingResponseBody body = salida -> polizaExportacionService.exportarPolizas(formatoExportacion, desde,
+                hasta, salida);
+        boolean csv = formatoExportacion == PolizaExportacionService.Formato.CSV;
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"polizas." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+
+    // Empleado y nombre del artículo (si no están en caché), descuento, secuencia, alta y agregados
+    @Admision("polizas-crear")
+    @PresupuestoSql(8)
     @PostMapping
     @Operation(summary = "Crear una nueva póliza", description = "Crea una nueva póliza y actualiza el inventario")
     public ResponseEntity<ResponseDto<PolizaResponseDto>> crearPoliza(
-            @Valid @RequestBody PolizaRequestDto polizaRequestDto) {
+            @Validated(PolizaRequestDto.Alta.class) @RequestBody PolizaRequestDto polizaRequestDto) {
         try {
             PolizaResponseDto response = polizaService.crearPoliza(polizaRequestDto);
             return ResponseEntity.status(HttpStatus.CREATED).body(ResponseDto.success(response));
@@ -82,12 +176,42 @@ public class PolizaController {
         }
     }
 
+    // Constante salvo la secuencia y los INSERT, que van por bloques de 50: con el lote máximo son 40
+    @Admision("polizas-lote")
+    @PresupuestoSql(50)
+    // Cada elemento se valida como parámetro del método, que toma el grupo de esta anotación
+    @Validated(PolizaRequestDto.Alta.class)
+    @PostMapping("/batch")
+    @Operation(summary = "Crear pólizas en lote", description = "Crea varias pólizas en una sola transacción e informa el resultado de cada una")
+    public ResponseEntity<ResponseDto<PolizaLoteResponseDto>> crearPolizasLote(
+            @Valid @RequestBody List<PolizaRequestDto> polizas) {
+        if (polizas == null || polizas.isEmpty() || polizas.size() > TAMANO_MAXIMO_LOTE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseDto.failure("El lote debe contener entre 1 y " + TAMANO_MAXIMO_LOTE + " pólizas."));
+        }
+        try {
+            PolizaLoteResponseDto response = polizaService.crearPolizasLote(polizas);
+            return ResponseEntity.ok(ResponseDto.success(response));
+        } catch (Exception e) {
+            log.error("Error al crear lote de pólizas", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ResponseDto.failure("Ha ocurrido un error en los grabados del lote de pólizas."));
+        }
+    }
+
+    @PresupuestoSql(1)
     @GetMapping("/{idPoliza}")
     @Operation(summary = "Obtener póliza por ID", description = "Obtiene los detalles de una póliza por su ID")
-    public ResponseEntity<ResponseDto<PolizaResponseDto>> obtenerPoliza(@PathVariable Long idPoliza) {
+    public ResponseEntity<ResponseDto<PolizaResponseDto>> obtenerPoliza(@PathVariable Long idPoliza, WebRequest request) {
+        String etag = versionTablasService.etag(Tabla.POLIZAS, Tabla.EMPLEADO, Tabla.INVENTARIO);
+        if (RespuestaCondicional.noModificado(request, etag)) {
+            return null;
+        }
         try {
-            PolizaResponseDto response = polizaService.obtenerPolizaPorId(idPoliza);
-            return ResponseEntity.ok(ResponseDto.success(response));
+            // Las peticiones simultáneas de la misma póliza y la misma versión comparten la consulta
+            PolizaResponseDto response = coalescenciaLecturasService.obtenerPoliza(idPoliza, etag,
+                    () -> polizaService.obtenerPolizaPorId(idPoliza));
+            return RespuestaCondicional.ok(etag, ResponseDto.success(response));
         } catch (Exception e) {
             log.error("Error al consultar póliza", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -95,6 +219,7 @@ public class PolizaController {
         }
     }
 
+    @PresupuestoSql(5)
     @PutMapping("/{idPoliza}")
     @Operation(summary = "Actualizar póliza", description = "Actualiza los datos de una póliza existente")
     public ResponseEntity<ResponseDto<MensajeResponseDto>> actualizarPoliza(
@@ -110,6 +235,7 @@ public class PolizaController {
         }
     }
 
+    @PresupuestoSql(6)
     @DeleteMapping("/{idPoliza}")
     @Operation(summary = "Eliminar póliza", description = "Elimina una póliza existente y actualiza el inventario")
     public ResponseEntity<ResponseDto<MensajeResponseDto>> eliminarPoliza(@PathVariable Long idPoliza) {
@@ -122,4 +248,39 @@ public class PolizaController {
                     .body(ResponseDto.failure("Ha ocurrido un error al intentar eliminar la póliza."));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Respuesta 400 de la exportación: el tipo declarado debe ser StreamingResponseBody para que
+     * Spring transmita el cuerpo, así que el error JSON también se escribe como flujo
+     */
+    private ResponseEntity<StreamingResponseBody> errorExportacion(String mensaje) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(salida -> objectMapper.writeValue(salida, ResponseDto.failure(mensaje)));
+    }
+
+    /**
+     * Convierte un límite del filtro de fechas (yyyy-MM-dd o yyyy-MM-ddTHH:mm[:ss]). El rango es [from, to):
+     * un "to" con solo fecha incluye ese día completo.
+     */
+    private static LocalDateTime parsearLimite(String valor, boolean esFin) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            if (valor.length() == 10) {
+                LocalDate dia = LocalDate.parse(valor);
+                return esFin ? dia.plusDays(1).atStartOfDay() : dia.atStartOfDay();
+            }
+            return LocalDateTime.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha inválida: " + valor + " (se espera yyyy-MM-dd o yyyy-MM-ddTHH:mm:ss)");
+        }
+    }
+
+    private static void validarRango(LocalDateTime desde, LocalDateTime hasta) {
+        if (desde != null && hasta != null && !desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("El parámetro from debe ser anterior a to");
+        }
+    }
+}
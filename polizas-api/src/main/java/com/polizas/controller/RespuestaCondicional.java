@@ -0,0 +1,34 @@
+package com.polizas.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * GET condicionales con ETag (If-None-Match) para los controladores
+ */
+final class RespuestaCondicional {
+
+    private RespuestaCondicional() {
+    }
+
+    /**
+     * true si la etiqueta del cliente sigue vigente; Spring ya dejó la respuesta en 304 con el ETag
+     * y el controlador debe devolver null sin consultar nada. Sin etiqueta (null) siempre es false.
+     */
+    static boolean noModificado(WebRequest request, String etag) {
+        return etag != null && request.checkNotModified(etag);
+    }
+
+    /**
+     * 200 con el ETag; no-cache obliga al navegador a revalidar en cada uso en lugar de adivinar una vigencia
+     */
+    static <T> ResponseEntity<T> ok(String etag, T body) {
+        return ok(etag).body(body);
+    }
+
+    static ResponseEntity.BodyBuilder ok(String etag) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        return etag != null ? respuesta.eTag(etag) : respuesta;
+    }
+}
@@ -0,0 +1,61 @@
+package com.polizas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Respuestas de las consultas de consumo agregado
+ */
+public class ConsumoDto {
+
+    private ConsumoDto() {
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SkuDto {
+        private Long sku;
+        private String nombre;
+        private long unidades;
+        private long polizas;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EmpleadoDto {
+        private Long idEmpleado;
+        private String nombre;
+        private String apellido;
+        private long unidades;
+        private long polizas;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DiaDto {
+        private LocalDate fecha;
+        private long unidades;
+        private long polizas;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReconstruccionDto {
+        private int filasSku;
+        private int filasEmpleado;
+        private int filasDia;
+        private long duracionMs;
+    }
+}
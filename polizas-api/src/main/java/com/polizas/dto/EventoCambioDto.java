@@ -0,0 +1,35 @@
+package com.polizas.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cambio confirmado que se envía a los suscriptores de GET /eventos. Solo lleva los campos que aplican:
+ * cantidad es la existencia del artículo después del cambio, no la cantidad de la póliza.
+ * IMPORTAR (tipo INVENTARIO, sin SKU) avisa de una carga masiva: el cliente debe volver a leer el inventario.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventoCambioDto {
+
+    public enum Tipo {
+        POLIZA, INVENTARIO, EMPLEADO
+    }
+
+    public enum Operacion {
+        CREAR, ACTUALIZAR, ELIMINAR, IMPORTAR
+    }
+
+    private Tipo tipo;
+    private Operacion operacion;
+    private Long idPoliza;
+    private Long sku;
+    private Integer cantidad;
+    private Long idEmpleado;
+}
@@ -0,0 +1,23 @@
+package com.polizas.dto;
+
+import com.polizas.model.Inventario;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Artículo de inventario desacoplado de la entidad: inmutable, para compartirlo entre las peticiones que
+ * coalescen la lectura de un SKU. Se serializa igual que Inventario.
+ */
+@Value
+@Builder
+@Jacksonized
+public class InventarioDto {
+    Long sku;
+    String nombre;
+    Integer cantidad;
+
+    public static InventarioDto de(Inventario articulo) {
+        return new InventarioDto(articulo.getSku(), articulo.getNombre(), articulo.getCantidad());
+    }
+}
@@ -0,0 +1,35 @@
+package com.polizas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de POST /inventario/import. Las filas rechazadas no impiden cargar las demás;
+ * errores trae las primeras (app.inventario.importacion.max-errores) con su número de línea.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventarioImportacionDto {
+    private long filas;
+    private long insertadas;
+    private long actualizadas;
+    // Filas válidas que una línea posterior del mismo SKU reemplazó
+    private long duplicadas;
+    private long rechazadas;
+    private List<ErrorFilaDto> errores;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorFilaDto {
+        private long linea;
+        private String mensaje;
+    }
+}
@@ -0,0 +1,43 @@
+package com.polizas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginación por llave (keyset): última clave de orden y último ID entregados
+ */
+@Data
+@AllArgsConstructor
+public class KeysetCursor {
+    private static final char SEPARADOR = '|';
+
+    private String clave;
+    private Long id;
+
+    public static KeysetCursor of(Long id) {
+        return new KeysetCursor(null, id);
+    }
+
+    public String encode() {
+        String valor = (clave == null ? "" : clave) + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+            String clave = valor.substring(0, separador);
+            Long id = Long.valueOf(valor.substring(separador + 1));
+            return new KeysetCursor(clave.isEmpty() ? null : clave, id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+}
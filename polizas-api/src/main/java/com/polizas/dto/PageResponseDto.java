@@ -1,5 +1,6 @@
 package com.polizas.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,4 +17,11 @@ public class PageResponseDto<T> {
     private int currentPage;
     private long totalItems;
     private int totalPages;
-}
\ No newline at end of file
+
+    // Solo en modo cursor (keyset): en ese modo no se calcula el total y totalItems/totalPages valen -1
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean hasNext;
+}
@@ -0,0 +1,29 @@
+package com.polizas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PolizaLoteResponseDto {
+    private int creadas;
+    private int fallidas;
+    private List<ResultadoDto> resultados;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ResultadoDto {
+        private int indice;
+        private boolean exito;
+        private PolizaResponseDto poliza;
+        private String mensaje;
+    }
+}
@@ -1,5 +1,8 @@
 package com.polizas.dto;
 
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.groups.Default;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,8 +13,23 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class PolizaRequestDto {
+
+    /**
+     * Altas (POST /polizas y /polizas/batch): además del empleado exigen SKU y cantidad. PUT solo cambia el
+     * empleado y se valida con el grupo por defecto.
+     */
+    public interface Alta extends Default {
+    }
+
     private Long idPoliza;
+
+    @NotNull(message = "El empleado es obligatorio")
     private Long empleadoGenero;
+
+    @NotNull(message = "El SKU es obligatorio", groups = Alta.class)
     private Long sku;
+
+    @NotNull(message = "La cantidad es obligatoria", groups = Alta.class)
+    @Positive(message = "La cantidad debe ser mayor a cero", groups = Alta.class)
     private Integer cantidad;
-}
\ No newline at end of file
+}
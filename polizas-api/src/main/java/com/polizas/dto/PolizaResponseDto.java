@@ -1,10 +1,14 @@
 package com.polizas.dto;
 
+import com.polizas.model.Empleado;
+import com.polizas.model.Poliza;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,6 +18,37 @@ public class PolizaResponseDto {
     private EmpleadoDto empleado;
     private DetalleArticuloDto detalleArticulo;
 
+    /**
+     * Constructor plano usado por las proyecciones JPQL de PolizaRepository
+     */
+    public PolizaResponseDto(Long idPoliza, Integer cantidad, LocalDateTime fecha, String nombreEmpleado,
+            String apellidoEmpleado, Long sku, String nombreArticulo) {
+        this(new PolizaDto(idPoliza, cantidad, fecha),
+                new EmpleadoDto(nombreEmpleado, apellidoEmpleado),
+                new DetalleArticuloDto(sku, nombreArticulo));
+    }
+
+    /**
+     * Respuesta de una póliza recién grabada con su empleado y el nombre del artículo
+     */
+    public static PolizaResponseDto de(Poliza poliza, Empleado empleado, String nombreArticulo) {
+        return PolizaResponseDto.builder()
+                .poliza(PolizaDto.builder()
+                        .idPoliza(poliza.getIdPoliza())
+                        .cantidad(poliza.getCantidad())
+                        .fecha(poliza.getFecha())
+                        .build())
+                .empleado(EmpleadoDto.builder()
+                        .nombre(empleado.getNombre())
+                        .apellido(empleado.getApellido())
+                        .build())
+                .detalleArticulo(DetalleArticuloDto.builder()
+                        .sku(poliza.getSku())
+                        .nombre(nombreArticulo)
+                        .build())
+                .build();
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -21,6 +56,7 @@ public class PolizaResponseDto {
     public static class PolizaDto {
         private Long idPoliza;
         private Integer cantidad;
+        private LocalDateTime fecha;
     }
 
     @Data
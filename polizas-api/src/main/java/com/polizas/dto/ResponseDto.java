@@ -1,9 +1,14 @@
 package com.polizas.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.Map;
 
 @Data
 @Builder
@@ -15,24 +20,39 @@ public class ResponseDto<T> {
 
     public static <T> ResponseDto<T> success(T data) {
         return ResponseDto.<T>builder()
-                .meta(MetaDto.builder().status("OK").build())
+                .meta(MetaDto.OK)
                 .data(data)
                 .build();
     }
 
     public static <T> ResponseDto<T> failure(String mensaje) {
         return ResponseDto.<T>builder()
-                .meta(MetaDto.builder().status("FAILURE").build())
+                .meta(MetaDto.FAILURE)
                 .data((T) MensajeDto.builder().mensaje(mensaje).build())
                 .build();
     }
 
-    @Data
+    /**
+     * Fallo de validación: el mensaje general y el motivo de cada campo rechazado
+     */
+    public static <T> ResponseDto<T> failure(String mensaje, Map<String, String> errores) {
+        return ResponseDto.<T>builder()
+                .meta(MetaDto.FAILURE)
+                .data((T) MensajeDto.builder().mensaje(mensaje).errores(errores).build())
+                .build();
+    }
+
+    /**
+     * Inmutable: todas las respuestas comparten las instancias OK y FAILURE
+     */
+    @Value
     @Builder
-    @NoArgsConstructor
-    @AllArgsConstructor
+    @Jacksonized
     public static class MetaDto {
-        private String status;
+        public static final MetaDto OK = new MetaDto("OK");
+        public static final MetaDto FAILURE = new MetaDto("FAILURE");
+
+        String status;
     }
 
     @Data
@@ -41,5 +61,8 @@ public class ResponseDto<T> {
     @AllArgsConstructor
     public static class MensajeDto {
         private String mensaje;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Map<String, String> errores;
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.polizas.exception;
+
+import java.time.Duration;
+
+/**
+ * El control de admisión descartó la petición porque su ruta o su compartimento (lecturas o escrituras) no
+ * tenían cupo; se responde 503 con Retry-After sin llegar al controlador
+ */
+public class AdmisionRechazadaException extends RuntimeException {
+    private final Duration reintentarEn;
+
+    public AdmisionRechazadaException(String mensaje, Duration reintentarEn) {
+        super(mensaje);
+        this.reintentarEn = reintentarEn;
+    }
+
+    public Duration getReintentarEn() {
+        return reintentarEn;
+    }
+}
@@ -2,12 +2,15 @@ package com.polizas.exception;
 
 import com.polizas.dto.ResponseDto;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
+import org.springframework.validation.method.ParameterErrors;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -30,8 +33,18 @@ public class GlobalExceptionHandler {
                 .body(ResponseDto.failure(ex.getMessage()));
     }
 
+    // Sin stack trace: bajo saturación se descartan muchas peticiones y ya se cuentan en http.admission.rejected
+    @ExceptionHandler(AdmisionRechazadaException.class)
+    public ResponseEntity<ResponseDto<Object>> handleAdmisionRechazadaException(AdmisionRechazadaException ex) {
+        log.debug("Petición descartada: {}", ex.getMessage());
+        long segundos = Math.max(1, (ex.getReintentarEn().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(segundos))
+                .body(ResponseDto.failure("El servicio está saturado, reintente en " + segundos + " s."));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ResponseDto<Map<String, String>>> handleValidationExceptions(
+    public ResponseEntity<ResponseDto<Object>> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach((error) -> {
@@ -42,7 +55,26 @@ public class GlobalExceptionHandler {
 
         log.error("Error de validación: {}", errors);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(ResponseDto.failure("Error de validación en los datos proporcionados."));
+                .body(ResponseDto.failure("Error de validación en los datos proporcionados.", errors));
+    }
+
+    // @Valid sobre una lista (el lote de pólizas) valida cada elemento como parámetro del método, no como cuerpo;
+    // los errores llevan el índice del elemento: polizas[2].cantidad
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ResponseDto<Object>> handleMethodValidationExceptions(
+            HandlerMethodValidationException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getAllValidationResults().forEach(resultado -> resultado.getResolvableErrors().forEach(error -> {
+            String campo = resultado.getMethodParameter().getParameterName();
+            if (resultado instanceof ParameterErrors elemento && error instanceof FieldError fieldError) {
+                campo += "[" + elemento.getContainerIndex() + "]." + fieldError.getField();
+            }
+            errors.put(campo, error.getDefaultMessage());
+        }));
+
+        log.error("Error de validación: {}", errors);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ResponseDto.failure("Error de validación en los datos proporcionados.", errors));
     }
 
     @ExceptionHandler(Exception.class)
@@ -0,0 +1,12 @@
+package com.polizas.exception;
+
+/**
+ * Una petición intentó ejecutar más sentencias SQL que su presupuesto con el modo estricto activo
+ * (app.jdbc.inspeccion.presupuesto.estricto=true, pensado para las pruebas de integración)
+ */
+public class PresupuestoSqlExcedidoException extends RuntimeException {
+
+    public PresupuestoSqlExcedidoException(int presupuesto, String forma) {
+        super("Presupuesto de " + presupuesto + " sentencias SQL excedido por: " + forma);
+    }
+}
@@ -0,0 +1,32 @@
+package com.polizas.model;
+
+import com.polizas.config.CacheConfig;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+/**
+ * Nombre de un artículo, sobre la misma tabla que {@link Inventario}, para la caché de segundo nivel. La
+ * existencia no está aquí: cambia con UPDATE nativos, volcados de reservas y COPY que Hibernate no ve, y nunca
+ * se cachea. Los cambios de nombre también se guardan a través de esta entidad
+ * (ReferenciaCacheService.renombrar): la entrada queda bloqueada hasta confirmar y una carga concurrente que
+ * leyó el nombre anterior no puede dejarlo en la caché.
+ */
+@Entity
+@Table(name = "inventario")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.REGION_ARTICULOS)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticuloReferencia {
+
+    @Id
+    @Column(name = "sku", nullable = false, updatable = false)
+    private Long sku;
+
+    @Column(name = "nombre", nullable = false)
+    private String nombre;
+}
@@ -1,13 +1,18 @@
 package com.polizas.model;
 
+import com.polizas.config.CacheConfig;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "empleado")
+// Se lee en cada póliza y casi nunca cambia; todas sus escrituras pasan por JPA, que mantiene la región al día
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.REGION_EMPLEADOS)
 @Data
 @Builder
 @NoArgsConstructor
@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -22,7 +23,9 @@ import lombok.NoArgsConstructor;
 public class Poliza {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con bloques de 50 IDs (V7) para permitir inserts por lotes
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "polizas_id_poliza_seq")
+    @SequenceGenerator(name = "polizas_id_poliza_seq", sequenceName = "polizas_id_poliza_seq", allocationSize = 50)
     @Column(name = "id_poliza", nullable = false, unique = true)
     private Long idPoliza;
 
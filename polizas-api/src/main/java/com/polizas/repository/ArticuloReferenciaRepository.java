@@ -0,0 +1,9 @@
+package com.polizas.repository;
+
+import com.polizas.model.ArticuloReferencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArticuloReferenciaRepository extends JpaRepository<ArticuloReferencia, Long> {
+}
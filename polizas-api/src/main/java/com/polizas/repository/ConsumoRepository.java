@@ -0,0 +1,151 @@
+package com.polizas.repository;
+
+import com.polizas.dto.ConsumoDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tablas de consumo agregado (V8). Se usa JDBC porque las escrituras son upserts
+ * (INSERT ... ON CONFLICT) que no tienen equivalente en JPQL.
+ * Dentro de una transacción de JPA las sentencias usan la misma conexión y se confirman con ella.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ConsumoRepository {
+
+    private static final String UPSERT_SKU_MES = "INSERT INTO consumo_sku_mes (mes, sku, unidades, polizas) "
+            + "VALUES (:mes, :sku, :unidades, :polizas) "
+            + "ON CONFLICT (mes, sku) DO UPDATE SET unidades = consumo_sku_mes.unidades + EXCLUDED.unidades, "
+            + "polizas = consumo_sku_mes.polizas + EXCLUDED.polizas";
+
+    private static final String UPSERT_EMPLEADO_MES = "INSERT INTO consumo_empleado_mes "
+            + "(mes, empleado_genero, unidades, polizas) VALUES (:mes, :empleado, :unidades, :polizas) "
+            + "ON CONFLICT (mes, empleado_genero) DO UPDATE SET "
+            + "unidades = consumo_empleado_mes.unidades + EXCLUDED.unidades, "
+            + "polizas = consumo_empleado_mes.polizas + EXCLUDED.polizas";
+
+    private static final String UPSERT_DIA = "INSERT INTO consumo_dia (fecha, franja, unidades, polizas) "
+            + "VALUES (:dia, :franja, :unidades, :polizas) "
+            + "ON CONFLICT (fecha, franja) DO UPDATE SET unidades = consumo_dia.unidades + EXCLUDED.unidades, "
+            + "polizas = consumo_dia.polizas + EXCLUDED.polizas";
+
+    // Los tres upserts de una póliza en un solo viaje a la base de datos
+    private static final String UPSERT_POLIZA = "WITH sku_mes AS (" + UPSERT_SKU_MES + "), "
+            + "empleado_mes AS (" + UPSERT_EMPLEADO_MES + ") " + UPSERT_DIA;
+
+    // Sin consumo_sku_mes: el de los SKU con reservas en memoria lo aplica ReservaRepository al volcar
+    private static final String UPSERT_POLIZA_SIN_SKU = "WITH empleado_mes AS (" + UPSERT_EMPLEADO_MES + ") "
+            + UPSERT_DIA;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * Suma (o resta, con valores negativos) una póliza a los agregados; a consumo_sku_mes solo si incluirSku
+     */
+    public void sumar(LocalDate dia, long sku, long empleado, int franja, long unidades, long polizas,
+            boolean incluirSku) {
+        jdbc.update(incluirSku ? UPSERT_POLIZA : UPSERT_POLIZA_SIN_SKU, new MapSqlParameterSource()
+                .addValue("mes", dia.withDayOfMonth(1))
+                .addValue("dia", dia)
+                .addValue("sku", sku)
+                .addValue("empleado", empleado)
+                .addValue("franja", franja)
+                .addValue("unidades", unidades)
+                .addValue("polizas", polizas));
+    }
+
+    public void sumarSkuMes(SqlParameterSource[] filas) {
+        jdbc.batchUpdate(UPSERT_SKU_MES, filas);
+    }
+
+    public void sumarEmpleadoMes(SqlParameterSource[] filas) {
+        jdbc.batchUpdate(UPSERT_EMPLEADO_MES, filas);
+    }
+
+    public void sumarDia(SqlParameterSource[] filas) {
+        jdbc.batchUpdate(UPSERT_DIA, filas);
+    }
+
+    public List<ConsumoDto.SkuDto> findTopSkus(LocalDate mes, int limite) {
+        return jdbc.query("SELECT c.sku, i.nombre, c.unidades, c.polizas FROM consumo_sku_mes c "
+                + "LEFT JOIN inventario i ON i.sku = c.sku "
+                + "WHERE c.mes = :mes AND c.polizas > 0 ORDER BY c.unidades DESC, c.sku LIMIT :limite",
+                Map.of("mes", mes, "limite", limite),
+                (rs, fila) -> new ConsumoDto.SkuDto(rs.getLong("sku"), rs.getString("nombre"),
+                        rs.getLong("unidades"), rs.getLong("polizas")));
+    }
+
+    public List<ConsumoDto.EmpleadoDto> findTopEmpleados(LocalDate mes, int limite) {
+        return jdbc.query("SELECT c.empleado_genero, e.nombre, e.apellido, c.unidades, c.polizas "
+                + "FROM consumo_empleado_mes c LEFT JOIN empleado e ON e.id_empleado = c.empleado_genero "
+                + "WHERE c.mes = :mes AND c.polizas > 0 ORDER BY c.unidades DESC, c.empleado_genero LIMIT :limite",
+                Map.of("mes", mes, "limite", limite),
+                (rs, fila) -> new ConsumoDto.EmpleadoDto(rs.getLong("empleado_genero"), rs.getString("nombre"),
+                        rs.getString("apellido"), rs.getLong("unidades"), rs.getLong("polizas")));
+    }
+
+    public List<ConsumoDto.DiaDto> findPorDia(LocalDate desde, LocalDate hasta) {
+        return jdbc.query("SELECT fecha, SUM(unidades) AS unidades, SUM(polizas) AS polizas FROM consumo_dia "
+                + "WHERE fecha BETWEEN :desde AND :hasta GROUP BY fecha HAVING SUM(polizas) > 0 ORDER BY fecha",
+                Map.of("desde", desde, "hasta", hasta),
+                (rs, fila) -> new ConsumoDto.DiaDto(rs.getObject("fecha", LocalDate.class),
+                        rs.getLong("unidades"), rs.getLong("polizas")));
+    }
+
+    // Reconstrucción: vaciado y recálculo desde polizas por rangos de llave disjuntos
+
+    public void vaciar() {
+        jdbc.getJdbcTemplate().execute("TRUNCATE TABLE consumo_sku_mes, consumo_empleado_mes, consumo_dia");
+    }
+
+    /**
+     * Rango [mínimo, máximo] de una columna numérica de polizas; vacío si no hay pólizas
+     */
+    public Optional<long[]> findRangoPolizas(String columna) {
+        return jdbc.getJdbcTemplate().query("SELECT MIN(" + columna + "), MAX(" + columna + ") FROM polizas",
+                rs -> {
+                    rs.next();
+                    long minimo = rs.getLong(1);
+                    return rs.wasNull() ? Optional.empty() : Optional.of(new long[] { minimo, rs.getLong(2) });
+                });
+    }
+
+    public Optional<LocalDate[]> findRangoFechas() {
+        return jdbc.getJdbcTemplate().query("SELECT MIN(fecha)::date, MAX(fecha)::date FROM polizas",
+                rs -> {
+                    rs.next();
+                    LocalDate minimo = rs.getObject(1, LocalDate.class);
+                    return minimo == null ? Optional.empty()
+                            : Optional.of(new LocalDate[] { minimo, rs.getObject(2, LocalDate.class) });
+                });
+    }
+
+    public int reconstruirSkuMes(long desde, long hasta) {
+        return jdbc.update("INSERT INTO consumo_sku_mes (mes, sku, unidades, polizas) "
+                + "SELECT date_trunc('month', fecha)::date, sku, SUM(cantidad), COUNT(*) FROM polizas "
+                + "WHERE sku BETWEEN :desde AND :hasta GROUP BY 1, 2",
+                Map.of("desde", desde, "hasta", hasta));
+    }
+
+    public int reconstruirEmpleadoMes(long desde, long hasta) {
+        return jdbc.update("INSERT INTO consumo_empleado_mes (mes, empleado_genero, unidades, polizas) "
+                + "SELECT date_trunc('month', fecha)::date, empleado_genero, SUM(cantidad), COUNT(*) FROM polizas "
+                + "WHERE empleado_genero BETWEEN :desde AND :hasta GROUP BY 1, 2",
+                Map.of("desde", desde, "hasta", hasta));
+    }
+
+    public int reconstruirDia(LocalDate desde, LocalDate hastaExclusivo) {
+        return jdbc.update("INSERT INTO consumo_dia (fecha, franja, unidades, polizas) "
+                + "SELECT fecha::date, 0, SUM(cantidad), COUNT(*) FROM polizas "
+                + "WHERE fecha >= :desde AND fecha < :hasta GROUP BY 1",
+                Map.of("desde", desde.atStartOfDay(), "hasta", hastaExclusivo.atStartOfDay()));
+    }
+}
@@ -1,12 +1,17 @@
 package com.polizas.repository;
 
 import com.polizas.model.Empleado;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface EmpleadoRepository extends JpaRepository<Empleado, Long> {
+    // Caché de consultas: guarda el ID resultante y el empleado sale de la región de empleados
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Empleado> findByIdEmpleado(Long idEmpleado);
-}
\ No newline at end of file
+}
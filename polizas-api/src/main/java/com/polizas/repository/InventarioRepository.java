@@ -3,9 +3,14 @@ package com.polizas.repository;
 import com.polizas.model.Inventario;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,4 +22,54 @@ public interface InventarioRepository extends JpaRepository<Inventario, Long> {
 
     // Método para búsqueda por nombre con paginación (opcional)
     Page<Inventario> findByNombreContainingIgnoreCase(String nombre, Pageable pageable);
-}
\ No newline at end of file
+
+    // Paginación por cursor (keyset) sobre la llave primaria, sin OFFSET ni count(*)
+    Slice<Inventario> findBySkuGreaterThan(Long sku, Pageable pageable);
+
+    Slice<Inventario> findBySkuLessThan(Long sku, Pageable pageable);
+
+    Slice<Inventario> findByNombreContainingIgnoreCaseAndSkuGreaterThan(String nombre, Long sku, Pageable pageable);
+
+    Slice<Inventario> findByNombreContainingIgnoreCaseAndSkuLessThan(String nombre, Long sku, Pageable pageable);
+
+    // Página sobre los SKUs que resolvió el índice de búsqueda en memoria
+    Page<Inventario> findBySkuIn(Collection<Long> skus, Pageable pageable);
+
+    // Los UPDATE nativos de abajo solo tocan cantidad, que no está en la caché de segundo nivel; uno que cambie
+    // nombre debe pasar por ReferenciaCacheService.renombrar en su transacción
+
+    // Descuento atómico: solo modifica la fila si hay existencia suficiente. Devuelve la existencia resultante
+    // (para los eventos de cambio) o vacío si no alcanzó o el SKU no existe
+    @Query(value = "UPDATE inventario SET cantidad = cantidad - :cantidad WHERE sku = :sku AND cantidad >= :cantidad "
+            + "RETURNING cantidad", nativeQuery = true)
+    Optional<Integer> descontarCantidad(@Param("sku") Long sku, @Param("cantidad") Integer cantidad);
+
+    // Reposición atómica de existencia: devuelve la existencia resultante o vacío si el SKU no existe
+    @Query(value = "UPDATE inventario SET cantidad = cantidad + :cantidad WHERE sku = :sku RETURNING cantidad",
+            nativeQuery = true)
+    Optional<Integer> reponerCantidad(@Param("sku") Long sku, @Param("cantidad") Integer cantidad);
+
+    // Descuento atómico de varios SKU en una sentencia (lotes de pólizas): bloquea las filas en orden ascendente de
+    // SKU y solo modifica las que alcanzan. Devuelve [sku, existencia resultante] de los SKU descontados
+    @Query(value = "WITH bloqueadas AS MATERIALIZED (SELECT sku FROM inventario WHERE sku = ANY(:skus) "
+            + "ORDER BY sku FOR UPDATE), "
+            + "descuentos AS (SELECT * FROM unnest(CAST(:skus AS BIGINT[]), CAST(:cantidades AS INTEGER[])) "
+            + "AS d(sku, cantidad)) "
+            + "UPDATE inventario i SET cantidad = i.cantidad - d.cantidad "
+            + "FROM descuentos d JOIN bloqueadas b ON b.sku = d.sku "
+            + "WHERE i.sku = d.sku AND i.cantidad >= d.cantidad RETURNING i.sku, i.cantidad", nativeQuery = true)
+    List<Object[]> descontarCantidades(@Param("skus") Long[] skus, @Param("cantidades") Integer[] cantidades);
+
+    // Bloqueo para reemplazar la fila: FOR UPDATE (no el FOR NO KEY UPDATE de PESSIMISTIC_WRITE) también choca con
+    // el FOR KEY SHARE que la llave foránea de polizas toma al insertar, así que las pólizas del SKU esperan
+    @Query(value = "SELECT * FROM inventario WHERE sku = :sku FOR UPDATE", nativeQuery = true)
+    Optional<Inventario> bloquearPorSku(@Param("sku") Long sku);
+
+    // Igual para varios SKU, en orden ascendente como descontarCantidades para no interbloquearse con los lotes
+    @Query(value = "SELECT sku FROM inventario WHERE sku IN (:skus) ORDER BY sku FOR UPDATE", nativeQuery = true)
+    List<Long> bloquearPorSkus(@Param("skus") Collection<Long> skus);
+
+    // Total de unidades en inventario (gauge de métricas)
+    @Query("SELECT COALESCE(SUM(i.cantidad), 0) FROM Inventario i")
+    long sumCantidad();
+}
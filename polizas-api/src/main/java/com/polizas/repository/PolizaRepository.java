@@ -1,18 +1,43 @@
 package com.polizas.repository;
 
+import com.polizas.dto.PolizaResponseDto;
 import com.polizas.model.Poliza;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PolizaRepository extends JpaRepository<Poliza, Long> {
+
+    // Proyección de póliza con empleado y artículo en una sola consulta (evita N+1)
+    String SELECT_DETALLE = "SELECT new com.polizas.dto.PolizaResponseDto(" +
+            "p.idPoliza, p.cantidad, p.fecha, e.nombre, e.apellido, i.sku, i.nombre) " +
+            "FROM Poliza p " +
+            "JOIN Empleado e ON e.idEmpleado = p.empleadoGenero " +
+            "JOIN Inventario i ON i.sku = p.sku ";
+
+    // Rango de fechas [desde, hasta): con la tabla particionada por mes solo se leen las particiones del rango.
+    // El CAST le da tipo al parámetro cuando llega null (PostgreSQL no puede inferirlo de "? IS NULL")
+    String FILTRO_FECHAS = "(CAST(:desde AS LocalDateTime) IS NULL OR p.fecha >= :desde) AND " +
+            "(CAST(:hasta AS LocalDateTime) IS NULL OR p.fecha < :hasta)";
+
+    String FILTROS_DETALLE = "WHERE (:empleadoGenero IS NULL OR p.empleadoGenero = :empleadoGenero) AND " +
+            "(:sku IS NULL OR p.sku = :sku) AND " + FILTRO_FECHAS;
+
     Optional<Poliza> findByIdPoliza(Long idPoliza);
 
     List<Poliza> findByEmpleadoGenero(Long empleadoGenero);
@@ -38,4 +63,80 @@ public interface PolizaRepository extends JpaRepository<Poliza, Long> {
     Page<Poliza> findByFilters(@Param("empleadoGenero") Long empleadoGenero,
             @Param("sku") Long sku,
             Pageable pageable);
-}
\ No newline at end of file
+
+    // Detalle de todas las pólizas con empleado y artículo
+    @Query(SELECT_DETALLE)
+    List<PolizaResponseDto> findAllDetalle();
+
+    // Detalle de una póliza con empleado y artículo
+    @Query(SELECT_DETALLE + "WHERE p.idPoliza = :idPoliza")
+    Optional<PolizaResponseDto> findDetalleByIdPoliza(@Param("idPoliza") Long idPoliza);
+
+    // Detalle paginado con filtros opcionales de empleado y SKU
+    @Query(value = SELECT_DETALLE + FILTROS_DETALLE,
+            countQuery = "SELECT count(p) FROM Poliza p " + FILTROS_DETALLE)
+    Page<PolizaResponseDto> findDetalleByFilters(@Param("empleadoGenero") Long empleadoGenero,
+            @Param("sku") Long sku,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            Pageable pageable);
+
+    // Detalle en streaming con cursor del lado del servidor (requiere transacción abierta)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_DETALLE + "WHERE " + FILTRO_FECHAS + " ORDER BY p.idPoliza")
+    Stream<PolizaResponseDto> streamDetalle(@Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta);
+
+    // Crea las particiones mensuales que falten entre dos fechas (función de V9); devuelve cuántas creó.
+    // Transacción de escritura propia: las consultas del repositorio son de solo lectura por defecto
+    @Transactional
+    @Query(value = "SELECT crear_particiones_polizas(:desde, :hasta)", nativeQuery = true)
+    int crearParticiones(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    // Paginación por cursor (keyset): sin OFFSET ni count(*), el orden lo define el Pageable.
+    // La condición "fecha >= x AND (fecha > x OR id > y)" equivale a (fecha, id) > (x, y)
+    // y deja a fecha como rango sobre idx_polizas_fecha_id.
+    @Query(SELECT_DETALLE + FILTROS_DETALLE)
+    Slice<PolizaResponseDto> findDetalleSliceByFilters(@Param("empleadoGenero") Long empleadoGenero,
+            @Param("sku") Long sku,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            Pageable pageable);
+
+    @Query(SELECT_DETALLE + FILTROS_DETALLE + " AND p.fecha >= :fecha AND (p.fecha > :fecha OR p.idPoliza > :idPoliza)")
+    Slice<PolizaResponseDto> findDetalleDespuesDeFecha(@Param("empleadoGenero") Long empleadoGenero,
+            @Param("sku") Long sku,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("fecha") LocalDateTime fecha,
+            @Param("idPoliza") Long idPoliza,
+            Pageable pageable);
+
+    @Query(SELECT_DETALLE + FILTROS_DETALLE + " AND p.fecha <= :fecha AND (p.fecha < :fecha OR p.idPoliza < :idPoliza)")
+    Slice<PolizaResponseDto> findDetalleAntesDeFecha(@Param("empleadoGenero") Long empleadoGenero,
+            @Param("sku") Long sku,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("fecha") LocalDateTime fecha,
+            @Param("idPoliza") Long idPoliza,
+            Pageable pageable);
+
+    @Query(SELECT_DETALLE + FILTROS_DETALLE + " AND p.idPoliza > :idPoliza")
+    Slice<PolizaResponseDto> findDetalleDespuesDeId(@Param("empleadoGenero") Long empleadoGenero,
+            @Param("sku") Long sku,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("idPoliza") Long idPoliza,
+            Pageable pageable);
+
+    @Query(SELECT_DETALLE + FILTROS_DETALLE + " AND p.idPoliza < :idPoliza")
+    Slice<PolizaResponseDto> findDetalleAntesDeId(@Param("empleadoGenero") Long empleadoGenero,
+            @Param("sku") Long sku,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("idPoliza") Long idPoliza,
+            Pageable pageable);
+}
@@ -0,0 +1,73 @@
+package com.polizas.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Descuentos pendientes de los SKU de alta demanda (V10). Igual que ConsumoRepository, usa JDBC
+ * y dentro de una transacción de JPA comparte su conexión.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReservaRepository {
+
+    // Una sola sentencia: las pendientes que se borran son exactamente las que se aplican a inventario
+    // y a consumo_sku_mes, aunque la aplicación caiga a la mitad. Las filas de transacciones que aún
+    // no confirman no son visibles para el DELETE y quedan para el siguiente volcado.
+    private static final String APLICAR_PENDIENTES = "WITH aplicadas AS ("
+            + "DELETE FROM reservas_pendientes RETURNING sku, cantidad, mes), "
+            + "inventario_aplicado AS (UPDATE inventario i SET cantidad = i.cantidad - t.total "
+            + "FROM (SELECT sku, SUM(cantidad) AS total FROM aplicadas GROUP BY sku) t WHERE i.sku = t.sku), "
+            + "consumo_aplicado AS (INSERT INTO consumo_sku_mes (mes, sku, unidades, polizas) "
+            + "SELECT mes, sku, SUM(cantidad), COUNT(*) FROM aplicadas GROUP BY mes, sku "
+            + "ON CONFLICT (mes, sku) DO UPDATE SET unidades = consumo_sku_mes.unidades + EXCLUDED.unidades, "
+            + "polizas = consumo_sku_mes.polizas + EXCLUDED.polizas) "
+            + "SELECT COUNT(*) FROM aplicadas";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public void insertarPendientes(SqlParameterSource[] filas) {
+        jdbc.batchUpdate("INSERT INTO reservas_pendientes (id_poliza, sku, cantidad, mes) "
+                + "VALUES (:idPoliza, :sku, :cantidad, :mes)", filas);
+    }
+
+    /**
+     * Borra la pendiente de una póliza; 0 si su descuento ya se aplicó a inventario
+     */
+    public int borrarPendiente(long idPoliza) {
+        return jdbc.update("DELETE FROM reservas_pendientes WHERE id_poliza = :idPoliza",
+                new MapSqlParameterSource("idPoliza", idPoliza));
+    }
+
+    /**
+     * Aplica y borra todas las pendientes confirmadas; devuelve cuántas pólizas aplicó
+     */
+    public long aplicarPendientes() {
+        Long aplicadas = jdbc.getJdbcTemplate().queryForObject(APLICAR_PENDIENTES, Long.class);
+        return aplicadas == null ? 0 : aplicadas;
+    }
+
+    /**
+     * Existencia real de cada SKU: inventario.cantidad menos sus pendientes. Los SKU que no existen no aparecen.
+     */
+    public Map<Long, Long> findDisponibles(Collection<Long> skus) {
+        Map<Long, Long> disponibles = new HashMap<>();
+        if (skus.isEmpty()) {
+            return disponibles;
+        }
+        jdbc.query("SELECT i.sku, i.cantidad - COALESCE((SELECT SUM(r.cantidad) FROM reservas_pendientes r "
+                + "WHERE r.sku = i.sku), 0) AS disponible FROM inventario i WHERE i.sku IN (:skus)",
+                Map.of("skus", skus),
+                rs -> {
+                    disponibles.put(rs.getLong("sku"), rs.getLong("disponible"));
+                });
+        return disponibles;
+    }
+}
@@ -0,0 +1,137 @@
+package com.polizas.service;
+
+import com.polizas.dto.InventarioDto;
+import com.polizas.dto.PolizaResponseDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Coalescencia de las lecturas puntuales más repetidas por los tableros (GET /polizas/{id} y
+ * GET /inventario/{sku}): las peticiones concurrentes de la misma clave comparten una sola consulta
+ * ({@link LecturaCoalescida}) y, con app.coalescencia.reutilizar, su resultado durante esa ventana.
+ * <p>
+ * La clave incluye el ETag que la petición calculó antes de leer, así que nadie recibe datos cargados antes de
+ * una versión de tabla que ya vio y la etiqueta nunca es más nueva que el contenido. Las escrituras además
+ * invalidan sus claves al confirmar, para las respuestas sin ETag (réplicas con cambios recientes).
+ */
+@Service
+@RequiredArgsConstructor
+public class CoalescenciaLecturasService {
+
+    public static final String METRICA = "reads.coalesced";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.coalescencia.enabled:true}")
+    private boolean habilitada;
+
+    @Value("${app.coalescencia.reutilizar:0ms}")
+    private Duration reutilizar;
+
+    private LecturaCoalescida<Clave, PolizaResponseDto> polizas;
+    private LecturaCoalescida<Clave, Optional<InventarioDto>> articulos;
+    private Map<LecturaCoalescida.Resultado, Counter> contadoresPolizas;
+    private Map<LecturaCoalescida.Resultado, Counter> contadoresArticulos;
+
+    @PostConstruct
+    public void iniciar() {
+        polizas = new LecturaCoalescida<>(reutilizar.toNanos());
+        articulos = new LecturaCoalescida<>(reutilizar.toNanos());
+        contadoresPolizas = contadores("poliza");
+        contadoresArticulos = contadores("articulo");
+    }
+
+    /**
+     * Detalle de una póliza; cargar consulta la base de datos si no hay una carga que compartir
+     */
+    public PolizaResponseDto obtenerPoliza(Long idPoliza, String etag, Supplier<PolizaResponseDto> cargar) {
+        if (!habilitada) {
+            return cargar.get();
+        }
+        return polizas.obtener(new Clave(idPoliza, etag), cargar,
+                resultado -> contadoresPolizas.get(resultado).increment());
+    }
+
+    /**
+     * Artículo por SKU; cargar consulta la base de datos si no hay una carga que compartir. El resultado se
+     * entrega a varias peticiones: es una copia inmutable, nunca la entidad administrada por JPA.
+     */
+    public Optional<InventarioDto> obtenerArticulo(Long sku, String etag, Supplier<Optional<InventarioDto>> cargar) {
+        if (!habilitada) {
+            return cargar.get();
+        }
+        return articulos.obtener(new Clave(sku, etag), cargar,
+                resultado -> contadoresArticulos.get(resultado).increment());
+    }
+
+    public void invalidarPoliza(Long idPoliza) {
+        despuesDelCommit(() -> polizas.invalidar(clave -> clave.id().equals(idPoliza)));
+    }
+
+    /**
+     * El detalle de las pólizas lleva nombres de empleado y artículo: cambiarlos invalida todas
+     */
+    public void invalidarPolizas() {
+        despuesDelCommit(() -> polizas.invalidarTodo());
+    }
+
+    public void invalidarArticulo(Long sku) {
+        despuesDelCommit(() -> articulos.invalidar(clave -> clave.id().equals(sku)));
+    }
+
+    public void invalidarArticulos(Collection<Long> skus) {
+        Set<Long> claves = Set.copyOf(skus);
+        despuesDelCommit(() -> articulos.invalidar(clave -> claves.contains(clave.id())));
+    }
+
+    public void invalidarArticulos() {
+        despuesDelCommit(() -> articulos.invalidarTodo());
+    }
+
+    // Antes del commit una lectura nueva todavía vería los datos anteriores y volvería a ocupar la clave
+    private void despuesDelCommit(Runnable invalidacion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidacion.run();
+                }
+            });
+        } else {
+            invalidacion.run();
+        }
+    }
+
+    private Map<LecturaCoalescida.Resultado, Counter> contadores(String lectura) {
+        Map<LecturaCoalescida.Resultado, Counter> contadores = new EnumMap<>(LecturaCoalescida.Resultado.class);
+        for (LecturaCoalescida.Resultado resultado : LecturaCoalescida.Resultado.values()) {
+            contadores.put(resultado, Counter.builder(METRICA)
+                    .description("Lecturas puntuales: consulta propia, compartida o reutilizada")
+                    .tag("read", lectura)
+                    .tag("result", switch (resultado) {
+                        case CARGADA -> "loaded";
+                        case COMPARTIDA -> "joined";
+                        case REUTILIZADA -> "reused";
+                    })
+                    .register(meterRegistry));
+        }
+        return contadores;
+    }
+
+    private record Clave(Long id, String etag) {
+    }
+}
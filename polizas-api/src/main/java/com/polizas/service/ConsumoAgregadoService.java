@@ -0,0 +1,235 @@
+package com.polizas.service;
+
+import com.polizas.dto.ConsumoDto;
+import com.polizas.model.Poliza;
+import com.polizas.repository.ConsumoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Consumo agregado por SKU y mes, por empleado y mes y por día (tablas de V8).
+ * Los agregados se actualizan dentro de la transacción de la póliza: si la póliza se revierte, también su suma.
+ * Las filas se bloquean siempre en el mismo orden (SKU, empleado, día; cada uno por llave ascendente)
+ * para que dos transacciones concurrentes no se bloqueen mutuamente.
+ * Excepción: el agregado por SKU de los SKU con reservas en memoria ({@link ReservaInventarioService})
+ * se aplica al volcar sus descuentos pendientes, no en la transacción de la póliza.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConsumoAgregadoService {
+
+    // El total del día se reparte en franjas; las consultas las suman
+    private static final int FRANJAS_DIA = 16;
+
+    private final ConsumoRepository consumoRepository;
+    private final ReservaInventarioService reservaInventarioService;
+
+    @Value("${app.consumo.reconstruccion.hilos:4}")
+    private int hilosReconstruccion;
+
+    @Value("${app.consumo.reconstruccion.particiones:32}")
+    private int particionesReconstruccion;
+
+    /**
+     * Suma una póliza recién creada a los agregados
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Poliza poliza) {
+        sumar(poliza, poliza.getCantidad(), 1, !reservaInventarioService.gestiona(poliza.getSku()));
+    }
+
+    /**
+     * Resta una póliza eliminada de los agregados
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revertir(Poliza poliza) {
+        sumar(poliza, -poliza.getCantidad(), -1, true);
+    }
+
+    /**
+     * Resta una póliza eliminada cuyo descuento seguía pendiente: su agregado por SKU no se había aplicado
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revertirPendiente(Poliza poliza) {
+        sumar(poliza, -poliza.getCantidad(), -1, false);
+    }
+
+    /**
+     * Mueve el consumo de una póliza del empleado anterior al actual; SKU y día no cambian
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cambiarEmpleado(Poliza poliza, Long empleadoAnterior) {
+        if (empleadoAnterior.equals(poliza.getEmpleadoGenero())) {
+            return;
+        }
+        LocalDate mes = poliza.getFecha().toLocalDate().withDayOfMonth(1);
+        Map<Long, long[]> porEmpleado = new TreeMap<>();
+        porEmpleado.put(empleadoAnterior, new long[] { -poliza.getCantidad(), -1 });
+        porEmpleado.put(poliza.getEmpleadoGenero(), new long[] { poliza.getCantidad(), 1 });
+        consumoRepository.sumarEmpleadoMes(filas(mes, "empleado", porEmpleado));
+    }
+
+    /**
+     * Suma un lote de pólizas con un batch por tabla en lugar de tres sentencias por póliza
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarLote(List<Poliza> polizas) {
+        if (polizas.isEmpty()) {
+            return;
+        }
+        // Llaves en orden ascendente (mes, sku), (mes, empleado) y día
+        Map<LocalDate, Map<Long, long[]>> porSku = new TreeMap<>();
+        Map<LocalDate, Map<Long, long[]>> porEmpleado = new TreeMap<>();
+        Map<LocalDate, long[]> porDia = new TreeMap<>();
+        for (Poliza poliza : polizas) {
+            LocalDate dia = poliza.getFecha().toLocalDate();
+            LocalDate mes = dia.withDayOfMonth(1);
+            if (!reservaInventarioService.gestiona(poliza.getSku())) {
+                acumular(porSku.computeIfAbsent(mes, m -> new TreeMap<>()), poliza.getSku(), poliza.getCantidad());
+            }
+            acumular(porEmpleado.computeIfAbsent(mes, m -> new TreeMap<>()), poliza.getEmpleadoGenero(),
+                    poliza.getCantidad());
+            acumular(porDia, dia, poliza.getCantidad());
+        }
+        consumoRepository.sumarSkuMes(porSku.entrySet().stream()
+                .flatMap(mes -> Arrays.stream(filas(mes.getKey(), "sku", mes.getValue())))
+                .toArray(SqlParameterSource[]::new));
+        consumoRepository.sumarEmpleadoMes(porEmpleado.entrySet().stream()
+                .flatMap(mes -> Arrays.stream(filas(mes.getKey(), "empleado", mes.getValue())))
+                .toArray(SqlParameterSource[]::new));
+
+        int franja = ThreadLocalRandom.current().nextInt(FRANJAS_DIA);
+        consumoRepository.sumarDia(porDia.entrySet().stream()
+                .map(dia -> (SqlParameterSource) new MapSqlParameterSource()
+                        .addValue("dia", dia.getKey())
+                        .addValue("franja", franja)
+                        .addValue("unidades", dia.getValue()[0])
+                        .addValue("polizas", dia.getValue()[1]))
+                .toArray(SqlParameterSource[]::new));
+    }
+
+    public List<ConsumoDto.SkuDto> topSkus(YearMonth mes, int limite) {
+        return consumoRepository.findTopSkus(mes.atDay(1), limite);
+    }
+
+    public List<ConsumoDto.EmpleadoDto> topEmpleados(YearMonth mes, int limite) {
+        return consumoRepository.findTopEmpleados(mes.atDay(1), limite);
+    }
+
+    public List<ConsumoDto.DiaDto> porDia(LocalDate desde, LocalDate hasta) {
+        return consumoRepository.findPorDia(desde, hasta);
+    }
+
+    /**
+     * Recalcula los tres agregados desde polizas. Cada tabla se divide en rangos de llave disjuntos
+     * (SKU, empleado, fechas) que se insertan en paralelo, cada rango en su propia transacción.
+     * Debe ejecutarse sin escrituras de pólizas concurrentes: una póliza creada durante la
+     * reconstrucción puede quedar contada dos veces o ninguna.
+     */
+    public ConsumoDto.ReconstruccionDto reconstruir() {
+        log.info("Reconstruyendo agregados de consumo ({} hilos, {} particiones por tabla)",
+                hilosReconstruccion, particionesReconstruccion);
+        long inicio = System.nanoTime();
+        // Las pendientes se cuentan al leer polizas: si se aplicaran después, quedarían sumadas dos veces
+        reservaInventarioService.aplicarPendientes();
+        consumoRepository.vaciar();
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilosReconstruccion);
+        try {
+            List<Future<Integer>> sku = enviarRangos(ejecutor, consumoRepository.findRangoPolizas("sku")
+                    .orElse(null), consumoRepository::reconstruirSkuMes);
+            List<Future<Integer>> empleado = enviarRangos(ejecutor, consumoRepository
+                    .findRangoPolizas("empleado_genero").orElse(null), consumoRepository::reconstruirEmpleadoMes);
+            List<Future<Integer>> dia = new ArrayList<>();
+            LocalDate[] fechas = consumoRepository.findRangoFechas().orElse(null);
+            if (fechas != null) {
+                dia = enviarRangos(ejecutor, new long[] { fechas[0].toEpochDay(), fechas[1].toEpochDay() },
+                        (desde, hasta) -> consumoRepository.reconstruirDia(LocalDate.ofEpochDay(desde),
+                                LocalDate.ofEpochDay(hasta + 1)));
+            }
+
+            ConsumoDto.ReconstruccionDto resultado = ConsumoDto.ReconstruccionDto.builder()
+                    .filasSku(totalFilas(sku))
+                    .filasEmpleado(totalFilas(empleado))
+                    .filasDia(totalFilas(dia))
+                    .duracionMs((System.nanoTime() - inicio) / 1_000_000)
+                    .build();
+            log.info("Agregados de consumo reconstruidos: {}", resultado);
+            return resultado;
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    private void sumar(Poliza poliza, long unidades, long polizas, boolean incluirSku) {
+        consumoRepository.sumar(poliza.getFecha().toLocalDate(), poliza.getSku(), poliza.getEmpleadoGenero(),
+                ThreadLocalRandom.current().nextInt(FRANJAS_DIA), unidades, polizas, incluirSku);
+    }
+
+    // Divide [mínimo, máximo] en particiones contiguas y envía cada una al ejecutor
+    private List<Future<Integer>> enviarRangos(ExecutorService ejecutor, long[] rango, LongBinaryOperator tarea) {
+        List<Future<Integer>> futuros = new ArrayList<>();
+        if (rango == null) {
+            return futuros;
+        }
+        long ancho = Math.max(1, (rango[1] - rango[0] + particionesReconstruccion) / particionesReconstruccion);
+        for (long desde = rango[0]; desde <= rango[1]; desde += ancho) {
+            long inicio = desde;
+            long fin = Math.min(rango[1], desde + ancho - 1);
+            futuros.add(ejecutor.submit(() -> (int) tarea.applyAsLong(inicio, fin)));
+        }
+        return futuros;
+    }
+
+    private static int totalFilas(List<Future<Integer>> futuros) {
+        int total = 0;
+        try {
+            for (Future<Integer> futuro : futuros) {
+                total += futuro.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconstrucción de agregados interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al reconstruir los agregados de consumo", e.getCause());
+        }
+        return total;
+    }
+
+    private static <K> void acumular(Map<K, long[]> totales, K llave, long unidades) {
+        long[] total = totales.computeIfAbsent(llave, l -> new long[2]);
+        total[0] += unidades;
+        total[1]++;
+    }
+
+    private static SqlParameterSource[] filas(LocalDate mes, String columna, Map<Long, long[]> totales) {
+        return totales.entrySet().stream()
+                .map(total -> (SqlParameterSource) new MapSqlParameterSource()
+                        .addValue("mes", mes)
+                        .addValue(columna, total.getKey())
+                        .addValue("unidades", total.getValue()[0])
+                        .addValue("polizas", total.getValue()[1]))
+                .toArray(SqlParameterSource[]::new);
+    }
+}
@@ -0,0 +1,108 @@
+package com.polizas.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Existencia disponible de un SKU repartida en franjas. Cada hilo descuenta con CAS de su propia franja
+ * y no compite con los demás mientras a su franja le alcance; si no, toma de las otras y, como último
+ * recurso, junta todas las franjas bajo el monitor para decidir con el total.
+ * El total nunca queda negativo: una franja solo se decrementa si tiene suficiente.
+ */
+final class ContadorReservas {
+
+    // 8 longs (64 bytes) entre franjas para que dos franjas no compartan línea de caché
+    private static final int SEPARACION = 8;
+
+    private final int franjas;
+    private final AtomicLongArray celdas;
+
+    ContadorReservas(int franjas, long disponible) {
+        this.franjas = franjas;
+        this.celdas = new AtomicLongArray(franjas * SEPARACION);
+        repartir(Math.max(0, disponible));
+    }
+
+    /**
+     * Descuenta la cantidad si hay existencia suficiente
+     */
+    boolean reservar(long cantidad) {
+        int propia = franjaActual();
+        for (int i = 0; i < franjas; i++) {
+            if (tomar((propia + i) % franjas, cantidad)) {
+                return true;
+            }
+        }
+        return reservarDelTotal(cantidad);
+    }
+
+    /**
+     * Regresa existencia (reserva revertida o póliza eliminada)
+     */
+    void devolver(long cantidad) {
+        celdas.addAndGet(franjaActual() * SEPARACION, cantidad);
+    }
+
+    /**
+     * Suma de las franjas; con reservas concurrentes es solo una foto aproximada
+     */
+    long disponible() {
+        long total = 0;
+        for (int i = 0; i < franjas; i++) {
+            total += celdas.get(i * SEPARACION);
+        }
+        return total;
+    }
+
+    /**
+     * Suma o resta una corrección de la reconciliación; una resta mayor que lo disponible deja el total en cero
+     */
+    synchronized void ajustar(long diferencia) {
+        if (diferencia >= 0) {
+            devolver(diferencia);
+            return;
+        }
+        long total = juntar();
+        repartir(Math.max(0, total + diferencia));
+    }
+
+    private boolean tomar(int franja, long cantidad) {
+        int indice = franja * SEPARACION;
+        long actual;
+        do {
+            actual = celdas.get(indice);
+            if (actual < cantidad) {
+                return false;
+            }
+        } while (!celdas.compareAndSet(indice, actual, actual - cantidad));
+        return true;
+    }
+
+    // Ninguna franja alcanza por sí sola: se junta el total y se vuelve a repartir lo que sobra
+    private synchronized boolean reservarDelTotal(long cantidad) {
+        long total = juntar();
+        boolean alcanza = total >= cantidad;
+        repartir(alcanza ? total - cantidad : total);
+        return alcanza;
+    }
+
+    // Vacía las franjas y devuelve lo que tenían; las devoluciones concurrentes se quedan en su franja
+    private long juntar() {
+        long total = 0;
+        for (int i = 0; i < franjas; i++) {
+            total += celdas.getAndSet(i * SEPARACION, 0);
+        }
+        return total;
+    }
+
+    private void repartir(long total) {
+        long porFranja = total / franjas;
+        long resto = total % franjas;
+        for (int i = 0; i < franjas; i++) {
+            celdas.addAndGet(i * SEPARACION, porFranja + (i < resto ? 1 : 0));
+        }
+    }
+
+    private int franjaActual() {
+        return (int) (Thread.currentThread().threadId() % franjas);
+    }
+}
@@ -0,0 +1,258 @@
+package com.polizas.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polizas.dto.EventoCambioDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cambios de inventario, pólizas y empleados por Server-Sent Events (GET /eventos), para que los tableros
+ * no tengan que consultar periódicamente. Los eventos se publican después del commit, se serializan una
+ * sola vez para todos los suscriptores y se guardan en un historial circular (app.eventos.historial) para
+ * reanudar con Last-Event-ID.
+ * <p>
+ * Cada suscriptor tiene una cola acotada de publicaciones (app.eventos.buffer; un lote de pólizas ocupa
+ * una sola entrada) que un hilo virtual vacía hacia su conexión, así que quien publica nunca espera a un
+ * cliente. Si la cola se llena, el suscriptor se desconecta: al reconectar recibe lo que perdió si sigue
+ * en el historial, o un evento "reiniciar" si no.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventosService {
+
+    public static final String METRICA_SUSCRIPTORES = "eventos.subscribers";
+    public static final String METRICA_DESCONECTADOS = "eventos.dropped";
+
+    // Espera que se sugiere a EventSource antes de reconectar
+    private static final long RECONEXION_MS = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.eventos.historial:4096}")
+    private int capacidadHistorial;
+
+    @Value("${app.eventos.buffer:256}")
+    private int capacidadBuffer;
+
+    // Igual que en las ETag: un Last-Event-ID de otra instancia o de antes de reiniciar no se confunde
+    private final String instancia = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Set<DataWithMediaType>> latido = List.of(SseEmitter.event().comment("").build());
+
+    // Protegidos por el monitor: la secuencia, el historial y el reparto avanzan juntos
+    private Evento[] historial;
+    private long secuencia;
+
+    private Counter desconectados;
+
+    @PostConstruct
+    public void iniciar() {
+        historial = new Evento[capacidadHistorial];
+        Gauge.builder(METRICA_SUSCRIPTORES, suscriptores, Set::size)
+                .description("Conexiones abiertas a GET /eventos")
+                .register(meterRegistry);
+        desconectados = Counter.builder(METRICA_DESCONECTADOS)
+                .description("Suscriptores desconectados por no consumir sus eventos a tiempo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre una suscripción; con Last-Event-ID primero recibe los eventos posteriores que siguen en el historial
+     */
+    public SseEmitter suscribir(String ultimoId) {
+        SseEmitter emitter = new SseEmitter();
+        Suscriptor suscriptor;
+        synchronized (this) {
+            List<Set<DataWithMediaType>> pendientes = new ArrayList<>();
+            pendientes.add(SseEmitter.event().reconnectTime(RECONEXION_MS).build());
+            pendientes.addAll(pendientesDesde(ultimoId));
+            suscriptor = new Suscriptor(emitter, capacidadBuffer);
+            suscriptor.encolar(pendientes);
+            suscriptores.add(suscriptor);
+        }
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        emitter.onError(error -> suscriptores.remove(suscriptor));
+        return emitter;
+    }
+
+    public void publicar(EventoCambioDto evento) {
+        publicar(List.of(evento));
+    }
+
+    /**
+     * Publica los cambios cuando se confirma la transacción en curso, o de inmediato si no hay una
+     */
+    public void publicar(List<EventoCambioDto> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicarAhora(eventos);
+                }
+            });
+        } else {
+            publicarAhora(eventos);
+        }
+    }
+
+    /**
+     * Comentario periódico para que proxies y balanceadores no cierren conexiones sin tráfico
+     * y para detectar las que el cliente ya cerró
+     */
+    @Scheduled(fixedDelayString = "${app.eventos.latido-ms:15000}")
+    public void latir() {
+        suscriptores.forEach(suscriptor -> suscriptor.encolar(latido));
+    }
+
+    @PreDestroy
+    public void detener() {
+        suscriptores.forEach(suscriptor -> envios.execute(suscriptor.emitter::complete));
+        suscriptores.clear();
+        envios.shutdown();
+    }
+
+    private void publicarAhora(List<EventoCambioDto> eventos) {
+        List<String> datos = new ArrayList<>(eventos.size());
+        for (EventoCambioDto evento : eventos) {
+            try {
+                datos.add(objectMapper.writeValueAsString(evento));
+            } catch (JsonProcessingException e) {
+                // El cambio ya está confirmado: se pierde el evento, no la petición
+                log.error("No se pudo serializar el evento {}", evento, e);
+                return;
+            }
+        }
+        synchronized (this) {
+            List<Set<DataWithMediaType>> publicacion = new ArrayList<>(eventos.size());
+            for (int i = 0; i < eventos.size(); i++) {
+                long id = ++secuencia;
+                Evento evento = new Evento(SseEmitter.event()
+                        .id(instancia + "-" + id)
+                        .name(eventos.get(i).getTipo().name().toLowerCase(Locale.ROOT))
+                        .data(datos.get(i), MediaType.APPLICATION_JSON)
+                        .build());
+                historial[(int) (id % historial.length)] = evento;
+                publicacion.add(evento.mensaje());
+            }
+            for (Suscriptor suscriptor : suscriptores) {
+                suscriptor.encolar(publicacion);
+            }
+        }
+    }
+
+    // Eventos posteriores a Last-Event-ID, o un "reiniciar" si ya no están todos en el historial
+    private List<Set<DataWithMediaType>> pendientesDesde(String ultimoId) {
+        if (ultimoId == null || ultimoId.isBlank()) {
+            return List.of();
+        }
+        long desde = -1;
+        String prefijo = instancia + "-";
+        if (ultimoId.startsWith(prefijo)) {
+            try {
+                desde = Long.parseLong(ultimoId.substring(prefijo.length()));
+            } catch (NumberFormatException e) {
+                desde = -1;
+            }
+        }
+        if (desde < 0 || desde > secuencia || secuencia - desde > historial.length) {
+            // El cliente debe recargar su estado; el ID le sirve para reanudar desde aquí
+            return List.of(SseEmitter.event()
+                    .id(instancia + "-" + secuencia)
+                    .name("reiniciar")
+                    .data("{}", MediaType.APPLICATION_JSON)
+                    .build());
+        }
+        List<Set<DataWithMediaType>> pendientes = new ArrayList<>((int) (secuencia - desde));
+        for (long id = desde + 1; id <= secuencia; id++) {
+            pendientes.add(historial[(int) (id % historial.length)].mensaje());
+        }
+        return pendientes;
+    }
+
+    private record Evento(Set<DataWithMediaType> mensaje) {
+    }
+
+    /**
+     * Conexión abierta con su cola; a lo más un hilo virtual la vacía a la vez
+     */
+    private final class Suscriptor {
+        private final SseEmitter emitter;
+        private final BlockingQueue<List<Set<DataWithMediaType>>> cola;
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        private Suscriptor(SseEmitter emitter, int capacidad) {
+            this.emitter = emitter;
+            this.cola = new ArrayBlockingQueue<>(capacidad);
+        }
+
+        private void encolar(List<Set<DataWithMediaType>> mensajes) {
+            if (!cola.offer(mensajes)) {
+                desconectar();
+                return;
+            }
+            if (enviando.compareAndSet(false, true)) {
+                envios.execute(this::enviar);
+            }
+        }
+
+        private void enviar() {
+            do {
+                try {
+                    List<Set<DataWithMediaType>> mensajes;
+                    while ((mensajes = cola.poll()) != null) {
+                        for (Set<DataWithMediaType> mensaje : mensajes) {
+                            emitter.send(mensaje);
+                        }
+                    }
+                } catch (Exception e) {
+                    // El cliente cerró la conexión; enviando se queda en true para no volver a programarlo
+                    suscriptores.remove(this);
+                    cola.clear();
+                    return;
+                }
+                enviando.set(false);
+            } while (!cola.isEmpty() && enviando.compareAndSet(false, true));
+        }
+
+        private void desconectar() {
+            if (suscriptores.remove(this)) {
+                desconectados.increment();
+                log.debug("Suscriptor de eventos desconectado: su cola de {} publicaciones se llenó", cola.size());
+                // complete() espera al envío en curso, que puede estar bloqueado por el mismo cliente lento
+                envios.execute(emitter::complete);
+            }
+        }
+    }
+}
@@ -0,0 +1,524 @@
+package com.polizas.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Carga un conjunto de datos sintético y reproducible para pruebas de rendimiento (perfil "seed").
+ * Con la misma semilla y los mismos volúmenes genera exactamente las mismas filas.
+ * En PostgreSQL carga con COPY; con otros drivers usa inserts por lotes JDBC.
+ */
+@Component
+@Profile("seed")
+@RequiredArgsConstructor
+@Slf4j
+public class GeneradorDatosSinteticos implements ApplicationRunner {
+
+    private static final long SKU_INICIAL = 1000;
+    private static final int PROGRESO_POLIZAS = 1_000_000;
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] TIPOS_ARTICULO = {
+            "Lápiz", "Bolígrafo", "Cuaderno", "Carpeta", "Folder", "Engrapadora", "Grapas", "Clips",
+            "Marcatextos", "Post-it", "Tijeras", "Regla", "Goma", "Cinta adhesiva", "Sobre", "Hojas",
+            "Tóner", "Cartucho", "Calculadora", "Perforadora", "Corrector", "Sacapuntas", "Pegamento",
+            "Etiquetas", "Archivero", "Portaminas", "Plumón", "Pizarrón", "Borrador", "Calendario"
+    };
+    private static final String[] VARIANTES = {
+            "negro", "azul", "rojo", "verde", "amarillo", "tamaño carta", "tamaño oficio", "(caja)",
+            "profesional", "chico", "mediano", "grande", "económico", "reciclado", "metálico", "de plástico"
+    };
+    private static final String[] NOMBRES = {
+            "Juan", "María", "José", "Ana", "Luis", "Carmen", "Carlos", "Laura", "Jorge", "Sofía",
+            "Miguel", "Lucía", "Fernando", "Elena", "Ricardo", "Patricia", "Andrés", "Verónica",
+            "Raúl", "Mónica", "Héctor", "Gabriela", "Sergio", "Adriana", "Javier", "Daniela"
+    };
+    private static final String[] APELLIDOS = {
+            "García", "Hernández", "Martínez", "López", "González", "Pérez", "Rodríguez", "Sánchez",
+            "Ramírez", "Cruz", "Flores", "Gómez", "Morales", "Vázquez", "Jiménez", "Reyes", "Díaz",
+            "Torres", "Gutiérrez", "Ruiz", "Mendoza", "Aguilar", "Ortiz", "Castillo", "Romero", "Núñez"
+    };
+    private static final String[] PUESTOS = {
+            "Almacenista", "Auxiliar administrativo", "Contador", "Gerente", "Supervisor", "Analista",
+            "Recepcionista", "Vendedor", "Desarrollador", "Asistente"
+    };
+
+    private final DataSource dataSource;
+    private final ConsumoAgregadoService consumoAgregadoService;
+
+    @Value("${app.seed.semilla:42}")
+    private long semilla;
+
+    @Value("${app.seed.articulos:100000}")
+    private int articulos;
+
+    @Value("${app.seed.empleados:50000}")
+    private int empleados;
+
+    @Value("${app.seed.polizas:5000000}")
+    private long polizas;
+
+    // Las fechas se generan hacia atrás desde una fecha fija, no desde "hoy", para que sean reproducibles
+    @Value("${app.seed.fecha-fin:2025-01-01}")
+    private String fechaFin;
+
+    @Value("${app.seed.dias:730}")
+    private int dias;
+
+    // Exponente de Zipf para la popularidad de los SKU (0 = uniforme)
+    @Value("${app.seed.sesgo-sku:1.1}")
+    private double sesgoSku;
+
+    @Value("${app.seed.reemplazar:true}")
+    private boolean reemplazar;
+
+    @Value("${app.seed.lote:5000}")
+    private int lote;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        try (Connection conexion = dataSource.getConnection()) {
+            boolean copy = conexion.isWrapperFor(PGConnection.class);
+            conexion.setAutoCommit(false);
+
+            if (!reemplazar && contarFilas(conexion, "polizas") > 0) {
+                log.info("La tabla polizas ya tiene datos y app.seed.reemplazar=false: no se generan datos");
+                return;
+            }
+
+            log.info("Generando datos sintéticos (semilla={}, articulos={}, empleados={}, polizas={}, carga={})",
+                    semilla, articulos, empleados, polizas, copy ? "COPY" : "lotes JDBC");
+            long inicio = System.nanoTime();
+
+            vaciarTablas(conexion, copy);
+
+            // Un flujo aleatorio independiente por tabla: cambiar un volumen no altera las otras tablas
+            SplittableRandom raiz = new SplittableRandom(semilla);
+            SplittableRandom rndArticulos = raiz.split();
+            SplittableRandom rndEmpleados = raiz.split();
+            SplittableRandom rndPolizas = raiz.split();
+
+            cargarArticulos(conexion, copy, rndArticulos);
+            cargarEmpleados(conexion, copy, rndEmpleados);
+
+            // Mantener índices y llaves foráneas fila por fila domina el tiempo de carga:
+            // se quitan durante el COPY y se reconstruyen una sola vez al final
+            if (copy) {
+                crearParticiones(conexion);
+            }
+            List<String> recrear = copy ? suspenderIndices(conexion, "polizas") : List.of();
+            long unidades = cargarPolizas(conexion, copy, rndArticulos, rndPolizas);
+            restaurarIndices(conexion, recrear);
+
+            if (copy) {
+                ajustarSecuencias(conexion);
+            }
+            // Las pólizas se cargaron sin pasar por PolizaService: los agregados se recalculan completos
+            consumoAgregadoService.reconstruir();
+
+            log.info("Datos sintéticos generados en {} s ({} unidades consumidas por las pólizas)",
+                    (System.nanoTime() - inicio) / 1_000_000_000, unidades);
+        }
+    }
+
+    private void vaciarTablas(Connection conexion, boolean copy) throws SQLException {
+        try (Statement sentencia = conexion.createStatement()) {
+            if (copy) {
+                sentencia.execute("TRUNCATE TABLE polizas, inventario, empleado, reservas_pendientes");
+            } else {
+                sentencia.execute("DELETE FROM polizas");
+                sentencia.execute("DELETE FROM inventario");
+                sentencia.execute("DELETE FROM empleado");
+            }
+        }
+        conexion.commit();
+    }
+
+    /**
+     * La existencia de cada artículo es lo que queda después de todas las pólizas generadas
+     * (existencia inicial implícita = consumido + restante), por lo que nunca es negativa.
+     * Un 5% de los artículos queda agotado para ejercitar el rechazo por existencia insuficiente.
+     */
+    private void cargarArticulos(Connection conexion, boolean copy, SplittableRandom rnd)
+            throws SQLException, IOException {
+        long inicio = System.nanoTime();
+        try (CargaTabla carga = abrirCarga(conexion, copy, "inventario", "sku", "nombre", "cantidad")) {
+            for (int i = 0; i < articulos; i++) {
+                String nombre = TIPOS_ARTICULO[rnd.nextInt(TIPOS_ARTICULO.length)] + " "
+                        + VARIANTES[rnd.nextInt(VARIANTES.length)] + " " + (SKU_INICIAL + i);
+                int cantidad = rnd.nextDouble() < 0.05 ? 0 : 1 + rnd.nextInt(1000);
+                carga.valor(SKU_INICIAL + i).valor(nombre).valor(cantidad).finFila();
+            }
+        }
+        conexion.commit();
+        log.info("{} artículos cargados en {} ms", articulos, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private void cargarEmpleados(Connection conexion, boolean copy, SplittableRandom rnd)
+            throws SQLException, IOException {
+        long inicio = System.nanoTime();
+        try (CargaTabla carga = abrirCarga(conexion, copy, "empleado", "id_empleado", "nombre", "apellido", "puesto")) {
+            for (int i = 1; i <= empleados; i++) {
+                carga.valor(i)
+                        .valor(NOMBRES[rnd.nextInt(NOMBRES.length)])
+                        .valor(APELLIDOS[rnd.nextInt(APELLIDOS.length)] + " " + APELLIDOS[rnd.nextInt(APELLIDOS.length)])
+                        .valor(PUESTOS[rnd.nextInt(PUESTOS.length)])
+                        .finFila();
+            }
+        }
+        conexion.commit();
+        log.info("{} empleados cargados en {} ms", empleados, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Pólizas con IDs crecientes en el tiempo: la actividad crece linealmente a lo largo del periodo,
+     * se concentra en días hábiles y horario de oficina, y la popularidad de los SKU sigue una Zipf.
+     */
+    private long cargarPolizas(Connection conexion, boolean copy, SplittableRandom rndArticulos,
+            SplittableRandom rnd) throws SQLException, IOException {
+        long inicio = System.nanoTime();
+        DistribucionZipf popularidad = new DistribucionZipf(articulos, sesgoSku);
+        // Los SKU más populares quedan repartidos por todo el rango, no en los primeros valores
+        int[] skuPorRango = permutacion(articulos, rndArticulos);
+        LocalDateTime origen = LocalDate.parse(fechaFin).atStartOfDay().minusDays(dias);
+        long unidades = 0;
+
+        try (CargaTabla carga = abrirCarga(conexion, copy, "polizas",
+                "id_poliza", "empleado_genero", "sku", "cantidad", "fecha")) {
+            for (long i = 0; i < polizas; i++) {
+                long sku = SKU_INICIAL + skuPorRango[popularidad.muestra(rnd)];
+                int cantidad = 1 + Math.min(19, (int) (-Math.log(1 - rnd.nextDouble()) * 1.5));
+                unidades += cantidad;
+
+                carga.valor(i + 1)
+                        .valor(1 + rnd.nextInt(empleados))
+                        .valor(sku)
+                        .valor(cantidad)
+                        .valor(fecha(origen, (i + rnd.nextDouble()) / polizas, rnd))
+                        .finFila();
+
+                if ((i + 1) % PROGRESO_POLIZAS == 0) {
+                    long transcurrido = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+                    log.info("{} pólizas cargadas ({} filas/s)", i + 1, (i + 1) * 1000 / transcurrido);
+                }
+            }
+        }
+        conexion.commit();
+        log.info("{} pólizas cargadas en {} ms", polizas, (System.nanoTime() - inicio) / 1_000_000);
+        return unidades;
+    }
+
+    private LocalDateTime fecha(LocalDateTime origen, double avance, SplittableRandom rnd) {
+        // Densidad creciente: la raíz cuadrada pone más pólizas hacia el final del periodo
+        LocalDateTime dia = origen.plusDays(Math.min(dias - 1, (long) (dias * Math.sqrt(avance))));
+        DayOfWeek diaSemana = dia.getDayOfWeek();
+        if (diaSemana.getValue() >= DayOfWeek.SATURDAY.getValue() && rnd.nextDouble() < 0.8) {
+            // A un día hábil cualquiera de la misma semana
+            dia = dia.minusDays(diaSemana.getValue() - DayOfWeek.MONDAY.getValue() - rnd.nextInt(5));
+        }
+        int hora = (int) Math.max(7, Math.min(20, Math.round(13 + 2.5 * rnd.nextGaussian())));
+        return dia.plusHours(hora).plusMinutes(rnd.nextInt(60)).plusSeconds(rnd.nextInt(60));
+    }
+
+    private static int[] permutacion(int n, SplittableRandom rnd) {
+        int[] valores = new int[n];
+        for (int i = 0; i < n; i++) {
+            valores[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int tmp = valores[i];
+            valores[i] = valores[j];
+            valores[j] = tmp;
+        }
+        return valores;
+    }
+
+    /**
+     * Elimina las llaves foráneas y los índices secundarios de la tabla (no los de PK/UNIQUE)
+     * y devuelve las sentencias para volver a crearlos
+     */
+    private List<String> suspenderIndices(Connection conexion, String tabla) throws SQLException {
+        List<String> recrear = new ArrayList<>();
+        List<String> eliminar = new ArrayList<>();
+        try (PreparedStatement sentencia = conexion.prepareStatement(
+                "SELECT conname, pg_get_constraintdef(oid) FROM pg_constraint "
+                        + "WHERE conrelid = ?::regclass AND contype = 'f'")) {
+            sentencia.setString(1, tabla);
+            try (ResultSet rs = sentencia.executeQuery()) {
+                while (rs.next()) {
+                    eliminar.add("ALTER TABLE " + tabla + " DROP CONSTRAINT " + rs.getString(1));
+                    recrear.add("ALTER TABLE " + tabla + " ADD CONSTRAINT " + rs.getString(1) + " " + rs.getString(2));
+                }
+            }
+        }
+        try (PreparedStatement sentencia = conexion.prepareStatement(
+                "SELECT i.indexrelid::regclass::text, pg_get_indexdef(i.indexrelid) FROM pg_index i "
+                        + "WHERE i.indrelid = ?::regclass "
+                        + "AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conindid = i.indexrelid)")) {
+            sentencia.setString(1, tabla);
+            try (ResultSet rs = sentencia.executeQuery()) {
+                while (rs.next()) {
+                    eliminar.add("DROP INDEX " + rs.getString(1));
+                    // Los índices se crean antes que las llaves foráneas. En una tabla particionada la
+                    // definición dice "ON ONLY" (solo la tabla padre): se quita para que cubra las particiones
+                    recrear.add(0, rs.getString(2).replace(" ON ONLY ", " ON "));
+                }
+            }
+        }
+        try (Statement sentencia = conexion.createStatement()) {
+            for (String sql : eliminar) {
+                sentencia.execute(sql);
+            }
+        }
+        conexion.commit();
+        log.info("{} índices y llaves foráneas de {} suspendidos durante la carga", eliminar.size(), tabla);
+        return recrear;
+    }
+
+    private void restaurarIndices(Connection conexion, List<String> recrear) throws SQLException {
+        if (recrear.isEmpty()) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("SET maintenance_work_mem = '512MB'");
+            for (String sql : recrear) {
+                sentencia.execute(sql);
+            }
+        }
+        conexion.commit();
+        log.info("{} índices y llaves foráneas reconstruidos en {} ms", recrear.size(),
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Particiones mensuales (V9) para todo el rango de fechas generado; sin ellas el COPY iría a polizas_default
+     */
+    private void crearParticiones(Connection conexion) throws SQLException {
+        LocalDate fin = LocalDate.parse(fechaFin);
+        try (PreparedStatement sentencia = conexion.prepareStatement("SELECT crear_particiones_polizas(?, ?)")) {
+            sentencia.setObject(1, fin.minusDays(dias));
+            sentencia.setObject(2, fin);
+            try (ResultSet rs = sentencia.executeQuery()) {
+                rs.next();
+                log.info("{} particiones mensuales de pólizas creadas para los datos generados", rs.getInt(1));
+            }
+        }
+        conexion.commit();
+    }
+
+    private void ajustarSecuencias(Connection conexion) throws SQLException {
+        try (Statement sentencia = conexion.createStatement()) {
+            // Mismo criterio que V5 y V7: la siguiente asignación empieza después del último ID cargado
+            sentencia.execute("SELECT SETVAL('empleado_id_empleado_seq', "
+                    + "COALESCE((SELECT MAX(id_empleado) FROM empleado), 0) + 1, false)");
+            sentencia.execute("SELECT SETVAL('polizas_id_poliza_seq', "
+                    + "COALESCE((SELECT MAX(id_poliza) FROM polizas), 0) + 50, false)");
+        }
+        conexion.commit();
+
+        // ANALYZE no puede correr dentro de un bloque de transacción explícito
+        conexion.setAutoCommit(true);
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("ANALYZE inventario, empleado, polizas");
+        }
+    }
+
+    private static long contarFilas(Connection conexion, String tabla) throws SQLException {
+        try (Statement sentencia = conexion.createStatement();
+                ResultSet rs = sentencia.executeQuery("SELECT COUNT(*) FROM " + tabla)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private CargaTabla abrirCarga(Connection conexion, boolean copy, String tabla, String... columnas)
+            throws SQLException {
+        String listaColumnas = String.join(", ", columnas);
+        if (copy) {
+            PGConnection pg = conexion.unwrap(PGConnection.class);
+            return new CargaCopy(new PGCopyOutputStream(pg,
+                    "COPY " + tabla + " (" + listaColumnas + ") FROM STDIN WITH (FORMAT csv)", 1 << 16));
+        }
+        String marcadores = String.join(", ", Arrays.stream(columnas).map(c -> "?").toList());
+        return new CargaLotes(conexion, conexion.prepareStatement(
+                "INSERT INTO " + tabla + " (" + listaColumnas + ") VALUES (" + marcadores + ")"), lote);
+    }
+
+    /**
+     * Muestreo de una distribución Zipf(n, s) por búsqueda binaria sobre la función acumulada
+     */
+    static class DistribucionZipf {
+        private final double[] acumulada;
+
+        DistribucionZipf(int n, double s) {
+            acumulada = new double[n];
+            double suma = 0;
+            for (int k = 0; k < n; k++) {
+                suma += 1.0 / Math.pow(k + 1, s);
+                acumulada[k] = suma;
+            }
+            for (int k = 0; k < n; k++) {
+                acumulada[k] /= suma;
+            }
+        }
+
+        int muestra(SplittableRandom rnd) {
+            int indice = Arrays.binarySearch(acumulada, rnd.nextDouble());
+            return Math.min(acumulada.length - 1, indice >= 0 ? indice : -indice - 1);
+        }
+    }
+
+    /**
+     * Destino de filas de una tabla; los valores se agregan en el orden de las columnas
+     */
+    abstract static class CargaTabla implements AutoCloseable {
+        abstract CargaTabla valor(long valor) throws SQLException, IOException;
+
+        abstract CargaTabla valor(String valor) throws SQLException, IOException;
+
+        abstract CargaTabla valor(LocalDateTime valor) throws SQLException, IOException;
+
+        abstract void finFila() throws SQLException, IOException;
+
+        @Override
+        public abstract void close() throws SQLException, IOException;
+    }
+
+    /**
+     * Filas en CSV hacia COPY ... FROM STDIN
+     */
+    static class CargaCopy extends CargaTabla {
+        private final Writer salida;
+        private boolean primeraColumna = true;
+
+        CargaCopy(PGCopyOutputStream copy) {
+            this.salida = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), 1 << 16);
+        }
+
+        private void separador() throws IOException {
+            if (!primeraColumna) {
+                salida.write(',');
+            }
+            primeraColumna = false;
+        }
+
+        @Override
+        CargaTabla valor(long valor) throws IOException {
+            separador();
+            salida.write(Long.toString(valor));
+            return this;
+        }
+
+        @Override
+        CargaTabla valor(String valor) throws IOException {
+            separador();
+            salida.write('"');
+            salida.write(valor.replace("\"", "\"\""));
+            salida.write('"');
+            return this;
+        }
+
+        @Override
+        CargaTabla valor(LocalDateTime valor) throws IOException {
+            separador();
+            FORMATO_FECHA.formatTo(valor, salida);
+            return this;
+        }
+
+        @Override
+        void finFila() throws IOException {
+            salida.write('\n');
+            primeraColumna = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Cerrar el PGCopyOutputStream termina el COPY
+            salida.close();
+        }
+    }
+
+    /**
+     * Filas como inserts por lotes JDBC, para bases distintas de PostgreSQL
+     */
+    static class CargaLotes extends CargaTabla {
+        private final Connection conexion;
+        private final PreparedStatement sentencia;
+        private final int lote;
+        private int columna = 1;
+        private int pendientes;
+
+        CargaLotes(Connection conexion, PreparedStatement sentencia, int lote) {
+            this.conexion = conexion;
+            this.sentencia = sentencia;
+            this.lote = lote;
+        }
+
+        @Override
+        CargaTabla valor(long valor) throws SQLException {
+            sentencia.setLong(columna++, valor);
+            return this;
+        }
+
+        @Override
+        CargaTabla valor(String valor) throws SQLException {
+            sentencia.setString(columna++, valor);
+            return this;
+        }
+
+        @Override
+        CargaTabla valor(LocalDateTime valor) throws SQLException {
+            sentencia.setObject(columna++, valor);
+            return this;
+        }
+
+        @Override
+        void finFila() throws SQLException {
+            sentencia.addBatch();
+            columna = 1;
+            if (++pendientes == lote) {
+                sentencia.executeBatch();
+                conexion.commit();
+                pendientes = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try (sentencia) {
+                if (pendientes > 0) {
+                    sentencia.executeBatch();
+                }
+            }
+        }
+    }
+}
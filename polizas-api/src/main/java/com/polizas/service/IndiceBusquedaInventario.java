@@ -0,0 +1,345 @@
+package com.polizas.service;
+
+import com.polizas.model.Inventario;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de trigramas en memoria sobre Inventario.nombre, insensible a mayúsculas y acentos
+ * ("lapiz" encuentra "Lápiz #2"). Busca subcadenas, igual que el filtro LIKE '%x%' que reemplaza.
+ * Cada artículo ocupa una posición (slot) y cada trigrama guarda la lista ordenada de sus slots.
+ */
+@Component
+public class IndiceBusquedaInventario {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+    private static final int N = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> slotPorSku = new HashMap<>();
+    private final ArrayDeque<Integer> slotsLibres = new ArrayDeque<>();
+    private long[] skus = new long[1024];
+    private String[] nombres = new String[1024];
+    private int totalSlots;
+
+    private volatile boolean listo;
+
+    /**
+     * true cuando terminó la carga inicial; antes de eso las búsquedas deben ir a la base de datos
+     */
+    public boolean isListo() {
+        return listo;
+    }
+
+    public int getTamano() {
+        lock.readLock().lock();
+        try {
+            return slotPorSku.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Carga inicial por lotes ordenados por SKU. Cada lote se lee y se aplica con el candado de
+     * escritura tomado, para que un cambio incremental concurrente nunca quede pisado por una lectura vieja.
+     */
+    public void construir(LongFunction<List<Inventario>> loteDespuesDeSku) {
+        long ultimoSku = Long.MIN_VALUE;
+        while (true) {
+            lock.writeLock().lock();
+            try {
+                List<Inventario> lote = loteDespuesDeSku.apply(ultimoSku);
+                if (lote.isEmpty()) {
+                    listo = true;
+                    return;
+                }
+                for (Inventario articulo : lote) {
+                    guardarSinCandado(articulo.getSku(), articulo.getNombre());
+                }
+                ultimoSku = lote.get(lote.size() - 1).getSku();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Alta o cambio de nombre de un artículo
+     */
+    public void guardar(Long sku, String nombre) {
+        lock.writeLock().lock();
+        try {
+            guardarSinCandado(sku, nombre);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void eliminar(Long sku) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotPorSku.remove(sku);
+            if (slot != null) {
+                quitarTrigramas(slot, nombres[slot]);
+                nombres[slot] = null;
+                slotsLibres.push(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * SKUs cuyo nombre contiene el texto, ordenados por relevancia: nombre exacto, prefijo del nombre,
+     * inicio de palabra y después cualquier posición; a igualdad, nombres más cortos primero
+     */
+    public List<Long> buscar(String texto, int limite) {
+        String consulta = normalizar(texto);
+        lock.readLock().lock();
+        try {
+            int[] slots = coincidencias(consulta);
+            // Se conservan solo las "limite" mejores claves (relevancia, longitud, slot) sin ordenar todo
+            long[] mejores = new long[Math.min(limite, slots.length)];
+            int total = 0;
+            for (int slot : slots) {
+                long clave = ((long) relevancia(nombres[slot], consulta) << 56)
+                        | ((long) Math.min(nombres[slot].length(), 0xFFFF) << 32)
+                        | slot;
+                if (total < mejores.length) {
+                    total = insertarOrdenado(mejores, total, clave);
+                } else if (total > 0 && clave < mejores[total - 1]) {
+                    insertarOrdenado(mejores, total - 1, clave);
+                }
+            }
+            List<Long> resultado = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                resultado.add(skus[(int) mejores[i]]);
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Todos los SKUs cuyo nombre contiene el texto, en orden ascendente
+     */
+    public long[] skusQueContienen(String texto) {
+        String consulta = normalizar(texto);
+        lock.readLock().lock();
+        try {
+            int[] slots = coincidencias(consulta);
+            long[] resultado = new long[slots.length];
+            for (int i = 0; i < resultado.length; i++) {
+                resultado[i] = skus[slots[i]];
+            }
+            Arrays.sort(resultado);
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Minúsculas, sin acentos ni diéresis y con los espacios colapsados
+     */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinMarcas.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private void guardarSinCandado(Long sku, String nombre) {
+        String normalizado = normalizar(nombre);
+        Integer slot = slotPorSku.get(sku);
+        if (slot != null) {
+            if (normalizado.equals(nombres[slot])) {
+                return;
+            }
+            quitarTrigramas(slot, nombres[slot]);
+        } else {
+            slot = slotsLibres.isEmpty() ? nuevoSlot() : slotsLibres.pop();
+            slotPorSku.put(sku, slot);
+        }
+        skus[slot] = sku;
+        nombres[slot] = normalizado;
+        for (String trigrama : trigramas(normalizado)) {
+            postings.computeIfAbsent(trigrama, t -> new Postings()).agregar(slot);
+        }
+    }
+
+    private int nuevoSlot() {
+        if (totalSlots == skus.length) {
+            skus = Arrays.copyOf(skus, totalSlots * 2);
+            nombres = Arrays.copyOf(nombres, totalSlots * 2);
+        }
+        return totalSlots++;
+    }
+
+    private void quitarTrigramas(int slot, String nombre) {
+        for (String trigrama : trigramas(nombre)) {
+            Postings lista = postings.get(trigrama);
+            if (lista != null && lista.quitar(slot) && lista.tamano == 0) {
+                postings.remove(trigrama);
+            }
+        }
+    }
+
+    /**
+     * Slots cuyo nombre contiene la consulta, en orden ascendente de slot
+     */
+    private int[] coincidencias(String consulta) {
+        if (consulta.isEmpty()) {
+            return new int[0];
+        }
+        int[] resultado = new int[16];
+        int total = 0;
+        if (consulta.length() < N) {
+            // Sin trigramas que consultar: recorrido lineal, sigue siendo solo memoria
+            for (int slot = 0; slot < totalSlots; slot++) {
+                if (nombres[slot] != null && nombres[slot].contains(consulta)) {
+                    resultado = agregar(resultado, total++, slot);
+                }
+            }
+            return Arrays.copyOf(resultado, total);
+        }
+
+        List<Postings> listas = new ArrayList<>();
+        for (String trigrama : trigramas(consulta)) {
+            Postings lista = postings.get(trigrama);
+            if (lista == null) {
+                return new int[0];
+            }
+            listas.add(lista);
+        }
+        // Intersección empezando por la lista más corta; las demás se recorren con búsqueda exponencial
+        // desde la última posición, porque los candidatos llegan en orden ascendente
+        listas.sort(Comparator.comparingInt(lista -> lista.tamano));
+        Postings menor = listas.get(0);
+        int[] posiciones = new int[listas.size()];
+        candidatos:
+        for (int i = 0; i < menor.tamano; i++) {
+            int slot = menor.slots[i];
+            for (int j = 1; j < listas.size(); j++) {
+                Postings lista = listas.get(j);
+                posiciones[j] = lista.avanzarHasta(posiciones[j], slot);
+                if (posiciones[j] == lista.tamano) {
+                    break candidatos;
+                }
+                if (lista.slots[posiciones[j]] != slot) {
+                    continue candidatos;
+                }
+            }
+            // Los trigramas no garantizan la subcadena completa: se verifica sobre el nombre
+            if (nombres[slot].contains(consulta)) {
+                resultado = agregar(resultado, total++, slot);
+            }
+        }
+        return Arrays.copyOf(resultado, total);
+    }
+
+    private static int[] agregar(int[] arreglo, int posicion, int valor) {
+        int[] destino = posicion == arreglo.length ? Arrays.copyOf(arreglo, posicion * 2) : arreglo;
+        destino[posicion] = valor;
+        return destino;
+    }
+
+    // Inserta en un arreglo ordenado de "total" elementos y devuelve el nuevo total
+    private static int insertarOrdenado(long[] arreglo, int total, long clave) {
+        int posicion = Arrays.binarySearch(arreglo, 0, total, clave);
+        posicion = posicion >= 0 ? posicion : -posicion - 1;
+        System.arraycopy(arreglo, posicion, arreglo, posicion + 1, total - posicion);
+        arreglo[posicion] = clave;
+        return total + 1;
+    }
+
+    private static int relevancia(String nombre, String consulta) {
+        if (nombre.equals(consulta)) {
+            return 0;
+        }
+        if (nombre.startsWith(consulta)) {
+            return 1;
+        }
+        for (int i = nombre.indexOf(consulta); i > 0; i = nombre.indexOf(consulta, i + 1)) {
+            if (nombre.charAt(i - 1) == ' ') {
+                return 2;
+            }
+        }
+        return 3;
+    }
+
+    private static Set<String> trigramas(String texto) {
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + N <= texto.length(); i++) {
+            resultado.add(texto.substring(i, i + N));
+        }
+        return resultado;
+    }
+
+    /**
+     * Lista ordenada de slots de un trigrama (arreglo de enteros, sin objetos por entrada)
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int tamano;
+
+        void agregar(int slot) {
+            int posicion = Arrays.binarySearch(slots, 0, tamano, slot);
+            if (posicion >= 0) {
+                return;
+            }
+            posicion = -posicion - 1;
+            if (tamano == slots.length) {
+                slots = Arrays.copyOf(slots, tamano * 2);
+            }
+            System.arraycopy(slots, posicion, slots, posicion + 1, tamano - posicion);
+            slots[posicion] = slot;
+            tamano++;
+        }
+
+        boolean quitar(int slot) {
+            int posicion = Arrays.binarySearch(slots, 0, tamano, slot);
+            if (posicion < 0) {
+                return false;
+            }
+            System.arraycopy(slots, posicion + 1, slots, posicion, tamano - posicion - 1);
+            tamano--;
+            return true;
+        }
+
+        /**
+         * Primera posición desde "desde" cuyo slot es >= al buscado (tamano si no hay)
+         */
+        int avanzarHasta(int desde, int slot) {
+            int paso = 1;
+            int hasta = desde;
+            while (hasta < tamano && slots[hasta] < slot) {
+                desde = hasta + 1;
+                hasta += paso;
+                paso <<= 1;
+            }
+            int posicion = Arrays.binarySearch(slots, desde, Math.min(hasta + 1, tamano), slot);
+            return posicion >= 0 ? posicion : -posicion - 1;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.polizas.service;
+
+import com.polizas.model.Inventario;
+import com.polizas.repository.InventarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda de artículos por nombre con el índice en memoria ({@link IndiceBusquedaInventario}).
+ * Mientras el índice se construye al arranque, las búsquedas caen a la consulta LIKE de la base de datos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventarioBusquedaService {
+
+    private static final int TAMANO_LOTE_CARGA = 5_000;
+    // Con más coincidencias que esto, un orden distinto de sku se deja a la consulta LIKE (límite de parámetros del IN)
+    private static final int MAX_SKUS_EN_CONSULTA = 5_000;
+
+    private final InventarioRepository inventarioRepository;
+    private final IndiceBusquedaInventario indice;
+    private final VersionTablasService versionTablasService;
+
+    @Value("${app.busqueda.inventario.enabled:true}")
+    private boolean habilitado;
+
+    /**
+     * Construye el índice en segundo plano al terminar el arranque
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirIndice() {
+        if (!habilitado) {
+            log.info("Índice de búsqueda de inventario deshabilitado: las búsquedas usan la base de datos");
+            return;
+        }
+        Thread.ofPlatform().daemon().name("indice-inventario").start(() -> {
+            long inicio = System.nanoTime();
+            try {
+                indice.construir(ultimoSku -> inventarioRepository
+                        .findBySkuGreaterThan(ultimoSku, PageRequest.of(0, TAMANO_LOTE_CARGA, Sort.by("sku")))
+                        .getContent());
+                // La búsqueda deja la consulta LIKE por el índice y su resultado cambia: las etiquetas previas caducan
+                versionTablasService.incrementar(VersionTablasService.Tabla.INVENTARIO);
+                log.info("Índice de búsqueda de inventario listo: {} artículos en {} ms",
+                        indice.getTamano(), (System.nanoTime() - inicio) / 1_000_000);
+            } catch (Exception e) {
+                log.error("No se pudo construir el índice de búsqueda de inventario; se seguirá usando la base de datos", e);
+            }
+        });
+    }
+
+    /**
+     * Actualiza el índice después de crear o modificar un artículo
+     */
+    public void indexar(Inventario articulo) {
+        indice.guardar(articulo.getSku(), articulo.getNombre());
+    }
+
+    /**
+     * Quita un artículo eliminado del índice
+     */
+    public void desindexar(Long sku) {
+        indice.eliminar(sku);
+    }
+
+    /**
+     * Artículos cuyo nombre contiene el texto, del más al menos relevante
+     */
+    public List<Inventario> buscar(String texto, int limite) {
+        if (!indice.isListo()) {
+            log.debug("Índice de inventario en construcción, búsqueda en base de datos: {}", texto);
+            return inventarioRepository.findByNombreContainingIgnoreCase(texto,
+                    PageRequest.of(0, limite, Sort.by("nombre"))).getContent();
+        }
+        return cargarEnOrden(indice.buscar(texto, limite));
+    }
+
+    /**
+     * Filtro por nombre con paginación por OFFSET. Ordenando por sku la página se recorta en memoria;
+     * con otro orden se delega a la base de datos sobre los SKUs encontrados.
+     */
+    public Page<Inventario> buscarPorNombre(String nombre, Pageable pageable) {
+        if (!indice.isListo()) {
+            return inventarioRepository.findByNombreContainingIgnoreCase(nombre, pageable);
+        }
+        long[] skus = indice.skusQueContienen(nombre);
+        Sort.Order ordenSku = pageable.getSort().getOrderFor("sku");
+
+        if (pageable.getSort().isUnsorted() || (ordenSku != null && pageable.getSort().toList().size() == 1)) {
+            boolean descendente = ordenSku != null && ordenSku.isDescending();
+            int desde = (int) Math.min(pageable.getOffset(), skus.length);
+            int hasta = Math.min(desde + pageable.getPageSize(), skus.length);
+            List<Long> pagina = new ArrayList<>(hasta - desde);
+            for (int i = desde; i < hasta; i++) {
+                pagina.add(descendente ? skus[skus.length - 1 - i] : skus[i]);
+            }
+            return new PageImpl<>(cargarEnOrden(pagina), pageable, skus.length);
+        }
+        if (skus.length <= MAX_SKUS_EN_CONSULTA) {
+            return inventarioRepository.findBySkuIn(Arrays.stream(skus).boxed().toList(), pageable);
+        }
+        return inventarioRepository.findByNombreContainingIgnoreCase(nombre, pageable);
+    }
+
+    /**
+     * Filtro por nombre con paginación por cursor sobre sku: los SKUs siguientes al cursor salen del índice
+     */
+    public Slice<Inventario> buscarPorNombreDesde(String nombre, Long ultimoSku, boolean descendente,
+            Pageable pageable) {
+        if (!indice.isListo()) {
+            return descendente
+                    ? inventarioRepository.findByNombreContainingIgnoreCaseAndSkuLessThan(nombre, ultimoSku, pageable)
+                    : inventarioRepository.findByNombreContainingIgnoreCaseAndSkuGreaterThan(nombre, ultimoSku,
+                            pageable);
+        }
+        long[] skus = indice.skusQueContienen(nombre);
+        int posicion = Arrays.binarySearch(skus, ultimoSku);
+        List<Long> pagina = new ArrayList<>(pageable.getPageSize());
+        boolean hayMas;
+        if (descendente) {
+            int i = posicion >= 0 ? posicion - 1 : -posicion - 2;
+            for (; i >= 0 && pagina.size() < pageable.getPageSize(); i--) {
+                pagina.add(skus[i]);
+            }
+            hayMas = i >= 0;
+        } else {
+            int i = posicion >= 0 ? posicion + 1 : -posicion - 1;
+            for (; i < skus.length && pagina.size() < pageable.getPageSize(); i++) {
+                pagina.add(skus[i]);
+            }
+            hayMas = i < skus.length;
+        }
+        return new SliceImpl<>(cargarEnOrden(pagina), pageable, hayMas);
+    }
+
+    // Carga los artículos por llave primaria conservando el orden de los SKUs recibidos
+    private List<Inventario> cargarEnOrden(List<Long> skus) {
+        if (skus.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Inventario> porSku = inventarioRepository.findAllById(skus).stream()
+                .collect(Collectors.toMap(Inventario::getSku, Function.identity()));
+        List<Inventario> resultado = new ArrayList<>(skus.size());
+        for (Long sku : skus) {
+            Inventario articulo = porSku.get(sku);
+            // Puede faltar si se eliminó entre la búsqueda en el índice y la lectura
+            if (articulo != null) {
+                resultado.add(articulo);
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,291 @@
+package com.polizas.service;
+
+import com.polizas.dto.EventoCambioDto;
+import com.polizas.dto.InventarioImportacionDto;
+import com.polizas.model.Inventario;
+import com.polizas.service.VersionTablasService.Tabla;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Carga y descarga masiva de inventario con el protocolo COPY de PostgreSQL (CSV sku,nombre,cantidad).
+ * La importación valida el archivo fila por fila conforme llega, copia las filas válidas a una tabla
+ * temporal y las aplica a inventario con un solo INSERT ... ON CONFLICT, todo en una transacción.
+ * Ni la importación ni la exportación tienen el archivo completo en memoria.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventarioImportacionService {
+
+    private static final int LARGO_MAXIMO_NOMBRE = 255;
+    private static final int LARGO_MAXIMO_REGISTRO = 4096;
+    // Los valores rechazados se citan en el error recortados a este largo
+    private static final int LARGO_MAXIMO_CITA = 40;
+
+    private static final String CREAR_TABLA_TEMPORAL = "CREATE TEMP TABLE inventario_importacion ("
+            + "linea BIGINT NOT NULL, sku BIGINT NOT NULL, nombre VARCHAR(255) NOT NULL, cantidad INTEGER NOT NULL"
+            + ") ON COMMIT DROP";
+
+    private static final String COPIAR_TABLA_TEMPORAL = "COPY inventario_importacion (linea, sku, nombre, cantidad) "
+            + "FROM STDIN WITH (FORMAT csv)";
+
+    // Si un SKU se repite gana su última línea. La consulta externa ve inventario como estaba antes del upsert
+    // (misma instantánea), así que el LEFT JOIN da el nombre anterior y solo se reindexan los nuevos o renombrados
+    private static final String APLICAR = "WITH fuente AS (SELECT DISTINCT ON (sku) sku, nombre, cantidad "
+            + "FROM inventario_importacion ORDER BY sku, linea DESC), "
+            + "aplicadas AS (INSERT INTO inventario (sku, nombre, cantidad) SELECT sku, nombre, cantidad FROM fuente "
+            + "ON CONFLICT (sku) DO UPDATE SET nombre = EXCLUDED.nombre, cantidad = EXCLUDED.cantidad "
+            + "RETURNING sku, nombre, (xmax = 0) AS insertada) "
+            + "SELECT a.sku, a.nombre, a.insertada, a.nombre IS DISTINCT FROM i.nombre AS renombrada "
+            + "FROM aplicadas a LEFT JOIN inventario i ON i.sku = a.sku";
+
+    private static final String SKUS_IMPORTADOS = "SELECT DISTINCT sku FROM inventario_importacion WHERE sku = ANY(?)";
+
+    // Existencia real: a los SKU con reservas en memoria se les restan sus descuentos pendientes (V10)
+    private static final String EXPORTAR = "COPY (SELECT i.sku, i.nombre, i.cantidad - COALESCE(r.pendiente, 0) "
+            + "AS cantidad FROM inventario i LEFT JOIN (SELECT sku, SUM(cantidad) AS pendiente "
+            + "FROM reservas_pendientes GROUP BY sku) r ON r.sku = i.sku ORDER BY i.sku) "
+            + "TO STDOUT WITH (FORMAT csv, HEADER)";
+
+    private final DataSource dataSource;
+    private final InventarioBusquedaService inventarioBusquedaService;
+    private final ReservaInventarioService reservaInventarioService;
+    private final VersionTablasService versionTablasService;
+    private final EventosService eventosService;
+
+    @Value("${app.inventario.importacion.max-errores:100}")
+    private int maximoErrores;
+
+    /**
+     * Importa un CSV sku,nombre,cantidad (encabezado opcional): los artículos nuevos se crean y los existentes
+     * toman el nombre y la cantidad del archivo. Las filas inválidas se informan y no detienen la carga.
+     */
+    @Transactional
+    public InventarioImportacionDto importar(InputStream entrada) throws IOException, SQLException {
+        // La conexión de la transacción: la tabla temporal, el COPY y el upsert se confirman juntos
+        Connection conexion = DataSourceUtils.getConnection(dataSource);
+        try {
+            try (Statement sentencia = conexion.createStatement()) {
+                sentencia.execute(CREAR_TABLA_TEMPORAL);
+            }
+
+            long filas = 0;
+            long validas = 0;
+            long rechazadas = 0;
+            List<InventarioImportacionDto.ErrorFilaDto> errores = new ArrayList<>();
+            LectorCsv lector = new LectorCsv(new InputStreamReader(entrada, StandardCharsets.UTF_8),
+                    LARGO_MAXIMO_REGISTRO);
+            PGConnection pg = conexion.unwrap(PGConnection.class);
+
+            try (Writer copy = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(pg, COPIAR_TABLA_TEMPORAL, 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+                LectorCsv.Registro registro;
+                boolean primero = true;
+                while ((registro = lector.siguiente()) != null) {
+                    if (primero && esEncabezado(registro)) {
+                        primero = false;
+                        continue;
+                    }
+                    primero = false;
+                    filas++;
+                    String error = copiar(registro, copy);
+                    if (error == null) {
+                        validas++;
+                    } else {
+                        rechazadas++;
+                        if (errores.size() < maximoErrores) {
+                            errores.add(InventarioImportacionDto.ErrorFilaDto.builder()
+                                    .linea(registro.linea())
+                                    .mensaje(error)
+                                    .build());
+                        }
+                    }
+                }
+            }
+
+            long insertadas = 0;
+            long actualizadas = 0;
+            List<Inventario> renombrados = new ArrayList<>();
+            if (validas > 0) {
+                // La cantidad del archivo reemplaza la existencia real: primero se aplican las pendientes. El upsert
+                // solo toma FOR NO KEY UPDATE, que no detiene a las pólizas; sin bloquear antes los SKU con reservas
+                // en memoria, una que confirme en medio deja una pendiente que se descontaría de la cantidad nueva
+                reservaInventarioService.bloquear(importados(conexion, reservaInventarioService.gestionados()));
+                reservaInventarioService.aplicarPendientes();
+                // Sin estadísticas la tabla temporal se estima en unas cuantas filas y el plan resulta cuadrático
+                try (Statement sentencia = conexion.createStatement()) {
+                    sentencia.execute("ANALYZE inventario_importacion");
+                }
+                try (PreparedStatement sentencia = conexion.prepareStatement(APLICAR)) {
+                    sentencia.setFetchSize(1000);
+                    try (ResultSet rs = sentencia.executeQuery()) {
+                        while (rs.next()) {
+                            if (rs.getBoolean("insertada")) {
+                                insertadas++;
+                            } else {
+                                actualizadas++;
+                            }
+                            if (rs.getBoolean("renombrada")) {
+                                renombrados.add(Inventario.builder()
+                                        .sku(rs.getLong("sku"))
+                                        .nombre(rs.getString("nombre"))
+                                        .build());
+                            }
+                        }
+                    }
+                }
+                indexarDespuesDelCommit(renombrados);
+                versionTablasService.incrementar(Tabla.INVENTARIO);
+                eventosService.publicar(EventoCambioDto.builder()
+                        .tipo(EventoCambioDto.Tipo.INVENTARIO)
+                        .operacion(EventoCambioDto.Operacion.IMPORTAR)
+                        .build());
+            }
+
+            log.info("Importación de inventario: {} filas, {} insertadas, {} actualizadas, {} rechazadas",
+                    filas, insertadas, actualizadas, rechazadas);
+            return InventarioImportacionDto.builder()
+                    .filas(filas)
+                    .insertadas(insertadas)
+                    .actualizadas(actualizadas)
+                    .duplicadas(validas - insertadas - actualizadas)
+                    .rechazadas(rechazadas)
+                    .errores(errores)
+                    .build();
+        } finally {
+            DataSourceUtils.releaseConnection(conexion, dataSource);
+        }
+    }
+
+    // Los SKU indicados que vienen en el archivo
+    private static List<Long> importados(Connection conexion, Set<Long> skus) throws SQLException {
+        List<Long> importados = new ArrayList<>();
+        if (skus.isEmpty()) {
+            return importados;
+        }
+        try (PreparedStatement sentencia = conexion.prepareStatement(SKUS_IMPORTADOS)) {
+            sentencia.setArray(1, conexion.createArrayOf("bigint", skus.toArray()));
+            try (ResultSet rs = sentencia.executeQuery()) {
+                while (rs.next()) {
+                    importados.add(rs.getLong(1));
+                }
+            }
+        }
+        return importados;
+    }
+
+    // Si la importación se revierte, el índice no debe tener nombres que nunca llegaron a la base de datos
+    private void indexarDespuesDelCommit(List<Inventario> renombrados) {
+        if (renombrados.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    renombrados.forEach(inventarioBusquedaService::indexar);
+                }
+            });
+        } else {
+            renombrados.forEach(inventarioBusquedaService::indexar);
+        }
+    }
+
+    /**
+     * Escribe el inventario completo como CSV con encabezado, directo del COPY al flujo de salida
+     */
+    public long exportar(OutputStream salida) throws IOException, SQLException {
+        try (Connection conexion = dataSource.getConnection()) {
+            return conexion.unwrap(PGConnection.class).getCopyAPI().copyOut(EXPORTAR, salida);
+        }
+    }
+
+    private static boolean esEncabezado(LectorCsv.Registro registro) {
+        return registro.error() == null && !registro.campos().isEmpty()
+                && registro.campos().get(0).trim().equalsIgnoreCase("sku");
+    }
+
+    // Valida el registro y, si es correcto, lo escribe al COPY; devuelve el motivo del rechazo o null
+    private static String copiar(LectorCsv.Registro registro, Writer copy) throws IOException {
+        if (registro.error() != null) {
+            return registro.error();
+        }
+        List<String> campos = registro.campos();
+        if (campos.size() != 3) {
+            return "Se esperaban 3 columnas (sku,nombre,cantidad) y hay " + campos.size();
+        }
+
+        long sku;
+        try {
+            sku = Long.parseLong(campos.get(0).trim());
+        } catch (NumberFormatException e) {
+            sku = 0;
+        }
+        if (sku <= 0) {
+            return "SKU inválido: " + citar(campos.get(0));
+        }
+
+        String nombre = campos.get(1).trim();
+        if (nombre.isEmpty()) {
+            return "El nombre es obligatorio";
+        }
+        if (nombre.length() > LARGO_MAXIMO_NOMBRE) {
+            return "El nombre excede " + LARGO_MAXIMO_NOMBRE + " caracteres";
+        }
+        // PostgreSQL no admite el carácter nulo en texto: rechazaría el COPY completo
+        if (nombre.indexOf('\0') >= 0) {
+            return "El nombre contiene caracteres no válidos";
+        }
+
+        int cantidad;
+        try {
+            cantidad = Integer.parseInt(campos.get(2).trim());
+        } catch (NumberFormatException e) {
+            cantidad = -1;
+        }
+        if (cantidad < 0) {
+            return "Cantidad inválida: " + citar(campos.get(2));
+        }
+
+        copy.write(Long.toString(registro.linea()));
+        copy.write(',');
+        copy.write(Long.toString(sku));
+        copy.write(",\"");
+        copy.write(nombre.replace("\"", "\"\""));
+        copy.write("\",");
+        copy.write(Integer.toString(cantidad));
+        copy.write('\n');
+        return null;
+    }
+
+    private static String citar(String valor) {
+        return valor.length() <= LARGO_MAXIMO_CITA ? valor : valor.substring(0, LARGO_MAXIMO_CITA) + "...";
+    }
+}
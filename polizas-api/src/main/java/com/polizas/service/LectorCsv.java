@@ -0,0 +1,126 @@
+package com.polizas.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector de CSV (RFC 4180) registro por registro, sin cargar el archivo: campos separados por coma, entre
+ * comillas dobles si contienen comas, comillas ("") o saltos de línea, y líneas terminadas en LF o CRLF.
+ * Un registro más largo que el máximo o con comillas sin cerrar se devuelve con su error y la lectura
+ * sigue en la línea siguiente, de modo que una fila dañada no arrastra al resto del archivo.
+ */
+final class LectorCsv {
+
+    private static final int FIN = -1;
+    private static final int NINGUNO = -2;
+
+    private final Reader entrada;
+    private final int largoMaximo;
+    private long linea = 1;
+    private int devuelto = NINGUNO;
+
+    /**
+     * Registro leído: línea donde empieza, campos, y el motivo si está mal formado (entonces sin campos)
+     */
+    record Registro(long linea, List<String> campos, String error) {
+    }
+
+    LectorCsv(Reader entrada, int largoMaximo) {
+        this.entrada = entrada;
+        this.largoMaximo = largoMaximo;
+    }
+
+    /**
+     * Siguiente registro, saltando líneas vacías; null al terminar el archivo
+     */
+    Registro siguiente() throws IOException {
+        int c = leer();
+        while (c == '\n' || c == '\r') {
+            finDeLinea(c);
+            c = leer();
+        }
+        if (c == FIN) {
+            return null;
+        }
+
+        long inicio = linea;
+        List<String> campos = new ArrayList<>(4);
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        int largo = 0;
+
+        while (true) {
+            if (c == FIN) {
+                if (entreComillas) {
+                    return new Registro(inicio, List.of(), "Comillas sin cerrar");
+                }
+                campos.add(campo.toString());
+                return new Registro(inicio, campos, null);
+            }
+            if (++largo > largoMaximo) {
+                descartarLinea(c);
+                return new Registro(inicio, List.of(), "Registro de más de " + largoMaximo + " caracteres");
+            }
+            if (entreComillas) {
+                if (c == '"') {
+                    int siguiente = leer();
+                    if (siguiente == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        c = siguiente;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        linea++;
+                    }
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.isEmpty()) {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                finDeLinea(c);
+                campos.add(campo.toString());
+                return new Registro(inicio, campos, null);
+            } else {
+                campo.append((char) c);
+            }
+            c = leer();
+        }
+    }
+
+    private int leer() throws IOException {
+        if (devuelto != NINGUNO) {
+            int c = devuelto;
+            devuelto = NINGUNO;
+            return c;
+        }
+        return entrada.read();
+    }
+
+    // CRLF cuenta como un solo fin de línea
+    private void finDeLinea(int c) throws IOException {
+        if (c == '\r') {
+            int siguiente = leer();
+            if (siguiente != '\n') {
+                devuelto = siguiente;
+            }
+        }
+        linea++;
+    }
+
+    private void descartarLinea(int c) throws IOException {
+        while (c != FIN && c != '\n' && c != '\r') {
+            c = leer();
+        }
+        if (c != FIN) {
+            finDeLinea(c);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.polizas.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Lecturas concurrentes de una misma clave que comparten una sola carga: la primera petición consulta y las que
+ * llegan mientras tanto esperan su resultado (o su excepción). Con reutilizarNanos &gt; 0 el resultado se sigue
+ * entregando ese tiempo después de terminar la carga.
+ * <p>
+ * Las cargas en curso viven en un ConcurrentHashMap: solo se bloquea la cubeta de la clave al registrar o
+ * retirar una carga, nunca mientras se consulta, así que claves distintas no compiten entre sí.
+ */
+final class LecturaCoalescida<K, V> {
+
+    enum Resultado {
+        CARGADA, COMPARTIDA, REUTILIZADA
+    }
+
+    private final ConcurrentHashMap<K, Carga<V>> cargas = new ConcurrentHashMap<>();
+    private final long reutilizarNanos;
+
+    LecturaCoalescida(long reutilizarNanos) {
+        this.reutilizarNanos = reutilizarNanos;
+    }
+
+    /**
+     * Resultado de la carga en curso (o reutilizable) de la clave, o de una nueva si no hay; registrar
+     * recibe cómo se obtuvo, para las métricas.
+     */
+    V obtener(K clave, Supplier<V> cargar, Consumer<Resultado> registrar) {
+        while (true) {
+            Carga<V> existente = cargas.get(clave);
+            if (existente != null) {
+                if (existente.vigente(reutilizarNanos)) {
+                    registrar.accept(existente.futuro.isDone() ? Resultado.REUTILIZADA : Resultado.COMPARTIDA);
+                    return existente.esperar();
+                }
+                cargas.remove(clave, existente);
+                continue;
+            }
+
+            Carga<V> propia = new Carga<>();
+            if (cargas.putIfAbsent(clave, propia) != null) {
+                continue;
+            }
+            registrar.accept(Resultado.CARGADA);
+            return cargar(clave, propia, cargar);
+        }
+    }
+
+    /**
+     * Las lecturas que empiecen después ya no se unen a las cargas de esas claves ni reutilizan su resultado.
+     * Recorre solo las cargas en curso o reutilizables, no todas las claves leídas.
+     */
+    void invalidar(Predicate<K> claves) {
+        cargas.keySet().removeIf(claves);
+    }
+
+    void invalidarTodo() {
+        cargas.clear();
+    }
+
+    private V cargar(K clave, Carga<V> propia, Supplier<V> cargar) {
+        V valor;
+        try {
+            valor = cargar.get();
+        } catch (RuntimeException | Error e) {
+            cargas.remove(clave, propia);
+            propia.futuro.completeExceptionally(e);
+            throw e;
+        }
+        if (reutilizarNanos > 0) {
+            propia.terminada = System.nanoTime();
+            // Si se invalidó durante la carga ya no está en el mapa y remove no hace nada
+            CompletableFuture.delayedExecutor(reutilizarNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> cargas.remove(clave, propia));
+        } else {
+            cargas.remove(clave, propia);
+        }
+        propia.futuro.complete(valor);
+        return valor;
+    }
+
+    private static final class Carga<T> {
+        private final CompletableFuture<T> futuro = new CompletableFuture<>();
+        private volatile long terminada;
+
+        boolean vigente(long reutilizarNanos) {
+            return !futuro.isDone() || System.nanoTime() - terminada < reutilizarNanos;
+        }
+
+        T esperar() {
+            try {
+                return futuro.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException causa) {
+                    throw causa;
+                }
+                if (e.getCause() instanceof Error causa) {
+                    throw causa;
+                }
+                throw e;
+            }
+        }
+    }
+}
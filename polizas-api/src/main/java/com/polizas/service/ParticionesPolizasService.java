@@ -0,0 +1,43 @@
+package com.polizas.service;
+
+import com.polizas.repository.PolizaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Mantiene creadas las particiones mensuales de polizas (V9) para los meses siguientes, de modo que
+ * las pólizas nuevas no caigan en la partición por defecto. Se ejecuta al arrancar y una vez al día.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ParticionesPolizasService {
+
+    private final PolizaRepository polizaRepository;
+
+    @Value("${app.polizas.particiones.meses-adelante:3}")
+    private int mesesAdelante;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.polizas.particiones.cron:0 0 3 * * *}")
+    public void crearParticionesFuturas() {
+        LocalDate hoy = LocalDate.now();
+        try {
+            int creadas = polizaRepository.crearParticiones(hoy, hoy.plusMonths(mesesAdelante));
+            if (creadas > 0) {
+                log.info("{} particiones mensuales de pólizas creadas hasta {}", creadas,
+                        hoy.plusMonths(mesesAdelante).withDayOfMonth(1));
+            }
+        } catch (Exception e) {
+            // Sin la partición del mes las pólizas van a polizas_default; se reintenta en la siguiente ejecución
+            log.error("No se pudieron crear las particiones de pólizas", e);
+        }
+    }
+}
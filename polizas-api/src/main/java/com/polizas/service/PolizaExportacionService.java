@@ -0,0 +1,118 @@
+package com.polizas.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.polizas.dto.PolizaResponseDto;
+import com.polizas.repository.PolizaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PolizaExportacionService {
+
+        public enum Formato {
+                NDJSON, CSV
+        }
+
+        private static final String CSV_ENCABEZADO = "id_poliza,cantidad,fecha,empleado_nombre,empleado_apellido,sku,articulo_nombre";
+
+        private final PolizaRepository polizaRepository;
+        private final ObjectMapper objectMapper;
+
+        /**
+         * Escribir las pólizas del rango [desde, hasta) (sin límites si son null) en el flujo de salida fila por fila.
+         * La consulta usa un cursor del lado del servidor, por lo que el heap no crece con el tamaño de la tabla.
+         */
+        @Transactional(readOnly = true)
+        public long exportarPolizas(Formato formato, LocalDateTime desde, LocalDateTime hasta, OutputStream salida)
+                        throws IOException {
+                log.info("Exportando pólizas en formato {} (desde: {}, hasta: {})", formato, desde, hasta);
+
+                long filas;
+                try (Stream<PolizaResponseDto> polizas = polizaRepository.streamDetalle(desde, hasta)) {
+                        filas = formato == Formato.CSV
+                                        ? escribirCsv(polizas.iterator(), salida)
+                                        : escribirNdjson(polizas.iterator(), salida);
+                }
+
+                log.info("Exportación terminada: {} pólizas", filas);
+                return filas;
+        }
+
+        private long escribirNdjson(Iterator<PolizaResponseDto> polizas, OutputStream salida) throws IOException {
+                long filas = 0;
+                // El contenedor es dueño del flujo de salida: el generador no debe cerrarlo
+                JsonGenerator generator = objectMapper.createGenerator(salida)
+                                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                try (SequenceWriter writer = objectMapper.writer()
+                                .withRootValueSeparator("\n")
+                                .writeValues(generator)) {
+                        while (polizas.hasNext()) {
+                                writer.write(polizas.next());
+                                filas++;
+                        }
+                        if (filas > 0) {
+                                generator.writeRaw('\n');
+                                // El SequenceWriter no cierra un generador recibido: sin flush el salto final se pierde
+                                generator.flush();
+                        }
+                }
+                return filas;
+        }
+
+        private long escribirCsv(Iterator<PolizaResponseDto> polizas, OutputStream salida) throws IOException {
+                long filas = 0;
+                Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+                writer.write(CSV_ENCABEZADO);
+                writer.write('\n');
+                while (polizas.hasNext()) {
+                        PolizaResponseDto poliza = polizas.next();
+                        writer.write(String.valueOf(poliza.getPoliza().getIdPoliza()));
+                        writer.write(',');
+                        writer.write(String.valueOf(poliza.getPoliza().getCantidad()));
+                        writer.write(',');
+                        writer.write(String.valueOf(poliza.getPoliza().getFecha()));
+                        writer.write(',');
+                        writer.write(csv(poliza.getEmpleado().getNombre()));
+                        writer.write(',');
+                        writer.write(csv(poliza.getEmpleado().getApellido()));
+                        writer.write(',');
+                        writer.write(String.valueOf(poliza.getDetalleArticulo().getSku()));
+                        writer.write(',');
+                        writer.write(csv(poliza.getDetalleArticulo().getNombre()));
+                        writer.write('\n');
+                        filas++;
+                }
+                writer.flush();
+                return filas;
+        }
+
+        /**
+         * Escapar un campo de texto según RFC 4180
+         */
+        private static String csv(String valor) {
+                if (valor == null) {
+                        return "";
+                }
+                if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0
+                                && valor.indexOf('\r') < 0) {
+                        return valor;
+                }
+                return '"' + valor.replace("\"", "\"\"") + '"';
+        }
+}
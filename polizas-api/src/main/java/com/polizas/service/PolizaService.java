@@ -1,6 +1,10 @@
 package com.polizas.service;
 
+import com.polizas.dto.EventoCambioDto;
+import com.polizas.dto.EventoCambioDto.Operacion;
+import com.polizas.dto.KeysetCursor;
 import com.polizas.dto.MensajeResponseDto;
+import com.polizas.dto.PolizaLoteResponseDto;
 import com.polizas.dto.PageResponseDto;
 import com.polizas.dto.PolizaRequestDto;
 import com.polizas.dto.PolizaResponseDto;
@@ -8,19 +12,32 @@ import com.polizas.exception.ResourceNotFoundException;
 import com.polizas.model.Empleado;
 import com.polizas.model.Inventario;
 import com.polizas.model.Poliza;
-import com.polizas.repository.EmpleadoRepository;
 import com.polizas.repository.InventarioRepository;
 import com.polizas.repository.PolizaRepository;
+import com.polizas.service.VersionTablasService.Tabla;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,110 +46,149 @@ import java.util.stream.Collectors;
 public class PolizaService {
 
         private final PolizaRepository polizaRepository;
-        private final EmpleadoRepository empleadoRepository;
         private final InventarioRepository inventarioRepository;
+        private final ReferenciaCacheService referenciaCacheService;
+        private final MeterRegistry meterRegistry;
+        private final ConsumoAgregadoService consumoAgregadoService;
+        private final VersionTablasService versionTablasService;
+        private final ReservaInventarioService reservaInventarioService;
+        private final EventosService eventosService;
+        private final CoalescenciaLecturasService coalescenciaLecturasService;
 
         /**
          * Obtener todas las pólizas
          */
         @Transactional(readOnly = true)
         public List<PolizaResponseDto> obtenerTodasPolizas() {
-                log.info("Obteniendo todas las pólizas");
+                log.debug("Obteniendo todas las pólizas");
 
-                List<Poliza> polizas = polizaRepository.findAll();
-                List<PolizaResponseDto> result = new ArrayList<>();
-
-                for (Poliza poliza : polizas) {
-                        Empleado empleado = empleadoRepository.findByIdEmpleado(poliza.getEmpleadoGenero())
-                                        .orElseThrow(() -> new ResourceNotFoundException(
-                                                        "Empleado no encontrado con ID: "
-                                                                        + poliza.getEmpleadoGenero()));
-
-                        Inventario inventario = inventarioRepository.findBySku(poliza.getSku())
-                                        .orElseThrow(() -> new ResourceNotFoundException(
-                                                        "Artículo no encontrado con SKU: " + poliza.getSku()));
-
-                        result.add(buildPolizaResponse(poliza, empleado, inventario));
-                }
-
-                return result;
+                return polizaRepository.findAllDetalle();
         }
 
         /**
-         * Obtener pólizas paginadas con filtros opcionales
+         * Obtener pólizas paginadas con filtros opcionales; el rango de fechas es [desde, hasta)
          */
         @Transactional(readOnly = true)
         public PageResponseDto<PolizaResponseDto> obtenerPolizasPaginadas(
-                        Long empleadoId, Long sku, Pageable pageable) {
-                log.info("Obteniendo pólizas paginadas - Página: {}, Tamaño: {}, EmpleadoID: {}, SKU: {}",
-                                pageable.getPageNumber(), pageable.getPageSize(), empleadoId, sku);
-
-                // Obtener la página de pólizas según los filtros
-                Page<Poliza> polizasPage;
-                if (empleadoId != null && sku != null) {
-                        polizasPage = polizaRepository.findByFilters(empleadoId, sku, pageable);
-                } else if (empleadoId != null) {
-                        polizasPage = polizaRepository.findByEmpleadoGenero(empleadoId, pageable);
-                } else if (sku != null) {
-                        polizasPage = polizaRepository.findBySku(sku, pageable);
-                } else {
-                        polizasPage = polizaRepository.findAll(pageable);
-                }
-
-                // Convertir las pólizas a DTOs
-                List<PolizaResponseDto> polizasDto = polizasPage.getContent().stream()
-                                .map(poliza -> {
-                                        Empleado empleado = empleadoRepository
-                                                        .findByIdEmpleado(poliza.getEmpleadoGenero())
-                                                        .orElseThrow(() -> new ResourceNotFoundException(
-                                                                        "Empleado no encontrado con ID: "
-                                                                                        + poliza.getEmpleadoGenero()));
+                        Long empleadoId, Long sku, LocalDateTime desde, LocalDateTime hasta, Pageable pageable) {
+                log.debug("Obteniendo pólizas paginadas - Página: {}, Tamaño: {}, EmpleadoID: {}, SKU: {}, Desde: {}, Hasta: {}",
+                                pageable.getPageNumber(), pageable.getPageSize(), empleadoId, sku, desde, hasta);
 
-                                        Inventario inventario = inventarioRepository.findBySku(poliza.getSku())
-                                                        .orElseThrow(() -> new ResourceNotFoundException(
-                                                                        "Artículo no encontrado con SKU: "
-                                                                                        + poliza.getSku()));
-
-                                        return buildPolizaResponse(poliza, empleado, inventario);
-                                })
-                                .collect(Collectors.toList());
+                // Una sola consulta con empleado y artículo para cualquier combinación de filtros
+                Page<PolizaResponseDto> polizasPage = polizaRepository.findDetalleByFilters(empleadoId, sku,
+                                desde, hasta, pageable);
 
                 // Construir y devolver el DTO de respuesta paginada
                 return PageResponseDto.<PolizaResponseDto>builder()
-                                .content(polizasDto)
+                                .content(polizasPage.getContent())
                                 .currentPage(polizasPage.getNumber())
                                 .totalItems(polizasPage.getTotalElements())
                                 .totalPages(polizasPage.getTotalPages())
                                 .build();
         }
 
+        /**
+         * Obtener pólizas por cursor (keyset) ordenadas por fecha o por ID, sin OFFSET ni conteo total
+         */
+        @Transactional(readOnly = true)
+        public PageResponseDto<PolizaResponseDto> obtenerPolizasPorCursor(Long empleadoId, Long sku,
+                        LocalDateTime desde, LocalDateTime hasta, String sortBy, boolean descendente, String cursor,
+                        int size) {
+                log.debug("Obteniendo pólizas por cursor - Orden: {}, Tamaño: {}, EmpleadoID: {}, SKU: {}",
+                                sortBy, size, empleadoId, sku);
+
+                boolean porFecha = "fecha".equals(sortBy);
+                if (!porFecha && !"idPoliza".equals(sortBy)) {
+                        throw new IllegalArgumentException(
+                                        "La paginación por cursor solo admite ordenar por fecha o idPoliza");
+                }
+
+                Sort.Direction direccion = descendente ? Sort.Direction.DESC : Sort.Direction.ASC;
+                Sort sort = porFecha
+                                ? Sort.by(direccion, "fecha").and(Sort.by(direccion, "idPoliza"))
+                                : Sort.by(direccion, "idPoliza");
+                Pageable pageable = PageRequest.of(0, size, sort);
+
+                // Seek: la siguiente página empieza estrictamente después de la última llave entregada
+                Slice<PolizaResponseDto> slice;
+                if (cursor == null || cursor.isEmpty()) {
+                        slice = polizaRepository.findDetalleSliceByFilters(empleadoId, sku, desde, hasta,
+                                        pageable);
+                } else {
+                        KeysetCursor ultimo = KeysetCursor.decode(cursor);
+                        if (porFecha) {
+                                if (ultimo.getClave() == null) {
+                                        throw new IllegalArgumentException("Cursor inválido: falta la fecha");
+                                }
+                                LocalDateTime fecha;
+                                try {
+                                        fecha = LocalDateTime.parse(ultimo.getClave());
+                                } catch (DateTimeParseException e) {
+                                        throw new IllegalArgumentException("Cursor inválido: fecha mal formada", e);
+                                }
+                                slice = descendente
+                                                ? polizaRepository.findDetalleAntesDeFecha(empleadoId, sku, desde,
+                                                                hasta, fecha, ultimo.getId(), pageable)
+                                                : polizaRepository.findDetalleDespuesDeFecha(empleadoId, sku, desde,
+                                                                hasta, fecha, ultimo.getId(), pageable);
+                        } else {
+                                slice = descendente
+                                                ? polizaRepository.findDetalleAntesDeId(empleadoId, sku, desde,
+                                                                hasta, ultimo.getId(), pageable)
+                                                : polizaRepository.findDetalleDespuesDeId(empleadoId, sku, desde,
+                                                                hasta, ultimo.getId(), pageable);
+                        }
+                }
+
+                String nextCursor = null;
+                if (slice.hasNext()) {
+                        PolizaResponseDto.PolizaDto ultima = slice.getContent()
+                                        .get(slice.getNumberOfElements() - 1).getPoliza();
+                        nextCursor = porFecha
+                                        ? new KeysetCursor(ultima.getFecha().toString(), ultima.getIdPoliza()).encode()
+                                        : KeysetCursor.of(ultima.getIdPoliza()).encode();
+                }
+
+                return PageResponseDto.<PolizaResponseDto>builder()
+                                .content(slice.getContent())
+                                .currentPage(0)
+                                .totalItems(-1)
+                                .totalPages(-1)
+                                .nextCursor(nextCursor)
+                                .hasNext(slice.hasNext())
+                                .build();
+        }
+
         /**
          * Crear una nueva póliza
          */
         @Transactional
         public PolizaResponseDto crearPoliza(PolizaRequestDto polizaRequestDto) {
-                log.info("Creando póliza: {}", polizaRequestDto);
+                log.debug("Creando póliza: {}", polizaRequestDto);
+                Timer.Sample fase = Timer.start(meterRegistry);
 
                 // Verificar si existe el empleado
-                Empleado empleado = empleadoRepository.findByIdEmpleado(polizaRequestDto.getEmpleadoGenero())
+                Empleado empleado = referenciaCacheService.obtenerEmpleado(polizaRequestDto.getEmpleadoGenero())
                                 .orElseThrow(() -> new ResourceNotFoundException("Empleado no encontrado con ID: "
                                                 + polizaRequestDto.getEmpleadoGenero()));
-
-                // Verificar si existe el artículo en inventario
-                Inventario inventario = inventarioRepository.findBySku(polizaRequestDto.getSku())
-                                .orElseThrow(() -> new ResourceNotFoundException(
-                                                "Artículo no encontrado con SKU: " + polizaRequestDto.getSku()));
-
-                // Verificar que haya suficiente cantidad en inventario
-                if (inventario.getCantidad() < polizaRequestDto.getCantidad()) {
+                fase = siguienteFase(fase, "validation");
+
+                Integer existencia = descontar(polizaRequestDto.getSku(), polizaRequestDto.getCantidad());
+                if (existencia == null) {
+                        if (!inventarioRepository.existsById(polizaRequestDto.getSku())) {
+                                throw new ResourceNotFoundException(
+                                                "Artículo no encontrado con SKU: " + polizaRequestDto.getSku());
+                        }
                         throw new IllegalStateException(
                                         "No hay suficiente cantidad en inventario para el artículo con SKU: "
                                                         + polizaRequestDto.getSku());
                 }
 
-                // Actualizar inventario (restar cantidad)
-                inventario.setCantidad(inventario.getCantidad() - polizaRequestDto.getCantidad());
-                inventarioRepository.save(inventario);
+                // El nombre sale de la caché; la existencia ya se descontó en la base de datos
+                String nombreArticulo = referenciaCacheService.obtenerNombreArticulo(polizaRequestDto.getSku())
+                                .orElseThrow(() -> new ResourceNotFoundException(
+                                                "Artículo no encontrado con SKU: " + polizaRequestDto.getSku()));
+                fase = siguienteFase(fase, "stock");
 
                 // Crear póliza - No asignamos ID, dejamos que se genere automáticamente
                 Poliza poliza = Poliza.builder()
@@ -147,12 +203,148 @@ public class PolizaService {
                         poliza.setIdPoliza(polizaRequestDto.getIdPoliza());
                 }
 
-                polizaRepository.save(poliza);
+                // saveAndFlush para que la fase "write" incluya el INSERT y no solo la asignación del ID
+                polizaRepository.saveAndFlush(poliza);
+                reservaInventarioService.registrarPendientes(List.of(poliza));
+                consumoAgregadoService.registrar(poliza);
+                versionTablasService.incrementar(Tabla.POLIZAS, Tabla.INVENTARIO);
+                coalescenciaLecturasService.invalidarArticulo(poliza.getSku());
+                eventosService.publicar(evento(Operacion.CREAR, poliza, existencia));
+                siguienteFase(fase, "write");
 
-                log.info("Póliza creada correctamente: {}", poliza);
+                log.debug("Póliza creada correctamente: {}", poliza);
 
                 // Construir respuesta
-                return buildPolizaResponse(poliza, empleado, inventario);
+                return PolizaResponseDto.de(poliza, empleado, nombreArticulo);
+        }
+
+        /**
+         * Crear pólizas en lote: valida empleados y artículos con una consulta IN cada uno,
+         * descuenta la existencia agrupada por SKU e inserta las pólizas en un solo batch JDBC.
+         * El resultado se informa por elemento; los elementos inválidos no impiden crear los demás.
+         */
+        @Transactional
+        public PolizaLoteResponseDto crearPolizasLote(List<PolizaRequestDto> solicitudes) {
+                log.info("Creando lote de {} pólizas", solicitudes.size());
+
+                Map<Long, Empleado> empleados = referenciaCacheService.obtenerEmpleados(solicitudes.stream()
+                                .map(PolizaRequestDto::getEmpleadoGenero)
+                                .filter(Objects::nonNull)
+                                .distinct()
+                                .toList())
+                                .stream()
+                                .collect(Collectors.toMap(Empleado::getIdEmpleado, Function.identity()));
+
+                Map<Long, Inventario> articulos = inventarioRepository.findAllById(solicitudes.stream()
+                                .map(PolizaRequestDto::getSku)
+                                .filter(Objects::nonNull)
+                                .distinct()
+                                .toList())
+                                .stream()
+                                .collect(Collectors.toMap(Inventario::getSku, Function.identity()));
+
+                PolizaLoteResponseDto.ResultadoDto[] resultados = new PolizaLoteResponseDto.ResultadoDto[solicitudes
+                                .size()];
+                // Índices aceptados por SKU, en el orden de la solicitud; los SKU se recorren en orden
+                // ascendente para bloquear las filas de inventario y de agregados siempre en el mismo orden
+                Map<Long, List<Integer>> aceptadasPorSku = new TreeMap<>();
+                Map<Long, Integer> disponiblePorSku = new LinkedHashMap<>();
+
+                for (int i = 0; i < solicitudes.size(); i++) {
+                        PolizaRequestDto solicitud = solicitudes.get(i);
+                        String error = null;
+                        Inventario inventario = articulos.get(solicitud.getSku());
+
+                        if (solicitud.getCantidad() == null || solicitud.getCantidad() <= 0) {
+                                error = "La cantidad debe ser mayor a cero";
+                        } else if (!empleados.containsKey(solicitud.getEmpleadoGenero())) {
+                                error = "Empleado no encontrado con ID: " + solicitud.getEmpleadoGenero();
+                        } else if (inventario == null) {
+                                error = "Artículo no encontrado con SKU: " + solicitud.getSku();
+                        } else {
+                                int disponible = disponiblePorSku.getOrDefault(inventario.getSku(),
+                                                inventario.getCantidad());
+                                if (disponible < solicitud.getCantidad()) {
+                                        error = "No hay suficiente cantidad en inventario para el artículo con SKU: "
+                                                        + solicitud.getSku();
+                                } else {
+                                        disponiblePorSku.put(inventario.getSku(), disponible - solicitud.getCantidad());
+                                        aceptadasPorSku.computeIfAbsent(inventario.getSku(), sku -> new ArrayList<>())
+                                                        .add(i);
+                                }
+                        }
+
+                        if (error != null) {
+                                resultados[i] = fallo(i, error);
+                        }
+                }
+
+                // Un descuento atómico por SKU con el total aceptado; si la existencia cambió
+                // concurrentemente y ya no alcanza, se rechazan los elementos de ese SKU
+                Map<Long, Integer> totalPorSku = new TreeMap<>();
+                aceptadasPorSku.forEach((sku, indices) -> totalPorSku.put(sku, indices.stream()
+                                .mapToInt(i -> solicitudes.get(i).getCantidad())
+                                .sum()));
+                Map<Long, Integer> existenciaPorSku = descontarLote(totalPorSku);
+
+                List<Poliza> polizas = new ArrayList<>();
+                List<Integer> indicesPolizas = new ArrayList<>();
+                LocalDateTime fecha = LocalDateTime.now();
+
+                for (Map.Entry<Long, List<Integer>> grupo : aceptadasPorSku.entrySet()) {
+                        Integer existencia = existenciaPorSku.get(grupo.getKey());
+                        if (existencia == null) {
+                                for (int i : grupo.getValue()) {
+                                        resultados[i] = fallo(i,
+                                                        "No hay suficiente cantidad en inventario para el artículo con SKU: "
+                                                                        + grupo.getKey());
+                                }
+                                continue;
+                        }
+
+                        for (int i : grupo.getValue()) {
+                                PolizaRequestDto solicitud = solicitudes.get(i);
+                                polizas.add(Poliza.builder()
+                                                .empleadoGenero(solicitud.getEmpleadoGenero())
+                                                .sku(solicitud.getSku())
+                                                .cantidad(solicitud.getCantidad())
+                                                .fecha(fecha)
+                                                .build());
+                                indicesPolizas.add(i);
+                        }
+                }
+
+                // Los IDs salen del bloque de la secuencia, por lo que Hibernate puede agrupar los INSERT
+                polizaRepository.saveAll(polizas);
+                reservaInventarioService.registrarPendientes(polizas);
+                consumoAgregadoService.registrarLote(polizas);
+                versionTablasService.incrementar(Tabla.POLIZAS, Tabla.INVENTARIO);
+                coalescenciaLecturasService.invalidarArticulos(existenciaPorSku.keySet());
+                eventosService.publicar(polizas.stream()
+                                .map(poliza -> evento(Operacion.CREAR, poliza, existenciaPorSku.get(poliza.getSku())))
+                                .toList());
+
+                for (int j = 0; j < polizas.size(); j++) {
+                        Poliza poliza = polizas.get(j);
+                        int i = indicesPolizas.get(j);
+                        resultados[i] = PolizaLoteResponseDto.ResultadoDto.builder()
+                                        .indice(i)
+                                        .exito(true)
+                                        .poliza(PolizaResponseDto.de(poliza, empleados.get(poliza.getEmpleadoGenero()),
+                                                        articulos.get(poliza.getSku()).getNombre()))
+                                        .build();
+                }
+
+                log.info("Lote procesado: {} creadas, {} fallidas", polizas.size(),
+                                solicitudes.size() - polizas.size());
+                contadorLote("ok").increment(polizas.size());
+                contadorLote("rejected").increment(solicitudes.size() - polizas.size());
+
+                return PolizaLoteResponseDto.builder()
+                                .creadas(polizas.size())
+                                .fallidas(solicitudes.size() - polizas.size())
+                                .resultados(List.of(resultados))
+                                .build();
         }
 
         /**
@@ -160,21 +352,11 @@ public class PolizaService {
          */
         @Transactional(readOnly = true)
         public PolizaResponseDto obtenerPolizaPorId(Long idPoliza) {
-                log.info("Obteniendo póliza con ID: {}", idPoliza);
+                log.debug("Obteniendo póliza con ID: {}", idPoliza);
 
-                Poliza poliza = polizaRepository.findByIdPoliza(idPoliza)
+                return polizaRepository.findDetalleByIdPoliza(idPoliza)
                                 .orElseThrow(() -> new ResourceNotFoundException(
                                                 "Póliza no encontrada con ID: " + idPoliza));
-
-                Empleado empleado = empleadoRepository.findByIdEmpleado(poliza.getEmpleadoGenero())
-                                .orElseThrow(() -> new ResourceNotFoundException(
-                                                "Empleado no encontrado con ID: " + poliza.getEmpleadoGenero()));
-
-                Inventario inventario = inventarioRepository.findBySku(poliza.getSku())
-                                .orElseThrow(() -> new ResourceNotFoundException(
-                                                "Artículo no encontrado con SKU: " + poliza.getSku()));
-
-                return buildPolizaResponse(poliza, empleado, inventario);
         }
 
         /**
@@ -182,23 +364,28 @@ public class PolizaService {
          */
         @Transactional
         public MensajeResponseDto actualizarPoliza(Long idPoliza, PolizaRequestDto polizaRequestDto) {
-                log.info("Actualizando póliza con ID: {}, nuevos datos: {}", idPoliza, polizaRequestDto);
+                log.debug("Actualizando póliza con ID: {}, nuevos datos: {}", idPoliza, polizaRequestDto);
 
                 Poliza polizaExistente = polizaRepository.findByIdPoliza(idPoliza)
                                 .orElseThrow(() -> new ResourceNotFoundException(
                                                 "Póliza no encontrada con ID: " + idPoliza));
 
                 // Verificar si existe el empleado
-                empleadoRepository.findByIdEmpleado(polizaRequestDto.getEmpleadoGenero())
+                referenciaCacheService.obtenerEmpleado(polizaRequestDto.getEmpleadoGenero())
                                 .orElseThrow(() -> new ResourceNotFoundException("Empleado no encontrado con ID: "
                                                 + polizaRequestDto.getEmpleadoGenero()));
 
                 // Si se está actualizando el empleado, solo actualizar ese dato
+                Long empleadoAnterior = polizaExistente.getEmpleadoGenero();
                 polizaExistente.setEmpleadoGenero(polizaRequestDto.getEmpleadoGenero());
 
                 polizaRepository.save(polizaExistente);
+                consumoAgregadoService.cambiarEmpleado(polizaExistente, empleadoAnterior);
+                versionTablasService.incrementar(Tabla.POLIZAS);
+                coalescenciaLecturasService.invalidarPoliza(idPoliza);
+                eventosService.publicar(evento(Operacion.ACTUALIZAR, polizaExistente, null));
 
-                log.info("Póliza actualizada correctamente: {}", polizaExistente);
+                log.debug("Póliza actualizada correctamente: {}", polizaExistente);
 
                 // Construir mensaje de respuesta
                 return MensajeResponseDto.builder()
@@ -219,16 +406,31 @@ public class PolizaService {
                                 .orElseThrow(() -> new ResourceNotFoundException(
                                                 "Póliza no encontrada con ID: " + idPoliza));
 
-                // Devolver la cantidad al inventario
-                Inventario inventario = inventarioRepository.findBySku(poliza.getSku())
-                                .orElseThrow(() -> new ResourceNotFoundException(
-                                                "Artículo no encontrado con SKU: " + poliza.getSku()));
-
-                inventario.setCantidad(inventario.getCantidad() + poliza.getCantidad());
-                inventarioRepository.save(inventario);
+                // Devolver la cantidad al inventario con un incremento atómico, salvo que su descuento siguiera
+                // pendiente (SKU con reservas en memoria): entonces nunca llegó a inventario
+                boolean pendiente = reservaInventarioService.liberar(poliza);
+                Integer existencia = null;
+                if (!pendiente) {
+                        existencia = inventarioRepository.reponerCantidad(poliza.getSku(), poliza.getCantidad())
+                                        .orElseThrow(() -> new ResourceNotFoundException(
+                                                        "Artículo no encontrado con SKU: " + poliza.getSku()));
+                }
+                if (reservaInventarioService.gestiona(poliza.getSku())) {
+                        // El contador recibe la cantidad al confirmar; la fila de inventario va atrasada
+                        existencia = reservaInventarioService.existencia(poliza.getSku()) + poliza.getCantidad();
+                }
 
                 // Eliminar la póliza
                 polizaRepository.delete(poliza);
+                if (pendiente) {
+                        consumoAgregadoService.revertirPendiente(poliza);
+                } else {
+                        consumoAgregadoService.revertir(poliza);
+                }
+                versionTablasService.incrementar(Tabla.POLIZAS, Tabla.INVENTARIO);
+                coalescenciaLecturasService.invalidarPoliza(idPoliza);
+                coalescenciaLecturasService.invalidarArticulo(poliza.getSku());
+                eventosService.publicar(evento(Operacion.ELIMINAR, poliza, existencia));
 
                 log.info("Póliza eliminada correctamente con ID: {}", idPoliza);
 
@@ -241,22 +443,88 @@ public class PolizaService {
         }
 
         /**
-         * Método auxiliar para construir la respuesta de póliza
+         * Método auxiliar que cierra la fase actual de crearPoliza en "polizas.crear.phase" e inicia la siguiente
          */
-        private PolizaResponseDto buildPolizaResponse(Poliza poliza, Empleado empleado, Inventario inventario) {
-                return PolizaResponseDto.builder()
-                                .poliza(PolizaResponseDto.PolizaDto.builder()
-                                                .idPoliza(poliza.getIdPoliza())
-                                                .cantidad(poliza.getCantidad())
-                                                .build())
-                                .empleado(PolizaResponseDto.EmpleadoDto.builder()
-                                                .nombre(empleado.getNombre())
-                                                .apellido(empleado.getApellido())
-                                                .build())
-                                .detalleArticulo(PolizaResponseDto.DetalleArticuloDto.builder()
-                                                .sku(inventario.getSku())
-                                                .nombre(inventario.getNombre())
-                                                .build())
+        private Timer.Sample siguienteFase(Timer.Sample fase, String nombre) {
+                fase.stop(Timer.builder("polizas.crear.phase")
+                                .description("Duración de cada fase de la creación de una póliza")
+                                .tag("phase", nombre)
+                                .register(meterRegistry));
+                return Timer.start(meterRegistry);
+        }
+
+        /**
+         * Método auxiliar para el contador de elementos procesados en lotes
+         */
+        private Counter contadorLote(String outcome) {
+                return Counter.builder("polizas.batch.items")
+                                .description("Elementos procesados por POST /polizas/batch")
+                                .tag("outcome", outcome)
+                                .register(meterRegistry);
+        }
+
+        /**
+         * Método auxiliar para construir el resultado fallido de un elemento del lote
+         */
+        private PolizaLoteResponseDto.ResultadoDto fallo(int indice, String mensaje) {
+                return PolizaLoteResponseDto.ResultadoDto.builder()
+                                .indice(indice)
+                                .exito(false)
+                                .mensaje(mensaje)
+                                .build();
+        }
+
+        /**
+         * Descontar la existencia y devolver la que queda, o null si no alcanza o el SKU no existe. Los SKU con
+         * reservas en memoria reservan contra su contador sin tocar la fila de inventario; el resto usa una sola
+         * sentencia condicional: sin lecturas previas ni bloqueos, dos peticiones concurrentes no pueden dejar
+         * el inventario en negativo
+         */
+        private Integer descontar(Long sku, int cantidad) {
+                if (reservaInventarioService.gestiona(sku)) {
+                        return reservaInventarioService.reservar(sku, cantidad)
+                                        ? reservaInventarioService.existencia(sku)
+                                        : null;
+                }
+                return inventarioRepository.descontarCantidad(sku, cantidad).orElse(null);
+        }
+
+        /**
+         * Descuenta los totales de un lote: los SKU con reservas en memoria uno por uno y el resto en una sola
+         * sentencia. Devuelve la existencia resultante de los SKU descontados; los que no alcanzaron no aparecen
+         */
+        private Map<Long, Integer> descontarLote(Map<Long, Integer> totalPorSku) {
+                Map<Long, Integer> existencias = new HashMap<>();
+                List<Long> skus = new ArrayList<>();
+                List<Integer> cantidades = new ArrayList<>();
+                totalPorSku.forEach((sku, total) -> {
+                        if (reservaInventarioService.gestiona(sku)) {
+                                Integer existencia = descontar(sku, total);
+                                if (existencia != null) {
+                                        existencias.put(sku, existencia);
+                                }
+                        } else {
+                                skus.add(sku);
+                                cantidades.add(total);
+                        }
+                });
+                if (!skus.isEmpty()) {
+                        for (Object[] fila : inventarioRepository.descontarCantidades(skus.toArray(Long[]::new),
+                                        cantidades.toArray(Integer[]::new))) {
+                                existencias.put(((Number) fila[0]).longValue(), ((Number) fila[1]).intValue());
+                        }
+                }
+                return existencias;
+        }
+
+        private EventoCambioDto evento(Operacion operacion, Poliza poliza, Integer existencia) {
+                return EventoCambioDto.builder()
+                                .tipo(EventoCambioDto.Tipo.POLIZA)
+                                .operacion(operacion)
+                                .idPoliza(poliza.getIdPoliza())
+                                .sku(poliza.getSku())
+                                .cantidad(existencia)
+                                .idEmpleado(poliza.getEmpleadoGenero())
                                 .build();
         }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.polizas.service;
+
+import com.polizas.model.ArticuloReferencia;
+import com.polizas.model.Empleado;
+import com.polizas.repository.ArticuloReferenciaRepository;
+import com.polizas.repository.EmpleadoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Lecturas de datos de referencia a través de la caché de segundo nivel de Hibernate.
+ * Del inventario solo se cachea el nombre ({@link ArticuloReferencia}): la existencia (cantidad) siempre se lee
+ * o descuenta en la base de datos. Las lecturas no son de solo lectura para que los fallos de la caché se llenen
+ * desde la primaria y no desde una réplica atrasada.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenciaCacheService {
+
+    private final EmpleadoRepository empleadoRepository;
+    private final ArticuloReferenciaRepository articuloReferenciaRepository;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Obtener un empleado por ID
+     */
+    @Transactional
+    public Optional<Empleado> obtenerEmpleado(Long idEmpleado) {
+        return empleadoRepository.findById(idEmpleado);
+    }
+
+    /**
+     * Obtener varios empleados por ID: los que están en caché no se consultan y el resto sale en una sola consulta
+     */
+    @Transactional
+    public List<Empleado> obtenerEmpleados(Collection<Long> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Empleado.class)
+                // Sin modo de caché explícito multiLoad no consulta la caché de segundo nivel
+                .with(CacheMode.NORMAL)
+                .multiLoad(List.copyOf(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Obtener el nombre de un artículo por SKU
+     */
+    @Transactional
+    public Optional<String> obtenerNombreArticulo(Long sku) {
+        return articuloReferenciaRepository.findById(sku).map(ArticuloReferencia::getNombre);
+    }
+
+    /**
+     * Cambia el nombre de un artículo dentro de la transacción que lo modifica en Inventario. Hibernate bloquea
+     * la entrada de la caché hasta confirmar y después guarda el nombre nuevo, así que una carga que leyó el
+     * anterior antes de confirmar ya no lo escribe. Debe llamarse antes de guardar Inventario, para leer el
+     * nombre confirmado y no el propio UPDATE.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void renombrar(Long sku, String nombre) {
+        articuloReferenciaRepository.findById(sku)
+                .filter(articulo -> !articulo.getNombre().equals(nombre))
+                .ifPresent(articulo -> articulo.setNombre(nombre));
+    }
+
+    /**
+     * Para altas, bajas e importaciones, que no pasan por ArticuloReferencia: desaloja la entrada tras confirmar
+     */
+    public void invalidarArticulo(Long sku) {
+        log.debug("Invalidando artículo en caché: {}", sku);
+        entityManagerFactory.getCache().evict(ArticuloReferencia.class, sku);
+    }
+
+    public void invalidarArticulos() {
+        log.debug("Invalidando todos los artículos en caché");
+        entityManagerFactory.getCache().evict(ArticuloReferencia.class);
+    }
+}
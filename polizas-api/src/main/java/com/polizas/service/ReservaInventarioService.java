@@ -0,0 +1,353 @@
+package com.polizas.service;
+
+import com.polizas.model.Inventario;
+import com.polizas.model.Poliza;
+import com.polizas.repository.InventarioRepository;
+import com.polizas.repository.ReservaRepository;
+import com.polizas.service.VersionTablasService.Tabla;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modo opcional para los SKU de alta demanda (app.inventario.reservas.skus): la existencia se reserva contra
+ * contadores en memoria ({@link ContadorReservas}) en lugar de bloquear la fila de inventario en cada póliza.
+ * <p>
+ * La póliza se sigue grabando en su transacción, junto con una fila en reservas_pendientes (V10). Cada
+ * {@code intervalo-ms} una sola sentencia aplica las pendientes confirmadas a inventario.cantidad y a
+ * consumo_sku_mes y las borra. Entre volcados, inventario.cantidad de esos SKU va atrasado; la existencia
+ * real es inventario.cantidad menos sus pendientes.
+ * <p>
+ * Recuperación: después de una caída las pendientes siguen en la base de datos. Al arrancar se aplican
+ * antes de cargar los contadores, que parten de inventario.cantidad ya al día. Cada volcado reconcilia
+ * los contadores con la base de datos cuando el SKU no tiene transacciones en curso.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservaInventarioService {
+
+    private final ReservaRepository reservaRepository;
+    private final InventarioRepository inventarioRepository;
+    private final VersionTablasService versionTablasService;
+    private final CoalescenciaLecturasService coalescenciaLecturasService;
+    private final ReferenciaCacheService referenciaCacheService;
+
+    @Value("${app.inventario.reservas.enabled:false}")
+    private boolean habilitado;
+
+    @Value("${app.inventario.reservas.skus:}")
+    private Set<Long> skus;
+
+    @Value("${app.inventario.reservas.franjas:8}")
+    private int franjas;
+
+    private final Map<Long, Reservas> reservas = new ConcurrentHashMap<>();
+
+    /**
+     * Aplica las pendientes de una ejecución anterior (también con el modo apagado) y carga los contadores
+     */
+    @PostConstruct
+    public void iniciar() {
+        long aplicadas = reservaRepository.aplicarPendientes();
+        if (aplicadas > 0) {
+            log.info("Aplicados {} descuentos de inventario pendientes de la ejecución anterior", aplicadas);
+        }
+        if (!habilitado || skus.isEmpty()) {
+            return;
+        }
+        reservaRepository.findDisponibles(skus).forEach((sku, disponible) ->
+                reservas.put(sku, new Reservas(new ContadorReservas(franjas, disponible))));
+        log.info("Reservas en memoria para {} SKU de alta demanda: {}", reservas.size(), reservas.keySet());
+    }
+
+    /**
+     * true si el SKU usa reservas en memoria
+     */
+    public boolean gestiona(Long sku) {
+        return reservas.containsKey(sku);
+    }
+
+    /**
+     * SKU que usan reservas en memoria
+     */
+    public Set<Long> gestionados() {
+        return Set.copyOf(reservas.keySet());
+    }
+
+    /**
+     * Existencia real de un SKU gestionado según su contador; con reservas concurrentes es una foto aproximada
+     */
+    public int existencia(Long sku) {
+        return (int) reservas.get(sku).contador.disponible();
+    }
+
+    /**
+     * Reserva la cantidad contra el contador del SKU; si la transacción se revierte, la reserva se devuelve
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean reservar(Long sku, int cantidad) {
+        Reservas reserva = reservas.get(sku);
+        reserva.iniciar();
+        if (!reserva.contador.reservar(cantidad)) {
+            reserva.terminar();
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int estado) {
+                if (estado != STATUS_COMMITTED) {
+                    reserva.contador.devolver(cantidad);
+                }
+                reserva.terminar();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Registra como pendientes los descuentos de las pólizas recién grabadas de los SKU gestionados
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarPendientes(List<Poliza> polizas) {
+        SqlParameterSource[] filas = polizas.stream()
+                .filter(poliza -> gestiona(poliza.getSku()))
+                .map(poliza -> (SqlParameterSource) new MapSqlParameterSource()
+                        .addValue("idPoliza", poliza.getIdPoliza())
+                        .addValue("sku", poliza.getSku())
+                        .addValue("cantidad", poliza.getCantidad())
+                        .addValue("mes", poliza.getFecha().toLocalDate().withDayOfMonth(1)))
+                .toArray(SqlParameterSource[]::new);
+        if (filas.length > 0) {
+            reservaRepository.insertarPendientes(filas);
+        }
+    }
+
+    /**
+     * Libera la existencia de una póliza eliminada. Devuelve true si su descuento seguía pendiente:
+     * en ese caso ni inventario ni consumo_sku_mes lo tienen aplicado y no hay que revertirlo ahí.
+     * El contador de un SKU gestionado recibe la cantidad al confirmar.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean liberar(Poliza poliza) {
+        // Se busca la pendiente aunque el SKU ya no se gestione: pudo quedar de antes de un cambio de configuración
+        boolean pendiente = reservaRepository.borrarPendiente(poliza.getIdPoliza()) > 0;
+        Reservas reserva = reservas.get(poliza.getSku());
+        if (reserva != null) {
+            reserva.iniciar();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    if (estado == STATUS_COMMITTED) {
+                        reserva.contador.devolver(poliza.getCantidad());
+                    }
+                    reserva.terminar();
+                }
+            });
+        }
+        return pendiente;
+    }
+
+    /**
+     * Reemplaza nombre y cantidad de un artículo; vacío si el SKU no existe. La fila queda bloqueada hasta
+     * confirmar, así que las pólizas del SKU (llave foránea) en curso terminan antes y las nuevas esperan: al
+     * aplicar las pendientes ya no queda ninguna del SKU y la cantidad enviada es la existencia real. El contador
+     * de un SKU gestionado se ajusta al confirmar por la diferencia, aunque haya reservas en curso.
+     */
+    @Transactional
+    public Optional<Inventario> actualizar(Long sku, Inventario articulo) {
+        if (inventarioRepository.bloquearPorSku(sku).isEmpty()) {
+            return Optional.empty();
+        }
+        articulo.setSku(sku);
+        // Con la fila ya bloqueada, el nombre leído es el confirmado
+        referenciaCacheService.renombrar(sku, articulo.getNombre());
+        Reservas reserva = reservas.get(sku);
+        if (reserva == null) {
+            return Optional.of(inventarioRepository.save(articulo));
+        }
+
+        long anterior = reservaRepository.findDisponibles(List.of(sku)).get(sku);
+        aplicarPendientes();
+        Inventario actualizado = inventarioRepository.save(articulo);
+        long diferencia = actualizado.getCantidad() - anterior;
+        // Como una reserva en curso: la reconciliación no ajusta el SKU hasta que el contador recibe la diferencia
+        reserva.iniciar();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int estado) {
+                if (estado == STATUS_COMMITTED) {
+                    reserva.contador.ajustar(diferencia);
+                }
+                reserva.terminar();
+            }
+        });
+        return Optional.of(actualizado);
+    }
+
+    /**
+     * Bloquea hasta confirmar las filas de inventario de los SKU gestionados entre los indicados. Como en
+     * actualizar, las pólizas en curso de esos SKU terminan antes y las nuevas esperan, así que las pendientes
+     * que se apliquen después son todas las que habrá hasta confirmar.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bloquear(Collection<Long> skus) {
+        List<Long> gestionados = skus.stream().filter(this::gestiona).toList();
+        if (!gestionados.isEmpty()) {
+            inventarioRepository.bloquearPorSkus(gestionados);
+        }
+    }
+
+    /**
+     * Volcado periódico de las pendientes y reconciliación de los contadores
+     */
+    @Scheduled(fixedDelayString = "${app.inventario.reservas.intervalo-ms:200}")
+    public void volcar() {
+        if (reservas.isEmpty()) {
+            return;
+        }
+        try {
+            aplicarPendientes();
+            reconciliar(reservas.keySet());
+        } catch (Exception e) {
+            // Las pendientes siguen en la tabla: se aplican en el siguiente volcado
+            log.error("Error al aplicar los descuentos de inventario pendientes", e);
+        }
+    }
+
+    /**
+     * Aplica las pendientes confirmadas; la reconstrucción de agregados lo llama antes de leer polizas
+     */
+    public long aplicarPendientes() {
+        long aplicadas = reservaRepository.aplicarPendientes();
+        if (aplicadas > 0) {
+            versionTablasService.incrementar(Tabla.INVENTARIO);
+            coalescenciaLecturasService.invalidarArticulos(reservas.keySet());
+            log.debug("Aplicados {} descuentos de inventario pendientes", aplicadas);
+        }
+        return aplicadas;
+    }
+
+    /**
+     * Ajusta el contador después de eliminar el artículo
+     */
+    public void recargar(Long sku) {
+        Reservas reserva = reservas.get(sku);
+        if (reserva == null) {
+            return;
+        }
+        Map<Long, Long> disponibles = reservaRepository.findDisponibles(List.of(sku));
+        if (!disponibles.containsKey(sku)) {
+            reservas.remove(sku);
+            log.info("SKU {} eliminado: deja de usar reservas en memoria", sku);
+            return;
+        }
+        if (!reconciliar(List.of(sku))) {
+            log.warn("SKU {} con pólizas en curso: su contador se reconcilia en el siguiente volcado", sku);
+        }
+    }
+
+    /**
+     * Ajusta todos los contadores después de una carga masiva de inventario
+     */
+    public void recargarTodos() {
+        if (!reservas.isEmpty() && !reconciliar(List.copyOf(reservas.keySet()))) {
+            log.warn("SKU con pólizas en curso: sus contadores se reconcilian en el siguiente volcado");
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (reservas.isEmpty()) {
+            return;
+        }
+        try {
+            aplicarPendientes();
+        } catch (Exception e) {
+            log.warn("No se aplicaron los descuentos pendientes al detener; se aplican al arrancar", e);
+        }
+    }
+
+    /**
+     * Lleva cada contador a la existencia real de la base de datos. Solo se ajustan los SKU sin transacciones
+     * en curso durante la lectura: con una en vuelo, su reserva puede estar en el contador y todavía no en la
+     * base de datos. El ajuste es una diferencia, así que las reservas que empiezan después no lo invalidan.
+     * Devuelve false si algún SKU quedó sin reconciliar.
+     */
+    private synchronized boolean reconciliar(Collection<Long> llaves) {
+        Map<Long, long[]> fotos = new HashMap<>();
+        for (Long sku : llaves) {
+            Reservas reserva = reservas.get(sku);
+            if (reserva != null && reserva.enCurso.get() == 0) {
+                long operaciones = reserva.operaciones.get();
+                fotos.put(sku, new long[] { operaciones, reserva.contador.disponible() });
+            }
+        }
+        Map<Long, Long> disponibles = reservaRepository.findDisponibles(fotos.keySet());
+        boolean completa = fotos.size() == llaves.size();
+        for (Map.Entry<Long, long[]> foto : fotos.entrySet()) {
+            Reservas reserva = reservas.get(foto.getKey());
+            Long disponible = disponibles.get(foto.getKey());
+            if (reserva == null || disponible == null) {
+                continue;
+            }
+            if (reserva.enCurso.get() != 0 || reserva.operaciones.get() != foto.getValue()[0]) {
+                completa = false;
+                continue;
+            }
+            long diferencia = disponible - foto.getValue()[1];
+            if (diferencia != 0) {
+                log.warn("Contador del SKU {} desfasado en {} unidades respecto a la base de datos; ajustado",
+                        foto.getKey(), diferencia);
+                reserva.contador.ajustar(diferencia);
+            }
+        }
+        return completa;
+    }
+
+    /**
+     * Contador de un SKU más lo necesario para saber si tiene transacciones en curso
+     */
+    private static final class Reservas {
+        private final ContadorReservas contador;
+        // Transacciones con una reserva o liberación sin confirmar ni revertir
+        private final AtomicInteger enCurso = new AtomicInteger();
+        // Cambia con cada inicio y fin de transacción: una reconciliación que lo ve igual antes y después
+        // de leer la base de datos leyó un estado sin cambios a medias
+        private final AtomicLong operaciones = new AtomicLong();
+
+        private Reservas(ContadorReservas contador) {
+            this.contador = contador;
+        }
+
+        private void iniciar() {
+            operaciones.incrementAndGet();
+            enCurso.incrementAndGet();
+        }
+
+        private void terminar() {
+            enCurso.decrementAndGet();
+            operaciones.incrementAndGet();
+        }
+    }
+}
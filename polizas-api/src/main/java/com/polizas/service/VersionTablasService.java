@@ -0,0 +1,92 @@
+package com.polizas.service;
+
+import com.polizas.config.EnrutadorDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador de versión por tabla para los ETag de las lecturas: cada escritura incrementa la versión
+ * de las tablas que modifica y un GET con la etiqueta vigente se responde 304 sin consultar la base de datos.
+ * Los contadores viven en memoria. La etiqueta incluye un identificador de la instancia, así que tras
+ * reiniciar (o en otra instancia) ninguna etiqueta anterior coincide.
+ * Solo se ven las escrituras hechas por esta aplicación: una carga externa (perfil seed, SQL manual)
+ * requiere reiniciar la API o invalidar con una escritura.
+ * Con réplicas de lectura, una tabla que cambió hace menos de app.datasource.replicas.retraso-maximo no
+ * lleva etiqueta: la lectura puede ir a una réplica que aún no tiene el cambio y el cliente guardaría
+ * datos viejos con la versión nueva.
+ */
+@Service
+public class VersionTablasService {
+
+    public enum Tabla {
+        INVENTARIO, EMPLEADO, POLIZAS
+    }
+
+    private final String instancia = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final AtomicLongArray versiones = new AtomicLongArray(Tabla.values().length);
+    // System.nanoTime() del último incremento de cada tabla
+    private final AtomicLongArray cambios = new AtomicLongArray(Tabla.values().length);
+
+    @Value("${app.datasource.replicas.enabled:false}")
+    private boolean replicas;
+
+    @Value("${app.datasource.replicas.retraso-maximo:2s}")
+    private Duration retrasoMaximo;
+
+    /**
+     * Incrementa la versión de las tablas. Dentro de una transacción el incremento ocurre después del commit:
+     * si ocurriera antes, una lectura concurrente podría etiquetar datos viejos con la versión nueva.
+     */
+    public void incrementar(Tabla... tablas) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incrementarAhora(tablas);
+                }
+            });
+        } else {
+            incrementarAhora(tablas);
+        }
+    }
+
+    /**
+     * ETag fuerte con la versión actual de las tablas de las que depende una respuesta.
+     * Se obtiene antes de leer los datos, de modo que la etiqueta nunca es más nueva que el contenido.
+     * Devuelve null si la lectura podría ir a una réplica atrasada.
+     */
+    public String etag(Tabla... tablas) {
+        if (replicas && !EnrutadorDataSource.primariaForzada() && cambioReciente(tablas)) {
+            return null;
+        }
+        StringBuilder etag = new StringBuilder(32).append('"').append(instancia);
+        for (Tabla tabla : tablas) {
+            etag.append('-').append(versiones.get(tabla.ordinal()));
+        }
+        return etag.append('"').toString();
+    }
+
+    private void incrementarAhora(Tabla... tablas) {
+        long ahora = System.nanoTime();
+        for (Tabla tabla : tablas) {
+            cambios.set(tabla.ordinal(), ahora);
+            versiones.incrementAndGet(tabla.ordinal());
+        }
+    }
+
+    private boolean cambioReciente(Tabla... tablas) {
+        long ahora = System.nanoTime();
+        for (Tabla tabla : tablas) {
+            if (versiones.get(tabla.ordinal()) > 0 && ahora - cambios.get(tabla.ordinal()) < retrasoMaximo.toNanos()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,14 @@
+-- Descuentos de las pólizas de SKU de alta demanda que todavía no se aplican a inventario.cantidad
+-- ni a consumo_sku_mes (modo de reservas en memoria, app.inventario.reservas.enabled).
+-- Cada fila se inserta en la misma transacción que su póliza y se borra en la misma sentencia que aplica
+-- el descuento, así que la existencia real siempre es inventario.cantidad - SUM(cantidad) de sus pendientes,
+-- también después de una caída: al arrancar, la aplicación aplica las pendientes antes de atender pólizas.
+-- Sin llave foránea a polizas: su llave primaria incluye la fecha de partición (V9).
+
+CREATE TABLE IF NOT EXISTS reservas_pendientes (
+    id_poliza BIGINT PRIMARY KEY,
+    sku BIGINT NOT NULL,
+    cantidad INTEGER NOT NULL,
+    -- Primer día del mes de la póliza, para consumo_sku_mes
+    mes DATE NOT NULL
+);
@@ -0,0 +1,8 @@
+-- Índices compuestos para la paginación por cursor (keyset) de pólizas.
+-- El orden (fecha, id_poliza) permite recorrer cada página como un rango del índice,
+-- sin OFFSET; idx_polizas_fecha se conserva para las consultas que solo filtran por fecha.
+CREATE INDEX IF NOT EXISTS idx_polizas_fecha_id ON polizas(fecha, id_poliza);
+
+-- Variantes con los filtros de empleado y SKU como prefijo de igualdad
+CREATE INDEX IF NOT EXISTS idx_polizas_empleado_fecha_id ON polizas(empleado_genero, fecha, id_poliza);
+CREATE INDEX IF NOT EXISTS idx_polizas_sku_fecha_id ON polizas(sku, fecha, id_poliza);
@@ -0,0 +1,7 @@
+-- Secuencia de pólizas con incremento de 50 para el optimizador "pooled" de Hibernate:
+-- cada nextval reserva un bloque de 50 IDs en memoria, lo que permite insertar por lotes JDBC
+-- (con IDENTITY Hibernate desactiva el batching de inserts).
+ALTER SEQUENCE polizas_id_poliza_seq INCREMENT BY 50 CACHE 1;
+
+-- El primer bloque de Hibernate será (valor - 49 .. valor]: debe empezar después del último ID existente
+SELECT SETVAL('polizas_id_poliza_seq', COALESCE((SELECT MAX(id_poliza) FROM polizas), 0) + 50, false);
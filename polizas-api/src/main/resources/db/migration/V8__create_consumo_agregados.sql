@@ -0,0 +1,43 @@
+-- Agregados de consumo mantenidos en la misma transacción que crea, modifica o elimina cada póliza.
+-- Responden "unidades por SKU en el mes" o "empleados con más faltantes" sin recorrer el historial.
+
+-- mes = primer día del mes
+CREATE TABLE IF NOT EXISTS consumo_sku_mes (
+    mes DATE NOT NULL,
+    sku BIGINT NOT NULL,
+    unidades BIGINT NOT NULL,
+    polizas BIGINT NOT NULL,
+    PRIMARY KEY (mes, sku)
+);
+
+CREATE TABLE IF NOT EXISTS consumo_empleado_mes (
+    mes DATE NOT NULL,
+    empleado_genero BIGINT NOT NULL,
+    unidades BIGINT NOT NULL,
+    polizas BIGINT NOT NULL,
+    PRIMARY KEY (mes, empleado_genero)
+);
+
+-- Todas las pólizas del día incrementan el mismo total: se reparte en franjas para que
+-- las transacciones concurrentes no se formen detrás del bloqueo de una sola fila
+CREATE TABLE IF NOT EXISTS consumo_dia (
+    fecha DATE NOT NULL,
+    franja SMALLINT NOT NULL,
+    unidades BIGINT NOT NULL,
+    polizas BIGINT NOT NULL,
+    PRIMARY KEY (fecha, franja)
+);
+
+-- Top-N del mes leyendo solo las primeras entradas del índice
+CREATE INDEX IF NOT EXISTS idx_consumo_sku_mes_unidades ON consumo_sku_mes (mes, unidades DESC);
+CREATE INDEX IF NOT EXISTS idx_consumo_empleado_mes_unidades ON consumo_empleado_mes (mes, unidades DESC);
+
+-- Carga inicial desde las pólizas existentes
+INSERT INTO consumo_sku_mes (mes, sku, unidades, polizas)
+SELECT date_trunc('month', fecha)::date, sku, SUM(cantidad), COUNT(*) FROM polizas GROUP BY 1, 2;
+
+INSERT INTO consumo_empleado_mes (mes, empleado_genero, unidades, polizas)
+SELECT date_trunc('month', fecha)::date, empleado_genero, SUM(cantidad), COUNT(*) FROM polizas GROUP BY 1, 2;
+
+INSERT INTO consumo_dia (fecha, franja, unidades, polizas)
+SELECT fecha::date, 0, SUM(cantidad), COUNT(*) FROM polizas GROUP BY 1;
@@ -0,0 +1,82 @@
+-- Particionado de polizas por mes (rango sobre fecha). Las consultas con filtro de fechas solo leen
+-- las particiones del rango y la depuración de meses antiguos es un DROP/DETACH de su partición.
+-- PostgreSQL exige que la llave primaria de una tabla particionada incluya la columna de partición:
+-- la PK pasa a ser (id_poliza, fecha). La unicidad de id_poliza la sigue garantizando la secuencia.
+
+ALTER TABLE polizas RENAME TO polizas_sin_particion;
+ALTER TABLE polizas_sin_particion RENAME CONSTRAINT polizas_pkey TO polizas_sin_particion_pkey;
+DROP INDEX IF EXISTS idx_polizas_empleado;
+DROP INDEX IF EXISTS idx_polizas_sku;
+DROP INDEX IF EXISTS idx_polizas_fecha;
+DROP INDEX IF EXISTS idx_polizas_fecha_id;
+DROP INDEX IF EXISTS idx_polizas_empleado_fecha_id;
+DROP INDEX IF EXISTS idx_polizas_sku_fecha_id;
+
+-- Mismas columnas, llaves foráneas y default de la secuencia (V4/V7) que la tabla original
+CREATE TABLE polizas (
+    id_poliza BIGINT NOT NULL DEFAULT nextval('polizas_id_poliza_seq'),
+    empleado_genero BIGINT NOT NULL,
+    sku BIGINT NOT NULL,
+    cantidad INTEGER NOT NULL,
+    fecha TIMESTAMP NOT NULL,
+    CONSTRAINT polizas_pkey PRIMARY KEY (id_poliza, fecha),
+    CONSTRAINT fk_empleado FOREIGN KEY (empleado_genero) REFERENCES empleado(id_empleado),
+    CONSTRAINT fk_inventario FOREIGN KEY (sku) REFERENCES inventario(sku)
+) PARTITION BY RANGE (fecha);
+
+-- Recibe las pólizas de meses que todavía no tienen partición, para que un INSERT nunca falle
+CREATE TABLE polizas_default PARTITION OF polizas DEFAULT;
+
+-- Crea las particiones mensuales (polizas_AAAAMM) que falten entre dos fechas y devuelve cuántas creó.
+-- Si la partición por defecto ya tiene filas de ese mes, se mueven a la nueva partición.
+-- La aplicación la llama al arrancar y una vez al día para los meses siguientes.
+CREATE OR REPLACE FUNCTION crear_particiones_polizas(desde DATE, hasta DATE) RETURNS INTEGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    mes DATE := date_trunc('month', desde)::date;
+    siguiente DATE;
+    nombre TEXT;
+    creadas INTEGER := 0;
+BEGIN
+    -- Serializa llamadas concurrentes (varias instancias arrancando a la vez)
+    PERFORM pg_advisory_xact_lock(hashtext('crear_particiones_polizas'));
+    WHILE mes <= hasta LOOP
+        siguiente := (mes + INTERVAL '1 month')::date;
+        nombre := 'polizas_' || to_char(mes, 'YYYYMM');
+        IF to_regclass(nombre) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (LIKE polizas INCLUDING DEFAULTS)', nombre);
+            -- Con el CHECK equivalente al rango, ATTACH no necesita recorrer la tabla para validarlo
+            EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (fecha >= %L AND fecha < %L)',
+                    nombre, nombre || '_rango', mes, siguiente);
+            EXECUTE format('WITH movidas AS (DELETE FROM polizas_default WHERE fecha >= %L AND fecha < %L '
+                    || 'RETURNING *) INSERT INTO %I SELECT * FROM movidas', mes, siguiente, nombre);
+            EXECUTE format('ALTER TABLE polizas ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                    nombre, mes, siguiente);
+            EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', nombre, nombre || '_rango');
+            creadas := creadas + 1;
+        END IF;
+        mes := siguiente;
+    END LOOP;
+    RETURN creadas;
+END;
+$$;
+
+-- Particiones desde el primer mes con pólizas hasta tres meses después del actual (o la última póliza)
+SELECT crear_particiones_polizas(
+        COALESCE((SELECT MIN(fecha) FROM polizas_sin_particion)::date, CURRENT_DATE),
+        GREATEST((SELECT MAX(fecha) FROM polizas_sin_particion)::date, (CURRENT_DATE + INTERVAL '3 months')::date));
+
+INSERT INTO polizas (id_poliza, empleado_genero, sku, cantidad, fecha)
+SELECT id_poliza, empleado_genero, sku, cantidad, fecha FROM polizas_sin_particion;
+
+DROP TABLE polizas_sin_particion;
+
+-- Los índices se crean en la tabla padre y PostgreSQL los propaga a cada partición (también a las futuras)
+CREATE INDEX idx_polizas_empleado ON polizas(empleado_genero);
+CREATE INDEX idx_polizas_sku ON polizas(sku);
+CREATE INDEX idx_polizas_fecha ON polizas(fecha);
+CREATE INDEX idx_polizas_fecha_id ON polizas(fecha, id_poliza);
+CREATE INDEX idx_polizas_empleado_fecha_id ON polizas(empleado_genero, fecha, id_poliza);
+CREATE INDEX idx_polizas_sku_fecha_id ON polizas(sku, fecha, id_poliza);
+
+ANALYZE polizas;
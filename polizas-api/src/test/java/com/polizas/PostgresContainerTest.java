@@ -0,0 +1,29 @@
+package com.polizas;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base para pruebas de integración contra PostgreSQL real (se omiten si no hay Docker).
+ * Los presupuestos de sentencias SQL (@PresupuestoSql) son estrictos: un endpoint que los excede falla.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresContainerTest {
+
+	@Container
+	protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15")
+			.withDatabaseName("polizas_db")
+			.withUsername("polizas_user")
+			.withPassword("polizas_password");
+
+	@DynamicPropertySource
+	static void datasourceProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+		registry.add("spring.datasource.username", POSTGRES::getUsername);
+		registry.add("spring.datasource.password", POSTGRES::getPassword);
+		registry.add("app.jdbc.inspeccion.presupuesto.estricto", () -> "true");
+	}
+}
@@ -0,0 +1,99 @@
+package com.polizas.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EnrutadorDataSourceTest {
+
+	private final Connection conexionPrimaria = mock(Connection.class);
+	private final Connection conexionReplica1 = mock(Connection.class);
+	private final Connection conexionReplica2 = mock(Connection.class);
+	private final DataSource primaria = mock(DataSource.class);
+	private final DataSource replica1 = mock(DataSource.class);
+	private final DataSource replica2 = mock(DataSource.class);
+
+	private final EnrutadorDataSource enrutador = new EnrutadorDataSource(primaria, List.of(
+			new EnrutadorDataSource.Replica("replica-1", replica1),
+			new EnrutadorDataSource.Replica("replica-2", replica2)), Duration.ofSeconds(2));
+
+	EnrutadorDataSourceTest() throws SQLException {
+		when(primaria.getConnection()).thenReturn(conexionPrimaria);
+		when(replica1.getConnection()).thenReturn(conexionReplica1);
+		when(replica2.getConnection()).thenReturn(conexionReplica2);
+	}
+
+	@AfterEach
+	void limpiar() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		EnrutadorDataSource.forzarPrimaria(false);
+	}
+
+	@Test
+	void lecturasVanALasReplicasPorTurnoYLoDemasALaPrimaria() throws SQLException {
+		assertThat(enrutador.getConnection()).isSameAs(conexionPrimaria);
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertThat(List.of(enrutador.getConnection(), enrutador.getConnection(), enrutador.getConnection()))
+				.containsExactly(conexionReplica1, conexionReplica2, conexionReplica1);
+
+		EnrutadorDataSource.forzarPrimaria(true);
+		assertThat(enrutador.getConnection()).isSameAs(conexionPrimaria);
+	}
+
+	@Test
+	void replicaQueFallaSaleDeLaRotacionHastaVerificarla() throws SQLException {
+		when(replica1.getConnection()).thenThrow(new SQLException("sin conexión"));
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertThat(enrutador.getConnection()).isSameAs(conexionReplica2);
+		assertThat(enrutador.disponibles()).isEqualTo(1);
+		assertThat(List.of(enrutador.getConnection(), enrutador.getConnection()))
+				.containsExactly(conexionReplica2, conexionReplica2);
+
+		when(replica2.getConnection()).thenThrow(new SQLException("sin conexión"));
+		assertThat(enrutador.getConnection()).isSameAs(conexionPrimaria);
+
+		doReturn(conexionReplica1).when(replica1).getConnection();
+		retraso(conexionReplica1, 0.0);
+		enrutador.verificar();
+		assertThat(enrutador.disponibles()).isEqualTo(1);
+		assertThat(enrutador.getConnection()).isSameAs(conexionReplica1);
+	}
+
+	@Test
+	void replicaAtrasadaSaleDeLaRotacion() throws SQLException {
+		retraso(conexionReplica1, 5.0);
+		retraso(conexionReplica2, 0.5);
+
+		enrutador.verificar();
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertThat(enrutador.disponibles()).isEqualTo(1);
+		assertThat(List.of(enrutador.getConnection(), enrutador.getConnection()))
+				.containsExactly(conexionReplica2, conexionReplica2);
+	}
+
+	private static void retraso(Connection conexion, double segundos) throws SQLException {
+		Statement sentencia = mock(Statement.class);
+		ResultSet rs = mock(ResultSet.class);
+		when(conexion.createStatement()).thenReturn(sentencia);
+		when(sentencia.executeQuery(anyString())).thenReturn(rs);
+		when(rs.next()).thenReturn(true);
+		when(rs.getDouble(1)).thenReturn(segundos);
+	}
+}
@@ -0,0 +1,65 @@
+package com.polizas.config;
+
+import com.polizas.exception.PresupuestoSqlExcedidoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcRequestStatsTest {
+
+	@AfterEach
+	void limpiar() {
+		JdbcRequestStats.terminar();
+	}
+
+	@Test
+	void laFormaIgnoraLiteralesEspaciosYLargoDeListas() {
+		assertThat(JdbcRequestStats.forma("SELECT *  FROM inventario\n WHERE sku = 1000 AND nombre = 'L''apiz'"))
+				.isEqualTo("SELECT * FROM inventario WHERE sku = ? AND nombre = ?");
+		assertThat(JdbcRequestStats.forma("select e1_0.id from empleado e1_0 where e1_0.id in (?, ?,?)"))
+				.isEqualTo(JdbcRequestStats.forma("select e1_0.id from empleado e1_0 where e1_0.id in (?,?)"));
+	}
+
+	@Test
+	void detectaFormasRepetidasSinContarLotes() {
+		JdbcRequestStats stats = JdbcRequestStats.iniciar(0, false, Long.MAX_VALUE);
+		for (int i = 0; i < 6; i++) {
+			stats.registrar("UPDATE inventario SET cantidad = ? WHERE sku = ?", 1_000, new Object[] { i, 1000L }, false);
+			stats.registrar("insert into polizas values (?...)", 1_000, null, true);
+		}
+		stats.registrar("select count(*) from polizas", 1_000, null, false);
+
+		assertThat(stats.getSentencias()).isEqualTo(13);
+		assertThat(stats.repetidas(5)).containsOnlyKeys("UPDATE inventario SET cantidad = ? WHERE sku = ?");
+	}
+
+	@Test
+	void sentenciasLentasLlevanLaHuellaDeSusParametros() {
+		JdbcRequestStats stats = JdbcRequestStats.iniciar(0, false, 50_000_000);
+		stats.registrar("select 1", 10_000_000, new Object[] { 1L }, false);
+		stats.registrar("select 2", 80_000_000, new Object[] { 1L, "a" }, false);
+		stats.registrar("select 2", 90_000_000, new Object[] { 1L, "a" }, false);
+		stats.registrar("select 2", 90_000_000, new Object[] { 2L, "a" }, false);
+
+		assertThat(stats.getLentas()).hasSize(3);
+		assertThat(stats.getLentas().get(0).parametros()).isEqualTo(2);
+		assertThat(stats.getLentas().get(0).huella()).isEqualTo(stats.getLentas().get(1).huella());
+		assertThat(stats.getLentas().get(0).huella()).isNotEqualTo(stats.getLentas().get(2).huella());
+	}
+
+	@Test
+	void presupuestoEstrictoDetieneLaSentenciaQueLoExcede() {
+		JdbcRequestStats stats = JdbcRequestStats.iniciar(2, true, Long.MAX_VALUE);
+		for (int i = 0; i < 2; i++) {
+			stats.antesDeEjecutar("select ?");
+			stats.registrar("select ?", 1_000, null, false);
+		}
+
+		assertThatThrownBy(() -> stats.antesDeEjecutar("select ?"))
+				.isInstanceOf(PresupuestoSqlExcedidoException.class)
+				.hasMessageContaining("2 sentencias");
+		assertThat(JdbcRequestStats.iniciar(2, false, Long.MAX_VALUE).excedido()).isFalse();
+	}
+}
@@ -0,0 +1,98 @@
+package com.polizas.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LimiteAdaptativoTest {
+
+	@Test
+	void rechazaAlLlegarAlLimite() {
+		LimiteAdaptativo limite = new LimiteAdaptativo(2, 1, 10, Long.MAX_VALUE, 0.5);
+
+		OptionalLong primera = limite.adquirir();
+		assertThat(primera).isPresent();
+		assertThat(limite.adquirir()).isPresent();
+		assertThat(limite.adquirir()).isEmpty();
+
+		limite.liberar(primera.getAsLong(), false);
+		assertThat(limite.adquirir()).isPresent();
+	}
+
+	@Test
+	void creceConRespuestasATiempoSoloSiSeUsa() {
+		LimiteAdaptativo limite = new LimiteAdaptativo(4, 1, 5, Long.MAX_VALUE, 0.5);
+
+		// Una petición a la vez no usa la mitad del límite: no hay motivo para crecer
+		for (int i = 0; i < 20; i++) {
+			limite.liberar(limite.adquirir().getAsLong(), false);
+		}
+		assertThat(limite.getLimite()).isEqualTo(4);
+
+		for (int i = 0; i < 20; i++) {
+			long a = limite.adquirir().getAsLong();
+			long b = limite.adquirir().getAsLong();
+			long c = limite.adquirir().getAsLong();
+			limite.liberar(a, false);
+			limite.liberar(b, false);
+			limite.liberar(c, false);
+		}
+		assertThat(limite.getLimite()).isEqualTo(5);
+	}
+
+	@Test
+	void reduceUnaVezPorVentanaSinBajarDelMinimo() {
+		LimiteAdaptativo limite = new LimiteAdaptativo(16, 2, 16, Long.MAX_VALUE, 0.5);
+		long[] enCurso = new long[8];
+		for (int i = 0; i < enCurso.length; i++) {
+			enCurso[i] = limite.adquirir().getAsLong();
+		}
+
+		// Las fallas de peticiones admitidas antes de la reducción cuentan como una sola señal
+		for (long admitida : enCurso) {
+			limite.liberar(admitida, true);
+		}
+		assertThat(limite.getLimite()).isEqualTo(8);
+		assertThat(limite.getEnCurso()).isZero();
+
+		for (int i = 0; i < 10; i++) {
+			limite.liberar(limite.adquirir().getAsLong(), true);
+		}
+		assertThat(limite.getLimite()).isEqualTo(2);
+	}
+
+	@Test
+	void funcionaConUnRelojNegativo() {
+		// System.nanoTime puede empezar en cualquier valor, también negativo, y cruzar el cero
+		AtomicLong reloj = new AtomicLong(-TimeUnit.SECONDS.toNanos(1));
+		LimiteAdaptativo limite = new LimiteAdaptativo(4, 1, 4, TimeUnit.MILLISECONDS.toNanos(250), 0.5,
+				reloj::get);
+
+		OptionalLong lenta = limite.adquirir();
+		assertThat(lenta).hasValue(-TimeUnit.SECONDS.toNanos(1));
+		reloj.addAndGet(TimeUnit.SECONDS.toNanos(1) - 1);
+		limite.liberar(lenta.getAsLong(), false);
+		assertThat(limite.getLimite()).isEqualTo(2);
+
+		// Admite y mide a tiempo las respuestas de un lado y otro del cero
+		for (int i = 0; i < 10; i++) {
+			OptionalLong rapida = limite.adquirir();
+			assertThat(rapida).isPresent();
+			reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+			limite.liberar(rapida.getAsLong(), false);
+		}
+		assertThat(reloj.get()).isPositive();
+		assertThat(limite.getLimite()).isEqualTo(2);
+
+		// Y una lenta admitida después de la reducción vuelve a reducir
+		lenta = limite.adquirir();
+		reloj.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		limite.liberar(lenta.getAsLong(), false);
+		assertThat(limite.getLimite()).isEqualTo(1);
+		assertThat(limite.getEnCurso()).isZero();
+	}
+}
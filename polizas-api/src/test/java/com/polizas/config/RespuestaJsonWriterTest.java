@@ -0,0 +1,70 @@
+package com.polizas.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.polizas.dto.PageResponseDto;
+import com.polizas.dto.PolizaResponseDto;
+import com.polizas.dto.ResponseDto;
+import com.polizas.model.Inventario;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RespuestaJsonWriterTest {
+
+	// Misma configuración que spring.jackson.* en application.properties
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.simpleDateFormat("yyyy-MM-dd HH:mm:ss")
+			.build();
+
+	private final RespuestaJsonWriter writer = new RespuestaJsonWriter(objectMapper);
+
+	private final List<PolizaResponseDto> polizas = List.of(
+			new PolizaResponseDto(1L, 3, LocalDateTime.of(2024, 5, 1, 8, 30), "José", "Núñez \"Pepe\"",
+					1000L, "Lápiz #2\n"),
+			new PolizaResponseDto(2L, 1, LocalDateTime.of(2024, 5, 1, 8, 30, 15, 123_400_000), null, "Ortiz",
+					1001L, "Cuaderno \\ 100 hojas"),
+			new PolizaResponseDto(3L, 2, LocalDateTime.of(2024, 12, 31, 23, 59, 0, 5), "Ana", "Ruiz", 1002L, "Goma"),
+			new PolizaResponseDto(4L, 2, LocalDateTime.of(10_000, 1, 1, 0, 0), "Ana", "Ruiz", 1002L, "Goma"),
+			new PolizaResponseDto(null, null, null, null, null, null, null));
+
+	@Test
+	void paginaIgualQueJackson() throws IOException {
+		assertCompatible(ResponseDto.success(PageResponseDto.<PolizaResponseDto>builder()
+				.content(polizas)
+				.currentPage(2)
+				.totalItems(1234)
+				.totalPages(50)
+				.build()));
+		assertCompatible(ResponseDto.success(PageResponseDto.<PolizaResponseDto>builder()
+				.content(polizas)
+				.totalItems(-1)
+				.totalPages(-1)
+				.nextCursor("eyJpZCI6Mn0")
+				.hasNext(true)
+				.build()));
+	}
+
+	@Test
+	void otrosDatosIgualQueJackson() throws IOException {
+		assertCompatible(ResponseDto.success(polizas.get(0)));
+		assertCompatible(ResponseDto.success(List.of(new Inventario(1000L, "Lápiz", 5))));
+		assertCompatible(ResponseDto.success(Map.of("mensaje", "Artículo eliminado correctamente")));
+		assertCompatible(ResponseDto.failure("Error al consultar"));
+		assertCompatible(ResponseDto.success(null));
+	}
+
+	private void assertCompatible(ResponseDto<?> respuesta) throws IOException {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		writer.escribir(respuesta, salida);
+		assertThat(salida.toByteArray()).isEqualTo(objectMapper.writeValueAsBytes(respuesta));
+	}
+}
@@ -0,0 +1,106 @@
+package com.polizas.controller;
+
+import com.polizas.PostgresContainerTest;
+import com.polizas.model.ArticuloReferencia;
+import com.polizas.model.Inventario;
+import com.polizas.repository.InventarioRepository;
+import com.polizas.service.ReferenciaCacheService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PreLoadEventListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PUT /inventario/{sku} con una carga del nombre en curso: la carga leyó el nombre anterior antes de confirmar
+ * el cambio y lo intenta guardar en la caché después, sin que quede ahí.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class InventarioControllerCacheTest extends PostgresContainerTest {
+
+	private static final long SKU = 990201L;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ReferenciaCacheService referenciaCacheService;
+
+	@Autowired
+	private InventarioRepository inventarioRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final CountDownLatch leido = new CountDownLatch(1);
+	private final CountDownLatch seguir = new CountDownLatch(1);
+	private volatile Thread frenado;
+
+	@BeforeEach
+	void setUp() {
+		inventarioRepository.save(Inventario.builder().sku(SKU).nombre("Original").cantidad(5).build());
+		referenciaCacheService.invalidarArticulo(SKU);
+		// Entre la lectura de la fila y su escritura en la caché, la carga del hilo frenado espera
+		PreLoadEventListener frenar = evento -> {
+			if (evento.getEntity() instanceof ArticuloReferencia && Thread.currentThread() == frenado) {
+				leido.countDown();
+				try {
+					seguir.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+				.requireService(EventListenerRegistry.class)
+				.appendListeners(EventType.PRE_LOAD, frenar);
+	}
+
+	@AfterEach
+	void liberar() {
+		frenado = null;
+		seguir.countDown();
+	}
+
+	@Test
+	void unaCargaConcurrenteNoDejaElNombreAnteriorEnCache() throws Exception {
+		ExecutorService hilos = Executors.newSingleThreadExecutor();
+		try {
+			Future<Optional<String>> carga = hilos.submit(() -> {
+				frenado = Thread.currentThread();
+				return referenciaCacheService.obtenerNombreArticulo(SKU);
+			});
+			assertThat(leido.await(5, TimeUnit.SECONDS)).isTrue();
+
+			mockMvc.perform(put("/inventario/" + SKU).contentType(MediaType.APPLICATION_JSON)
+							.content("{\"nombre\":\"Renombrado\",\"cantidad\":5}"))
+					.andExpect(status().isOk());
+
+			seguir.countDown();
+			assertThat(carga.get(5, TimeUnit.SECONDS)).contains("Original");
+			assertThat(referenciaCacheService.obtenerNombreArticulo(SKU)).contains("Renombrado");
+		} finally {
+			hilos.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package com.polizas.controller;
+
+import com.polizas.PostgresContainerTest;
+import com.polizas.dto.PolizaLoteResponseDto;
+import com.polizas.dto.PolizaRequestDto;
+import com.polizas.model.Inventario;
+import com.polizas.repository.InventarioRepository;
+import com.polizas.service.PolizaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /polizas/batch: resultado por elemento, límites del lote y descuento por SKU en orden ascendente
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PolizaControllerLoteTest extends PostgresContainerTest {
+
+	private static final long SKU_A = 990101L;
+	private static final long SKU_B = 990102L;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PolizaService polizaService;
+
+	@Autowired
+	private InventarioRepository inventarioRepository;
+
+	@BeforeEach
+	void setUp() {
+		existencia(SKU_A, 5);
+		existencia(SKU_B, 5);
+	}
+
+	@Test
+	void loteMixtoInformaCadaElemento() throws Exception {
+		String cuerpo = "["
+				+ poliza(101, SKU_B, 2) + ","
+				+ poliza(101, SKU_A, 4) + ","
+				+ poliza(102, SKU_A, 3) + ","
+				+ poliza(999999, SKU_A, 1) + ","
+				+ poliza(103, SKU_A, 1) + ","
+				+ poliza(104, 990199L, 1) + "]";
+
+		mockMvc.perform(post("/polizas/batch").contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.creadas").value(3))
+				.andExpect(jsonPath("$.data.fallidas").value(3))
+				.andExpect(jsonPath("$.data.resultados[0].exito").value(true))
+				.andExpect(jsonPath("$.data.resultados[0].poliza.detalleArticulo.sku").value(SKU_B))
+				.andExpect(jsonPath("$.data.resultados[1].exito").value(true))
+				// Solo queda una unidad después del elemento anterior
+				.andExpect(jsonPath("$.data.resultados[2].exito").value(false))
+				.andExpect(jsonPath("$.data.resultados[2].mensaje", startsWith("No hay suficiente cantidad")))
+				.andExpect(jsonPath("$.data.resultados[3].mensaje", startsWith("Empleado no encontrado")))
+				.andExpect(jsonPath("$.data.resultados[4].exito").value(true))
+				.andExpect(jsonPath("$.data.resultados[5].mensaje", startsWith("Artículo no encontrado")));
+
+		assertThat(inventarioRepository.findBySku(SKU_A).orElseThrow().getCantidad()).isZero();
+		assertThat(inventarioRepository.findBySku(SKU_B).orElseThrow().getCantidad()).isEqualTo(3);
+	}
+
+	@Test
+	void loteVacioExcesivoOConElementosInvalidosSeRechazaCompleto() throws Exception {
+		StringJoiner excesivo = new StringJoiner(",", "[", "]");
+		for (int i = 0; i < 1001; i++) {
+			excesivo.add(poliza(101, SKU_A, 1));
+		}
+		List<String> cuerpos = List.of("[]", excesivo.toString(),
+				"[" + poliza(101, SKU_A, 1) + ",{\"empleadoGenero\":101,\"sku\":" + SKU_A + "}]",
+				"[" + poliza(101, SKU_A, 1) + "," + poliza(101, SKU_A, 0) + "]");
+
+		for (String cuerpo : cuerpos) {
+			mockMvc.perform(post("/polizas/batch").contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.meta.status").value("FAILURE"));
+		}
+		assertThat(inventarioRepository.findBySku(SKU_A).orElseThrow().getCantidad()).isEqualTo(5);
+
+		// Los errores de validación llevan el índice del elemento
+		mockMvc.perform(post("/polizas/batch").contentType(MediaType.APPLICATION_JSON).content(cuerpos.get(3)))
+				.andExpect(jsonPath("$.data.errores['polizas[1].cantidad']").value("La cantidad debe ser mayor a cero"));
+	}
+
+	@Test
+	void lotesConcurrentesEnOrdenInversoNoSeBloqueanNiSobrevenden() throws Exception {
+		int existenciaInicial = 150;
+		int lotes = 240;
+		existencia(SKU_A, existenciaInicial);
+		existencia(SKU_B, existenciaInicial);
+
+		// La mitad de los lotes pide A y luego B, la otra mitad al revés: sin orden de bloqueo habría interbloqueos
+		AtomicInteger creadas = new AtomicInteger();
+		CountDownLatch salida = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> tareas = new ArrayList<>();
+		for (int i = 0; i < lotes; i++) {
+			List<Long> skus = i % 2 == 0 ? List.of(SKU_A, SKU_B) : List.of(SKU_B, SKU_A);
+			tareas.add(executor.submit(() -> {
+				salida.await();
+				PolizaLoteResponseDto lote = polizaService.crearPolizasLote(skus.stream()
+						.map(sku -> PolizaRequestDto.builder().empleadoGenero(101L).sku(sku).cantidad(1).build())
+						.toList());
+				creadas.addAndGet(lote.getCreadas());
+				return null;
+			}));
+		}
+
+		salida.countDown();
+		for (Future<?> tarea : tareas) {
+			tarea.get();
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+		assertThat(creadas.get()).isEqualTo(2 * existenciaInicial);
+		assertThat(inventarioRepository.findBySku(SKU_A).orElseThrow().getCantidad()).isZero();
+		assertThat(inventarioRepository.findBySku(SKU_B).orElseThrow().getCantidad()).isZero();
+	}
+
+	private void existencia(long sku, int cantidad) {
+		inventarioRepository.save(Inventario.builder()
+				.sku(sku)
+				.nombre("Artículo de prueba de lotes " + sku)
+				.cantidad(cantidad)
+				.build());
+	}
+
+	private static String poliza(long empleado, long sku, int cantidad) {
+		return "{\"empleadoGenero\":" + empleado + ",\"sku\":" + sku + ",\"cantidad\":" + cantidad + "}";
+	}
+}
@@ -0,0 +1,102 @@
+package com.polizas.controller;
+
+import com.polizas.PostgresContainerTest;
+import com.polizas.repository.EmpleadoRepository;
+import com.polizas.repository.PolizaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.StringJoiner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los endpoints de pólizas dentro de su @PresupuestoSql (estricto en estas pruebas: excederlo da 500)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PolizaControllerPresupuestoTest extends PostgresContainerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmpleadoRepository empleadoRepository;
+
+	@Autowired
+	private PolizaRepository polizaRepository;
+
+	@Test
+	void consultasDentroDelPresupuesto() throws Exception {
+		mockMvc.perform(get("/polizas/1"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Server-Timing", containsString("\"1 sentencias\"")));
+		// Con filtro se ejecuta la consulta de detalle filtrada y solo regresa pólizas de ese empleado
+		String nombre = empleadoRepository.findById(105L).orElseThrow().getNombre();
+		mockMvc.perform(get("/polizas/paginated").param("empleadoId", "105").param("sku", "1000"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.content").isNotEmpty())
+				.andExpect(jsonPath("$.data.content[*].empleado.nombre", everyItem(is(nombre))))
+				.andExpect(jsonPath("$.data.content[*].detalleArticulo.sku", everyItem(is(1000))));
+	}
+
+	@Test
+	void soloLasAltasPidenSkuYCantidad() throws Exception {
+		long empleado = polizaRepository.findByIdPoliza(1L).orElseThrow().getEmpleadoGenero();
+		mockMvc.perform(put("/polizas/1").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"empleadoGenero\":" + empleado + "}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.meta.status").value("OK"));
+		mockMvc.perform(put("/polizas/1").contentType(MediaType.APPLICATION_JSON).content("{}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.data.errores.empleadoGenero").value("El empleado es obligatorio"));
+		mockMvc.perform(post("/polizas").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"empleadoGenero\":" + empleado + "}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.data.errores.sku").value("El SKU es obligatorio"))
+				.andExpect(jsonPath("$.data.errores.cantidad").value("La cantidad es obligatoria"));
+	}
+
+	@Test
+	void loteNoEjecutaUnaSentenciaPorSku() throws Exception {
+		// Llena la caché de empleados y toma un bloque de la secuencia
+		lote(10);
+		int unSku = sentencias(lote(1));
+		int diezSku = sentencias(lote(10));
+
+		// A lo más un bloque más de la secuencia; con un descuento por SKU serían nueve sentencias más
+		assertThat(diezSku).isBetween(unSku, unSku + 1);
+	}
+
+	// Diez pólizas de una unidad repartidas en el número de SKU indicado; devuelve el Server-Timing
+	private String lote(int skus) throws Exception {
+		StringJoiner cuerpo = new StringJoiner(",", "[", "]");
+		for (int i = 0; i < 10; i++) {
+			cuerpo.add("{\"empleadoGenero\":" + (101 + i % 5) + ",\"sku\":" + (1000 + i % skus) + ",\"cantidad\":1}");
+		}
+		return mockMvc.perform(post("/polizas/batch").contentType(MediaType.APPLICATION_JSON).content(cuerpo.toString()))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getHeader("Server-Timing");
+	}
+
+	// db;dur=12.3;desc="6 sentencias"
+	private static int sentencias(String serverTiming) {
+		String desc = serverTiming.substring(serverTiming.indexOf("desc=\"") + 6);
+		return Integer.parseInt(desc.substring(0, desc.indexOf(' ')));
+	}
+}
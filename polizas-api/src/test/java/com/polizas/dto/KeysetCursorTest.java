@@ -0,0 +1,90 @@
+package com.polizas.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+	@Test
+	void ida_y_vueltaConservaClaveEId() {
+		String fecha = LocalDateTime.of(2026, 10, 17, 9, 30, 15, 123_456_789).toString();
+		assertThat(KeysetCursor.decode(new KeysetCursor(fecha, 42L).encode()))
+				.isEqualTo(new KeysetCursor(fecha, 42L));
+		assertThat(KeysetCursor.decode(KeysetCursor.of(7L).encode())).isEqualTo(KeysetCursor.of(7L));
+		// El ID va después del último separador: la clave puede contenerlo
+		assertThat(KeysetCursor.decode(new KeysetCursor("a|b", 3L).encode())).isEqualTo(new KeysetCursor("a|b", 3L));
+		// Seguro para URL: sin '+', '/' ni relleno
+		assertThat(new KeysetCursor("??>>~~", Long.MAX_VALUE).encode()).doesNotContain("+", "/", "=");
+	}
+
+	@Test
+	void cursoresAlteradosOInvalidosSeRechazan() {
+		String valido = new KeysetCursor("2026-10-17T09:30:15", 42L).encode();
+		List<String> invalidos = List.of(
+				"%%%",
+				valido + "*",
+				base64("sin-separador"),
+				base64("2026-10-17T09:30:15|"),
+				base64("2026-10-17T09:30:15|42x"),
+				base64("|99999999999999999999"));
+
+		for (String cursor : invalidos) {
+			assertThatThrownBy(() -> KeysetCursor.decode(cursor))
+					.isInstanceOf(IllegalArgumentException.class)
+					.hasMessageStartingWith("Cursor inválido");
+		}
+	}
+
+	@Test
+	void paginarConFechasRepetidasNoPierdeNiRepiteFilas() {
+		// Varias pólizas con la misma fecha, como las de un lote: el ID desempata
+		LocalDateTime base = LocalDateTime.of(2026, 10, 17, 9, 0, 0, 500_000_000);
+		List<Fila> filas = new ArrayList<>();
+		for (long id = 1; id <= 23; id++) {
+			filas.add(new Fila(base.plusSeconds(id / 5), 100 - id));
+		}
+		filas.sort(Comparator.comparing(Fila::fecha).thenComparing(Fila::id));
+
+		List<Fila> recorridas = new ArrayList<>();
+		String cursor = null;
+		do {
+			List<Fila> pagina = siguientePagina(filas, cursor, 4);
+			recorridas.addAll(pagina);
+			Fila ultima = pagina.get(pagina.size() - 1);
+			cursor = recorridas.size() < filas.size()
+					? new KeysetCursor(ultima.fecha().toString(), ultima.id()).encode()
+					: null;
+		} while (cursor != null);
+
+		assertThat(recorridas).containsExactlyElementsOf(filas);
+	}
+
+	// Mismo predicado que PolizaRepository.findDetalleDespuesDeFecha: fecha >= x AND (fecha > x OR id > y)
+	private static List<Fila> siguientePagina(List<Fila> filas, String cursor, int tamano) {
+		if (cursor == null) {
+			return filas.subList(0, tamano);
+		}
+		KeysetCursor ultimo = KeysetCursor.decode(cursor);
+		LocalDateTime fecha = LocalDateTime.parse(ultimo.getClave());
+		return filas.stream()
+				.filter(fila -> !fila.fecha().isBefore(fecha) && (fila.fecha().isAfter(fecha) || fila.id() > ultimo.getId()))
+				.limit(tamano)
+				.toList();
+	}
+
+	private static String base64(String valor) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private record Fila(LocalDateTime fecha, long id) {
+	}
+}
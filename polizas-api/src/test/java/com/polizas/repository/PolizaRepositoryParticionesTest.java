@@ -0,0 +1,105 @@
+package com.polizas.repository;
+
+import com.polizas.PostgresContainerTest;
+import com.polizas.dto.PolizaResponseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtro de fechas [desde, hasta) de PolizaRepository y particiones mensuales de V9. Usa meses lejanos, sin
+ * partición previa; cada prueba se revierte, también las particiones que crea.
+ */
+@SpringBootTest
+@Transactional
+class PolizaRepositoryParticionesTest extends PostgresContainerTest {
+
+	private static final LocalDateTime MAYO = LocalDateTime.of(2030, 5, 1, 0, 0);
+	private static final LocalDateTime JUNIO = LocalDateTime.of(2030, 6, 1, 0, 0);
+
+	@Autowired
+	private PolizaRepository polizaRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void rangoIncluyeDesdeYExcluyeHasta() {
+		long enDesde = insertar(MAYO);
+		long dentro = insertar(MAYO.plusDays(14));
+		long ultimoInstante = insertar(JUNIO.minusNanos(1000));
+		long enHasta = insertar(JUNIO);
+		long antes = insertar(MAYO.minusNanos(1000));
+
+		List<Long> pagina = ids(polizaRepository.findDetalleByFilters(null, null, MAYO, JUNIO, PageRequest.of(0, 10))
+				.getContent());
+		assertThat(pagina).containsExactlyInAnyOrder(enDesde, dentro, ultimoInstante);
+
+		try (Stream<PolizaResponseDto> flujo = polizaRepository.streamDetalle(MAYO, JUNIO)) {
+			assertThat(ids(flujo.toList())).containsExactly(enDesde, dentro, ultimoInstante);
+		}
+		// Con un solo límite el otro queda abierto
+		assertThat(ids(polizaRepository.findDetalleByFilters(null, null, JUNIO, null, PageRequest.of(0, 10))
+				.getContent())).contains(enHasta).doesNotContain(antes, enDesde);
+		assertThat(ids(polizaRepository.findDetalleByFilters(null, null, null, MAYO,
+				PageRequest.of(0, 10, Sort.by("fecha").descending())).getContent()))
+				.startsWith(antes).doesNotContain(enDesde, enHasta);
+	}
+
+	@Test
+	void lasPolizasCaenEnSuParticionMensual() {
+		assertThat(polizaRepository.crearParticiones(MAYO.toLocalDate(), JUNIO.toLocalDate())).isEqualTo(2);
+
+		assertThat(particion(insertar(MAYO))).isEqualTo("polizas_203005");
+		assertThat(particion(insertar(JUNIO.minusNanos(1000)))).isEqualTo("polizas_203005");
+		assertThat(particion(insertar(JUNIO))).isEqualTo("polizas_203006");
+
+		// Un mes sin partición va a la de por defecto, y al crearla la fila se mueve
+		long sinParticion = insertar(LocalDateTime.of(2030, 9, 10, 12, 0));
+		assertThat(particion(sinParticion)).isEqualTo("polizas_default");
+		assertThat(polizaRepository.crearParticiones(LocalDate.of(2030, 9, 1), LocalDate.of(2030, 9, 1))).isEqualTo(1);
+		assertThat(particion(sinParticion)).isEqualTo("polizas_203009");
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM polizas_default WHERE fecha >= '2030-09-01' "
+				+ "AND fecha < '2030-10-01'", Long.class)).isZero();
+	}
+
+	@Test
+	void crearParticionesEsIdempotente() {
+		LocalDate desde = LocalDate.of(2031, 1, 15);
+		LocalDate hasta = LocalDate.of(2031, 3, 1);
+		assertThat(polizaRepository.crearParticiones(desde, hasta)).isEqualTo(3);
+		long poliza = insertar(LocalDateTime.of(2031, 2, 3, 8, 30));
+
+		assertThat(polizaRepository.crearParticiones(desde, hasta)).isZero();
+		// Un rango que se traslapa solo crea los meses que faltan
+		assertThat(polizaRepository.crearParticiones(hasta, LocalDate.of(2031, 4, 30))).isEqualTo(1);
+		assertThat(particion(poliza)).isEqualTo("polizas_203102");
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM pg_inherits WHERE inhparent = 'polizas'::regclass "
+				+ "AND inhrelid::regclass::text LIKE 'polizas_2031%'", Long.class)).isEqualTo(4);
+	}
+
+	private long insertar(LocalDateTime fecha) {
+		return jdbcTemplate.queryForObject("INSERT INTO polizas (empleado_genero, sku, cantidad, fecha) "
+				+ "VALUES (101, 1000, 1, ?) RETURNING id_poliza", Long.class, fecha);
+	}
+
+	private String particion(long idPoliza) {
+		return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM polizas WHERE id_poliza = ?",
+				String.class, idPoliza);
+	}
+
+	private static List<Long> ids(List<PolizaResponseDto> polizas) {
+		return polizas.stream().map(poliza -> poliza.getPoliza().getIdPoliza()).toList();
+	}
+}
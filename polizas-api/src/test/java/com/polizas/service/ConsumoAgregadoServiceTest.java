@@ -0,0 +1,92 @@
+package com.polizas.service;
+
+import com.polizas.PostgresContainerTest;
+import com.polizas.dto.ConsumoDto;
+import com.polizas.dto.PolizaLoteResponseDto;
+import com.polizas.dto.PolizaRequestDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los agregados que mantienen las altas, los lotes y las bajas de pólizas son los mismos que reconstruir() calcula
+ * desde polizas. El SKU 1002 usa reservas en memoria: su agregado por SKU llega al volcar las pendientes, que
+ * aquí se aplican a mano (sin planificador).
+ */
+@SpringBootTest(properties = {
+		"app.scheduling.enabled=false",
+		"app.inventario.reservas.enabled=true",
+		"app.inventario.reservas.skus=1002"
+})
+class ConsumoAgregadoServiceTest extends PostgresContainerTest {
+
+	private static final long SKU_RESERVAS = 1002L;
+	private static final int SIN_LIMITE = 100_000;
+
+	@Autowired
+	private PolizaService polizaService;
+
+	@Autowired
+	private ConsumoAgregadoService consumoAgregadoService;
+
+	@Autowired
+	private ReservaInventarioService reservaInventarioService;
+
+	@Test
+	void incrementalesIgualesALaReconstruccion() {
+		consumoAgregadoService.reconstruir();
+		YearMonth mes = YearMonth.now();
+		long unidadesAntes = unidadesSku(mes, SKU_RESERVAS);
+
+		polizaService.crearPoliza(solicitud(101L, 1000L, 3));
+		long borrable = polizaService.crearPoliza(solicitud(102L, 1001L, 2)).getPoliza().getIdPoliza();
+		long reservaPendiente = polizaService.crearPoliza(solicitud(103L, SKU_RESERVAS, 4)).getPoliza().getIdPoliza();
+		PolizaLoteResponseDto lote = polizaService.crearPolizasLote(List.of(
+				solicitud(101L, 1000L, 1),
+				solicitud(102L, 1000L, 2),
+				solicitud(102L, 1001L, 5),
+				solicitud(103L, SKU_RESERVAS, 6),
+				solicitud(101L, SKU_RESERVAS, 1)));
+		assertThat(lote.getCreadas()).isEqualTo(5);
+
+		polizaService.eliminarPoliza(borrable);
+		// Su descuento seguía pendiente: se revierte sin tocar el agregado por SKU
+		polizaService.eliminarPoliza(reservaPendiente);
+
+		// El SKU con reservas no suma en la transacción de la póliza (incluirSku=false), solo al volcar
+		assertThat(unidadesSku(mes, SKU_RESERVAS)).isEqualTo(unidadesAntes);
+		reservaInventarioService.aplicarPendientes();
+		assertThat(unidadesSku(mes, SKU_RESERVAS)).isEqualTo(unidadesAntes + 7);
+
+		// Ya aplicada, la baja sí resta del agregado por SKU
+		long reservaAplicada = lote.getResultados().get(4).getPoliza().getPoliza().getIdPoliza();
+		polizaService.eliminarPoliza(reservaAplicada);
+
+		List<ConsumoDto.SkuDto> skus = consumoAgregadoService.topSkus(mes, SIN_LIMITE);
+		List<ConsumoDto.EmpleadoDto> empleados = consumoAgregadoService.topEmpleados(mes, SIN_LIMITE);
+		List<ConsumoDto.DiaDto> dias = consumoAgregadoService.porDia(mes.atDay(1), mes.atEndOfMonth());
+
+		consumoAgregadoService.reconstruir();
+		assertThat(skus).isEqualTo(consumoAgregadoService.topSkus(mes, SIN_LIMITE));
+		assertThat(empleados).isEqualTo(consumoAgregadoService.topEmpleados(mes, SIN_LIMITE));
+		assertThat(dias).isEqualTo(consumoAgregadoService.porDia(mes.atDay(1), mes.atEndOfMonth()));
+		assertThat(dias).extracting(ConsumoDto.DiaDto::getFecha).contains(LocalDate.now());
+	}
+
+	private long unidadesSku(YearMonth mes, long sku) {
+		return consumoAgregadoService.topSkus(mes, SIN_LIMITE).stream()
+				.filter(fila -> fila.getSku() == sku)
+				.mapToLong(ConsumoDto.SkuDto::getUnidades)
+				.sum();
+	}
+
+	private static PolizaRequestDto solicitud(Long empleado, Long sku, int cantidad) {
+		return PolizaRequestDto.builder().empleadoGenero(empleado).sku(sku).cantidad(cantidad).build();
+	}
+}
@@ -0,0 +1,63 @@
+package com.polizas.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContadorReservasTest {
+
+	@Test
+	void reservasConcurrentesNoExcedenLaExistencia() throws Exception {
+		ContadorReservas contador = new ContadorReservas(8, 1000);
+		List<Callable<Integer>> tareas = new ArrayList<>();
+		for (int hilo = 0; hilo < 16; hilo++) {
+			tareas.add(() -> {
+				int concedidas = 0;
+				for (int i = 0; i < 500; i++) {
+					if (contador.reservar(3)) {
+						concedidas++;
+					}
+				}
+				return concedidas;
+			});
+		}
+
+		int unidades = 0;
+		try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+			for (Future<Integer> resultado : executor.invokeAll(tareas)) {
+				unidades += resultado.get() * 3;
+			}
+		}
+
+		// 1000 no es múltiplo de 3: el último remanente no alcanza para otra reserva aunque esté repartido
+		assertThat(unidades).isEqualTo(999);
+		assertThat(contador.disponible()).isEqualTo(1);
+	}
+
+	@Test
+	void juntaLasFranjasCuandoNingunaAlcanza() {
+		ContadorReservas contador = new ContadorReservas(8, 80);
+
+		assertThat(contador.reservar(75)).isTrue();
+		assertThat(contador.reservar(6)).isFalse();
+		assertThat(contador.disponible()).isEqualTo(5);
+	}
+
+	@Test
+	void ajustarNuncaDejaLaExistenciaNegativa() {
+		ContadorReservas contador = new ContadorReservas(4, 10);
+
+		contador.ajustar(5);
+		assertThat(contador.disponible()).isEqualTo(15);
+		contador.ajustar(-20);
+		assertThat(contador.disponible()).isZero();
+		assertThat(contador.reservar(1)).isFalse();
+	}
+}
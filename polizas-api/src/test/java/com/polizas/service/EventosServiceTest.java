@@ -0,0 +1,192 @@
+package com.polizas.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polizas.controller.EventosController;
+import com.polizas.dto.EventoCambioDto;
+import com.polizas.dto.EventoCambioDto.Operacion;
+import com.polizas.dto.EventoCambioDto.Tipo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * EventosService con emisores SSE reales detrás de EventosController, sin contexto de Spring. El conversor
+ * de texto puede frenarse para simular un cliente que no consume sus eventos.
+ */
+class EventosServiceTest {
+
+	private static final Pattern ID = Pattern.compile("^id:(.+)$", Pattern.MULTILINE);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ConversorFrenable conversor = new ConversorFrenable();
+	private EventosService eventosService;
+	private MockMvc mockMvc;
+
+	@AfterEach
+	void detener() {
+		conversor.soltar();
+		eventosService.detener();
+	}
+
+	@Test
+	void losIdsLlevanLaInstanciaYLastEventIdReanudaDesdeElHistorial() throws Exception {
+		iniciar(2, 16);
+		MvcResult primero = suscribir(null);
+		eventosService.publicar(poliza(1L));
+		eventosService.publicar(List.of(poliza(2L), inventario(1000L)));
+
+		List<String> ids = esperarIds(primero, 3);
+		String instancia = ids.get(0).substring(0, ids.get(0).lastIndexOf('-'));
+		assertThat(instancia).isNotEmpty();
+		assertThat(ids).containsExactly(instancia + "-1", instancia + "-2", instancia + "-3");
+		assertThat(primero.getResponse().getContentAsString())
+				.contains("event:poliza", "event:inventario", "\"idPoliza\":2");
+
+		// Con historial de 2, desde el primero aún están los dos siguientes
+		MvcResult reanudado = suscribir(ids.get(0));
+		assertThat(esperarIds(reanudado, 2)).containsExactly(instancia + "-2", instancia + "-3");
+		assertThat(reanudado.getResponse().getContentAsString()).doesNotContain("\"idPoliza\":1,");
+
+		// Lo que salió del historial, un ID de otra instancia o uno futuro piden reiniciar
+		for (String ultimoId : List.of(instancia + "-0", "otra-2", instancia + "-9", "sin-numero-x")) {
+			MvcResult reiniciado = suscribir(ultimoId);
+			assertThat(esperarIds(reiniciado, 1)).containsExactly(instancia + "-3");
+			assertThat(reiniciado.getResponse().getContentAsString()).contains("event:reiniciar");
+		}
+
+		// Los suscriptores reanudados siguen recibiendo lo nuevo
+		eventosService.publicar(poliza(4L));
+		assertThat(esperarIds(reanudado, 3)).last().isEqualTo(instancia + "-4");
+	}
+
+	@Test
+	void seDesconectaAlSuscriptorLentoCuandoSuColaSeLlena() throws Exception {
+		iniciar(16, 2);
+		MvcResult lento = suscribir(null);
+		esperarContenido(lento, "retry:");
+		assertThat(meterRegistry.get(EventosService.METRICA_SUSCRIPTORES).gauge().value()).isEqualTo(1);
+
+		// El envío de la primera publicación se queda esperando al cliente; las dos siguientes llenan la cola
+		conversor.frenar();
+		eventosService.publicar(poliza(1L));
+		assertThat(conversor.enEspera.await(5, TimeUnit.SECONDS)).isTrue();
+		eventosService.publicar(poliza(2L));
+		eventosService.publicar(poliza(3L));
+		assertThat(meterRegistry.get(EventosService.METRICA_DESCONECTADOS).counter().count()).isZero();
+
+		// Quien publica no espera: la cuarta no cabe y el suscriptor sale
+		eventosService.publicar(poliza(4L));
+		assertThat(meterRegistry.get(EventosService.METRICA_DESCONECTADOS).counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get(EventosService.METRICA_SUSCRIPTORES).gauge().value()).isZero();
+
+		// Al liberar al cliente, la conexión se cierra sin la publicación que no cupo
+		conversor.soltar();
+		lento.getAsyncResult(5000);
+		assertThat(lento.getResponse().getContentAsString()).doesNotContain("\"idPoliza\":4,");
+	}
+
+	private void iniciar(int historial, int buffer) {
+		eventosService = new EventosService(new ObjectMapper(), meterRegistry);
+		ReflectionTestUtils.setField(eventosService, "capacidadHistorial", historial);
+		ReflectionTestUtils.setField(eventosService, "capacidadBuffer", buffer);
+		eventosService.iniciar();
+		mockMvc = MockMvcBuilders.standaloneSetup(new EventosController(eventosService))
+				.setMessageConverters(conversor)
+				.build();
+	}
+
+	private MvcResult suscribir(String ultimoId) throws Exception {
+		return mockMvc.perform(ultimoId != null ? get("/eventos").header("Last-Event-ID", ultimoId) : get("/eventos"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+	}
+
+	// Los envíos salen de un hilo virtual: se espera a que aparezcan en la respuesta
+	private static List<String> esperarIds(MvcResult resultado, int cuantos) throws Exception {
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		List<String> ids;
+		do {
+			Matcher matcher = ID.matcher(resultado.getResponse().getContentAsString());
+			ids = matcher.results().map(match -> match.group(1)).toList();
+			if (ids.size() >= cuantos) {
+				return ids;
+			}
+			Thread.sleep(10);
+		} while (System.nanoTime() < limite);
+		return ids;
+	}
+
+	private static void esperarContenido(MvcResult resultado, String texto) throws Exception {
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!resultado.getResponse().getContentAsString().contains(texto) && System.nanoTime() < limite) {
+			Thread.sleep(10);
+		}
+		assertThat(resultado.getResponse().getContentAsString()).contains(texto);
+	}
+
+	private static EventoCambioDto poliza(long idPoliza) {
+		return EventoCambioDto.builder().tipo(Tipo.POLIZA).operacion(Operacion.CREAR).idPoliza(idPoliza)
+				.sku(1000L).build();
+	}
+
+	private static EventoCambioDto inventario(long sku) {
+		return EventoCambioDto.builder().tipo(Tipo.INVENTARIO).operacion(Operacion.ACTUALIZAR).sku(sku).cantidad(5)
+				.build();
+	}
+
+	/**
+	 * Escribe texto como StringHttpMessageConverter; frenado, cada escritura espera a que se suelte
+	 */
+	private static final class ConversorFrenable extends StringHttpMessageConverter {
+		private final CountDownLatch enEspera = new CountDownLatch(1);
+		private volatile CountDownLatch freno;
+
+		private ConversorFrenable() {
+			super(StandardCharsets.UTF_8);
+		}
+
+		void frenar() {
+			freno = new CountDownLatch(1);
+		}
+
+		void soltar() {
+			CountDownLatch actual = freno;
+			freno = null;
+			if (actual != null) {
+				actual.countDown();
+			}
+		}
+
+		@Override
+		protected void writeInternal(String texto, HttpOutputMessage salida) throws IOException {
+			CountDownLatch actual = freno;
+			if (actual != null) {
+				enEspera.countDown();
+				try {
+					actual.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			super.writeInternal(texto, salida);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.polizas.service;
+
+import com.polizas.model.Inventario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndiceBusquedaInventarioTest {
+
+	private IndiceBusquedaInventario indice;
+
+	@BeforeEach
+	void setUp() {
+		List<Inventario> articulos = List.of(
+				new Inventario(1000L, "Lápiz #2", 500),
+				new Inventario(1001L, "Bolígrafo negro", 350),
+				new Inventario(1002L, "Portalápiz metálico", 40),
+				new Inventario(1003L, "Lapicero azul", 80),
+				new Inventario(1004L, "Cuaderno profesional", 200));
+		indice = new IndiceBusquedaInventario();
+		indice.construir(ultimoSku -> articulos.stream().filter(a -> a.getSku() > ultimoSku).toList());
+	}
+
+	@Test
+	void buscaSinDistinguirAcentosNiMayusculas() {
+		assertThat(indice.isListo()).isTrue();
+		assertThat(indice.buscar("LAPIZ", 10)).containsExactly(1000L, 1002L);
+		assertThat(indice.buscar("boligrafo", 10)).containsExactly(1001L);
+	}
+
+	@Test
+	void ordenaPorRelevancia() {
+		// Prefijo del nombre (el más corto primero) antes que coincidencia en medio de una palabra
+		assertThat(indice.buscar("lapi", 10)).containsExactly(1000L, 1003L, 1002L);
+		assertThat(indice.buscar("lapi", 2)).containsExactly(1000L, 1003L);
+		assertThat(indice.buscar("azul", 10)).containsExactly(1003L);
+	}
+
+	@Test
+	void aplicaAltasCambiosYBajas() {
+		indice.guardar(1005L, "Lápiz adhesivo");
+		indice.guardar(1000L, "Goma de borrar");
+		indice.eliminar(1002L);
+
+		assertThat(indice.skusQueContienen("lapiz")).containsExactly(1005L);
+		assertThat(indice.skusQueContienen("goma")).containsExactly(1000L);
+		assertThat(indice.getTamano()).isEqualTo(5);
+	}
+
+	@Test
+	void consultasCortasYSinCoincidencias() {
+		assertThat(indice.skusQueContienen("ro")).containsExactly(1001L, 1003L, 1004L);
+		assertThat(indice.buscar("tijeras", 10)).isEmpty();
+		assertThat(indice.buscar("  ", 10)).isEmpty();
+	}
+}
@@ -0,0 +1,101 @@
+package com.polizas.service;
+
+import com.polizas.PostgresContainerTest;
+import com.polizas.dto.InventarioImportacionDto;
+import com.polizas.dto.PolizaRequestDto;
+import com.polizas.repository.InventarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * La importación reemplaza la existencia de un SKU con reservas en memoria sin contar dos veces la póliza que
+ * confirma mientras tanto: la espera, aplica su pendiente y después escribe la cantidad del archivo.
+ */
+@SpringBootTest(properties = {
+		"app.scheduling.enabled=false",
+		"app.inventario.reservas.enabled=true",
+		"app.inventario.reservas.skus=1003"
+})
+class InventarioImportacionServiceTest extends PostgresContainerTest {
+
+	private static final long SKU_RESERVAS = 1003L;
+
+	@Autowired
+	private InventarioImportacionService inventarioImportacionService;
+
+	@Autowired
+	private PolizaService polizaService;
+
+	@Autowired
+	private ReservaInventarioService reservaInventarioService;
+
+	@Autowired
+	private InventarioRepository inventarioRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void laImportacionEsperaALasPolizasEnCursoDelSku() throws Exception {
+		String nombre = inventarioRepository.findBySku(SKU_RESERVAS).orElseThrow().getNombre();
+		String csv = "sku,nombre,cantidad\n" + SKU_RESERVAS + ",\"" + nombre.replace("\"", "\"\"") + "\",100\n";
+		CountDownLatch grabada = new CountDownLatch(1);
+		CountDownLatch confirmar = new CountDownLatch(1);
+		ExecutorService hilos = Executors.newFixedThreadPool(2);
+		try {
+			// Una póliza del SKU grabada (con su pendiente) y sin confirmar
+			Future<?> poliza = hilos.submit(() -> new TransactionTemplate(transactionManager)
+					.executeWithoutResult(estado -> {
+						polizaService.crearPoliza(PolizaRequestDto.builder()
+								.empleadoGenero(101L)
+								.sku(SKU_RESERVAS)
+								.cantidad(2)
+								.build());
+						grabada.countDown();
+						esperar(confirmar);
+					}));
+			assertThat(grabada.await(5, TimeUnit.SECONDS)).isTrue();
+
+			Future<InventarioImportacionDto> importacion = hilos.submit(() -> inventarioImportacionService
+					.importar(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+			assertThatThrownBy(() -> importacion.get(500, TimeUnit.MILLISECONDS))
+					.isInstanceOf(TimeoutException.class);
+
+			confirmar.countDown();
+			poliza.get(5, TimeUnit.SECONDS);
+			assertThat(importacion.get(5, TimeUnit.SECONDS).getActualizadas()).isEqualTo(1);
+		} finally {
+			confirmar.countDown();
+			hilos.shutdown();
+		}
+
+		// Ninguna pendiente sobrevive a la importación para descontarse de la cantidad nueva
+		reservaInventarioService.aplicarPendientes();
+		reservaInventarioService.recargarTodos();
+		assertThat(inventarioRepository.findBySku(SKU_RESERVAS).orElseThrow().getCantidad()).isEqualTo(100);
+		assertThat(reservaInventarioService.existencia(SKU_RESERVAS)).isEqualTo(100);
+	}
+
+	private static void esperar(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.polizas.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LectorCsvTest {
+
+	@Test
+	void leeCamposEntreComillasYSaltosDeLinea() throws IOException {
+		List<LectorCsv.Registro> registros = leer(
+				"1,\"Tornillo, 3/8\",10\r\n\n2,\"Llave \"\"inglesa\"\"\",5\n3,\"Caja\ncon tapa\",7\n4,Tuerca,1", 4096);
+
+		assertThat(registros).hasSize(4);
+		assertThat(registros.get(0).campos()).containsExactly("1", "Tornillo, 3/8", "10");
+		assertThat(registros.get(1).linea()).isEqualTo(3);
+		assertThat(registros.get(1).campos()).containsExactly("2", "Llave \"inglesa\"", "5");
+		assertThat(registros.get(2).campos()).containsExactly("3", "Caja\ncon tapa", "7");
+		assertThat(registros.get(3).linea()).isEqualTo(6);
+		assertThat(registros.get(3).campos()).containsExactly("4", "Tuerca", "1");
+	}
+
+	@Test
+	void registroDemasiadoLargoNoArrastraAlSiguiente() throws IOException {
+		List<LectorCsv.Registro> registros = leer("1,abcdefghijklmnopqrstuvwxyz,3\n2,corto,4\n", 16);
+
+		assertThat(registros).hasSize(2);
+		assertThat(registros.get(0).error()).contains("16");
+		assertThat(registros.get(1).linea()).isEqualTo(2);
+		assertThat(registros.get(1).campos()).containsExactly("2", "corto", "4");
+	}
+
+	@Test
+	void comillasSinCerrarAlFinalSonUnError() throws IOException {
+		List<LectorCsv.Registro> registros = leer("1,ok,2\n2,\"sin cerrar,3\n", 4096);
+
+		assertThat(registros).hasSize(2);
+		assertThat(registros.get(0).error()).isNull();
+		assertThat(registros.get(1).linea()).isEqualTo(2);
+		assertThat(registros.get(1).error()).isEqualTo("Comillas sin cerrar");
+	}
+
+	private static List<LectorCsv.Registro> leer(String csv, int largoMaximo) throws IOException {
+		LectorCsv lector = new LectorCsv(new StringReader(csv), largoMaximo);
+		List<LectorCsv.Registro> registros = new ArrayList<>();
+		LectorCsv.Registro registro;
+		while ((registro = lector.siguiente()) != null) {
+			registros.add(registro);
+		}
+		return registros;
+	}
+}
@@ -0,0 +1,118 @@
+package com.polizas.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LecturaCoalescidaTest {
+
+	private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+
+	@AfterEach
+	void cerrar() {
+		hilos.shutdownNow();
+	}
+
+	@Test
+	void lecturasSimultaneasCompartenUnaCargaSinFrenarOtrasClaves() throws Exception {
+		LecturaCoalescida<Long, String> lectura = new LecturaCoalescida<>(0);
+		AtomicInteger cargas = new AtomicInteger();
+		CountDownLatch liberar = new CountDownLatch(1);
+		Supplier<String> lenta = () -> {
+			cargas.incrementAndGet();
+			esperar(liberar);
+			return "poliza-1";
+		};
+
+		List<Future<String>> resultados = new ArrayList<>();
+		resultados.add(hilos.submit(() -> lectura.obtener(1L, lenta, r -> { })));
+		while (cargas.get() == 0) {
+			Thread.onSpinWait();
+		}
+		AtomicInteger unidas = new AtomicInteger();
+		for (int i = 0; i < 50; i++) {
+			resultados.add(hilos.submit(() -> lectura.obtener(1L, lenta, r -> unidas.incrementAndGet())));
+		}
+		while (unidas.get() < 50) {
+			Thread.onSpinWait();
+		}
+
+		// Otra clave no espera a la carga en curso
+		assertThat(lectura.obtener(2L, () -> "poliza-2", r -> { })).isEqualTo("poliza-2");
+
+		liberar.countDown();
+		for (Future<String> resultado : resultados) {
+			assertThat(resultado.get(5, TimeUnit.SECONDS)).isEqualTo("poliza-1");
+		}
+		assertThat(cargas).hasValue(1);
+
+		// Sin ventana de reutilización, la siguiente lectura vuelve a consultar
+		lectura.obtener(1L, lenta, r -> { });
+		assertThat(cargas).hasValue(2);
+	}
+
+	@Test
+	void laExcepcionLlegaATodasYNoSeReutiliza() throws Exception {
+		LecturaCoalescida<Long, String> lectura = new LecturaCoalescida<>(TimeUnit.MINUTES.toNanos(1));
+		CountDownLatch liberar = new CountDownLatch(1);
+		AtomicInteger cargas = new AtomicInteger();
+		Supplier<String> fallida = () -> {
+			cargas.incrementAndGet();
+			esperar(liberar);
+			throw new IllegalStateException("sin conexión");
+		};
+
+		Future<String> primera = hilos.submit(() -> lectura.obtener(1L, fallida, r -> { }));
+		while (cargas.get() == 0) {
+			Thread.onSpinWait();
+		}
+		List<LecturaCoalescida.Resultado> registrados = new CopyOnWriteArrayList<>();
+		Future<String> segunda = hilos.submit(() -> lectura.obtener(1L, fallida, registrados::add));
+		while (registrados.isEmpty()) {
+			Thread.onSpinWait();
+		}
+		liberar.countDown();
+
+		assertThatThrownBy(() -> primera.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("sin conexión");
+		assertThatThrownBy(() -> segunda.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("sin conexión");
+		assertThat(registrados).containsExactly(LecturaCoalescida.Resultado.COMPARTIDA);
+		assertThat(lectura.obtener(1L, () -> "recuperada", r -> { })).isEqualTo("recuperada");
+	}
+
+	@Test
+	void reutilizaDentroDeLaVentanaHastaQueSeInvalida() {
+		LecturaCoalescida<Long, Integer> lectura = new LecturaCoalescida<>(TimeUnit.MINUTES.toNanos(1));
+		AtomicInteger existencia = new AtomicInteger(500);
+		List<LecturaCoalescida.Resultado> registrados = new ArrayList<>();
+
+		assertThat(lectura.obtener(1000L, existencia::get, registrados::add)).isEqualTo(500);
+		existencia.set(499);
+		assertThat(lectura.obtener(1000L, existencia::get, registrados::add)).isEqualTo(500);
+
+		lectura.invalidar(sku -> sku == 1000L);
+		assertThat(lectura.obtener(1000L, existencia::get, registrados::add)).isEqualTo(499);
+		assertThat(registrados).containsExactly(LecturaCoalescida.Resultado.CARGADA,
+				LecturaCoalescida.Resultado.REUTILIZADA, LecturaCoalescida.Resultado.CARGADA);
+	}
+
+	private static void esperar(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
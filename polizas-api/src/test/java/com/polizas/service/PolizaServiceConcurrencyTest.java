@@ -0,0 +1,96 @@
+package com.polizas.service;
+
+import com.polizas.PostgresContainerTest;
+import com.polizas.dto.PolizaRequestDto;
+import com.polizas.model.Inventario;
+import com.polizas.repository.InventarioRepository;
+import com.polizas.repository.PolizaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PolizaServiceConcurrencyTest extends PostgresContainerTest {
+
+	private static final long SKU = 990001L;
+	private static final int EXISTENCIA_INICIAL = 1500;
+	private static final int PETICIONES = 4000;
+	private static final int HILOS = 64;
+
+	@Autowired
+	private PolizaService polizaService;
+
+	@Autowired
+	private InventarioRepository inventarioRepository;
+
+	@Autowired
+	private PolizaRepository polizaRepository;
+
+	@Test
+	void creacionesConcurrentesNoPierdenActualizacionesNiDejanExistenciaNegativa() throws Exception {
+		inventarioRepository.save(Inventario.builder()
+				.sku(SKU)
+				.nombre("Artículo de prueba concurrente")
+				.cantidad(EXISTENCIA_INICIAL)
+				.build());
+
+		AtomicInteger creadas = new AtomicInteger();
+		AtomicInteger rechazadas = new AtomicInteger();
+		CountDownLatch salida = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+		List<Future<?>> tareas = new ArrayList<>();
+
+		for (int i = 0; i < PETICIONES; i++) {
+			tareas.add(executor.submit(() -> {
+				salida.await();
+				try {
+					polizaService.crearPoliza(PolizaRequestDto.builder()
+							.empleadoGenero(101L)
+							.sku(SKU)
+							.cantidad(1)
+							.build());
+					creadas.incrementAndGet();
+				} catch (IllegalStateException e) {
+					rechazadas.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+
+		salida.countDown();
+		for (Future<?> tarea : tareas) {
+			tarea.get();
+		}
+		executor.shutdown();
+		assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+		assertThat(creadas.get()).isEqualTo(EXISTENCIA_INICIAL);
+		assertThat(rechazadas.get()).isEqualTo(PETICIONES - EXISTENCIA_INICIAL);
+		assertThat(inventarioRepository.findBySku(SKU).orElseThrow().getCantidad()).isZero();
+		assertThat(polizaRepository.findBySku(SKU)).hasSize(EXISTENCIA_INICIAL);
+
+		// La reposición concurrente debe devolver exactamente lo descontado
+		ExecutorService reposicion = Executors.newFixedThreadPool(HILOS);
+		List<Future<?>> eliminaciones = new ArrayList<>();
+		polizaRepository.findBySku(SKU).forEach(poliza -> eliminaciones.add(
+				reposicion.submit(() -> polizaService.eliminarPoliza(poliza.getIdPoliza()))));
+		for (Future<?> eliminacion : eliminaciones) {
+			eliminacion.get();
+		}
+		reposicion.shutdown();
+
+		assertThat(inventarioRepository.findBySku(SKU).orElseThrow().getCantidad()).isEqualTo(EXISTENCIA_INICIAL);
+		assertThat(polizaRepository.findBySku(SKU)).isEmpty();
+	}
+}
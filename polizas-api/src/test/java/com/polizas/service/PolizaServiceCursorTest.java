@@ -0,0 +1,91 @@
+package com.polizas.service;
+
+import com.polizas.PostgresContainerTest;
+import com.polizas.dto.PageResponseDto;
+import com.polizas.dto.PolizaResponseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Paginación por cursor de PolizaService: recorrer la tabla completa página a página entrega cada póliza una
+ * sola vez y en el orden de la consulta. Cada prueba se revierte.
+ */
+@SpringBootTest
+@Transactional
+class PolizaServiceCursorTest extends PostgresContainerTest {
+
+	private static final LocalDateTime FECHA_REPETIDA = LocalDateTime.of(2031, 3, 14, 15, 9, 26, 535_000_000);
+
+	@Autowired
+	private PolizaService polizaService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void recorreTodaLaTablaSinHuecosNiRepetidos() {
+		// Con fechas repetidas también fuera del lote inicial, para que el desempate por ID cruce páginas
+		for (int i = 0; i < 5; i++) {
+			insertar(FECHA_REPETIDA);
+		}
+
+		String[][] ordenes = {
+				{ "idPoliza", "id_poliza" },
+				{ "fecha", "fecha, id_poliza" } };
+		for (String[] orden : ordenes) {
+			for (boolean descendente : new boolean[] { false, true }) {
+				String direccion = descendente ? " DESC" : "";
+				List<Long> esperadas = jdbcTemplate.queryForList("SELECT id_poliza FROM polizas ORDER BY "
+						+ orden[1].replace(",", direccion + ",") + direccion, Long.class);
+
+				// Páginas de 7 con los datos de ejemplo; sobre una base grande, unas 50 páginas
+				int size = Math.max(7, esperadas.size() / 50);
+				assertThat(recorrer(null, null, orden[0], descendente, size))
+						.as("%s %s", orden[0], descendente ? "desc" : "asc")
+						.containsExactlyElementsOf(esperadas);
+			}
+		}
+	}
+
+	@Test
+	void fechasRepetidasSeDesempatanPorId() {
+		List<Long> lote = new ArrayList<>();
+		for (int i = 0; i < 7; i++) {
+			lote.add(insertar(FECHA_REPETIDA));
+		}
+		LocalDateTime desde = FECHA_REPETIDA.minusDays(1);
+		LocalDateTime hasta = FECHA_REPETIDA.plusDays(1);
+
+		// Páginas de 3 sobre 7 pólizas con la misma fecha: los cortes caen dentro del empate
+		assertThat(recorrer(desde, hasta, "fecha", false, 3)).containsExactlyElementsOf(lote);
+		assertThat(recorrer(desde, hasta, "fecha", true, 3)).containsExactlyElementsOf(lote.reversed());
+	}
+
+	private List<Long> recorrer(LocalDateTime desde, LocalDateTime hasta, String sortBy, boolean descendente,
+			int size) {
+		List<Long> ids = new ArrayList<>();
+		String cursor = null;
+		do {
+			PageResponseDto<PolizaResponseDto> pagina = polizaService.obtenerPolizasPorCursor(null, null, desde,
+					hasta, sortBy, descendente, cursor, size);
+			pagina.getContent().forEach(poliza -> ids.add(poliza.getPoliza().getIdPoliza()));
+			assertThat(pagina.getNextCursor() != null).isEqualTo(pagina.getHasNext());
+			cursor = pagina.getNextCursor();
+		} while (cursor != null);
+		return ids;
+	}
+
+	private long insertar(LocalDateTime fecha) {
+		return jdbcTemplate.queryForObject("INSERT INTO polizas (empleado_genero, sku, cantidad, fecha) "
+				+ "VALUES (101, 1000, 1, ?) RETURNING id_poliza", Long.class, fecha);
+	}
+}
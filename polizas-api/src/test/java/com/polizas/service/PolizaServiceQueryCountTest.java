@@ -0,0 +1,57 @@
+package com.polizas.service;
+
+import com.polizas.PostgresContainerTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PolizaServiceQueryCountTest extends PostgresContainerTest {
+
+	@Autowired
+	private PolizaService polizaService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void obtenerTodasPolizasEjecutaUnaSolaConsulta() {
+		assertThat(polizaService.obtenerTodasPolizas()).hasSizeGreaterThanOrEqualTo(10);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void obtenerPolizaPorIdEjecutaUnaSolaConsulta() {
+		assertThat(polizaService.obtenerPolizaPorId(1L).getEmpleado().getNombre()).isEqualTo("Roberto");
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void paginadoEjecutaConsultaYConteoParaCualquierFiltro() {
+		PageRequest pageable = PageRequest.of(0, 2, Sort.by("idPoliza").ascending());
+		Long[][] filtros = { { null, null }, { 105L, null }, { null, 1000L }, { 105L, 1000L } };
+
+		for (Long[] filtro : filtros) {
+			statistics.clear();
+			polizaService.obtenerPolizasPaginadas(filtro[0], filtro[1], null, null, pageable);
+			// Contenido + count(*), sin consultas por fila
+			assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+		}
+	}
+}